@@ -1,20 +1,16 @@
 package org.palladiosimulator.simulizar.action.repository.black;
 
-import java.util.Optional;
-
 import org.eclipse.m2m.qvt.oml.blackbox.java.Operation;
 import org.eclipse.m2m.qvt.oml.blackbox.java.Operation.Kind;
 import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
 
 public class SimulationStateLibrary {
 
-    private static Optional<AbstractSimuLizarRuntimeState> state = Optional.empty();
-
     public SimulationStateLibrary() {
     }
 
     /**
-     * Gets the current simulation (in {@code s}).
+     * Gets the current simulation time (in {@code s}) of the simulation run by the current thread.
      * 
      * @return The current simulation time, in terms of a nonnegative double value.
      * @throws RuntimeException
@@ -22,11 +18,11 @@ public class SimulationStateLibrary {
      */
     @Operation(kind = Kind.HELPER)
     public static double getSimulationTime() {
-        return state.map(s -> s.getModel().getSimulationControl().getCurrentSimulationTime()).orElseThrow(
-                () -> new RuntimeException("Could not query simulation time. Maybe runtime state has not been set!"));
-    }
-
-    static void injectRuntimeStateModel(AbstractSimuLizarRuntimeState state) {
-        SimulationStateLibrary.state = Optional.ofNullable(state);
+        final AbstractSimuLizarRuntimeState state = AbstractSimuLizarRuntimeState.getRunningState();
+        if (state == null) {
+            throw new RuntimeException(
+                    "Could not query simulation time. Maybe the current thread does not run a simulation!");
+        }
+        return state.getModel().getSimulationControl().getCurrentSimulationTime();
     }
 }
@@ -3,18 +3,32 @@ package org.palladiosimulator.simulizar.action.interpreter;
 import java.util.Objects;
 import java.util.Optional;
 
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.palladiosimulator.simulizar.action.context.ExecutionContext;
 import org.palladiosimulator.simulizar.action.core.AdaptationBehaviorRepository;
 import org.palladiosimulator.simulizar.action.core.ControllerCall;
 import org.palladiosimulator.simulizar.action.instance.RoleSet;
+import org.palladiosimulator.simulizar.action.jobs.LoadAdaptationBehaviorRepositoryIntoBlackBoardJob;
 import org.palladiosimulator.simulizar.action.parameter.ControllerCallInputVariableUsageCollection;
 import org.palladiosimulator.simulizar.action.parameter.ParameterFactory;
 import org.palladiosimulator.simulizar.runtimestate.IRuntimeStateAccessor;
 import org.palladiosimulator.simulizar.runtimestate.SimuLizarRuntimeState;
 import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
 
+import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
+
+/**
+ * Provides the {@link AbstractSimuLizarRuntimeState} of a simulation run to the interpreters of
+ * {@link AdaptationBehaviorRepository adaptation behaviors}. The runtime state is not kept in a
+ * static field but attached to the resource sets holding the models of the simulation run, so
+ * several simulation runs with their own models can be executed concurrently.
+ */
 public class ActionRuntimeState implements IRuntimeStateAccessor {
-    private static AbstractSimuLizarRuntimeState state;
 
     private static final ControllerCallInputVariableUsageCollection EMPTY_VARIABLE_USAGE_COLLECTION = ParameterFactory.eINSTANCE
             .createControllerCallInputVariableUsageCollection();
@@ -31,16 +45,32 @@ public class ActionRuntimeState implements IRuntimeStateAccessor {
      * @return An {@link TransientEffectInterpreterBuilder} instance to construct the interpreter.
      * @throws NullPointerException
      *             In case either argument is {@code null}.
+     * @throws IllegalStateException
+     *             In case no {@link SimuLizarRuntimeState} has been injected for the models of the
+     *             given arguments.
      */
     public static TransientEffectInterpreterBuilder getInterpreterBuilder(RoleSet roleSet,
             AdaptationBehaviorRepository repository) {
-        return new TransientEffectInterpreterBuilder(roleSet, repository);
+        Objects.requireNonNull(roleSet);
+        Objects.requireNonNull(repository);
+        AbstractSimuLizarRuntimeState state = getRuntimeState(repository);
+        if (state == null) {
+            state = getRuntimeState(roleSet);
+        }
+        if (state == null) {
+            throw new IllegalStateException(
+                    "No runtime state has been injected for the models of adaptation behavior repository "
+                            + repository.getEntityName() + "!");
+        }
+        return new TransientEffectInterpreterBuilder(state, roleSet, repository);
     }
 
     /**
      * Injects the {@link SimuLizarRuntimeState} which is then used by
      * {@link #TransientEffectInterpreterBuilder} instances to equip themselves for interpreter
-     * creation.
+     * creation. The runtime state is attached to the resource set of the adaptation behavior
+     * repositories (if loaded) and to the resource set of the global PCM model of the simulation
+     * run.
      * 
      * @param The
      *            {@link SimuLizarRuntimeState} to inject.
@@ -49,7 +79,59 @@ public class ActionRuntimeState implements IRuntimeStateAccessor {
      */
     @Override
     public void setRuntimeStateModel(AbstractSimuLizarRuntimeState passedState) {
-        ActionRuntimeState.state = Objects.requireNonNull(passedState);
+        Objects.requireNonNull(passedState);
+        MDSDBlackboard blackboard = passedState.getModelAccess().getBlackboard();
+        if (blackboard.hasPartition(
+                LoadAdaptationBehaviorRepositoryIntoBlackBoardJob.ADAPTATION_BEHAVIOR__REPOSITORY_MODEL_PARTITION_ID)) {
+            bind(blackboard
+                    .getPartition(
+                            LoadAdaptationBehaviorRepositoryIntoBlackBoardJob.ADAPTATION_BEHAVIOR__REPOSITORY_MODEL_PARTITION_ID)
+                    .getResourceSet(), passedState);
+        }
+        bind(passedState.getModelAccess().getGlobalPCMModel().getResourceSet(), passedState);
+    }
+
+    private static void bind(Notifier target, AbstractSimuLizarRuntimeState state) {
+        Adapter existing = EcoreUtil.getExistingAdapter(target, ActionRuntimeState.class);
+        if (existing != null) {
+            target.eAdapters().remove(existing);
+        }
+        target.eAdapters().add(new RuntimeStateAdapter(state));
+    }
+
+    /**
+     * Gets the {@link SimuLizarRuntimeState} which has been injected for the models the given model
+     * element belongs to.
+     * 
+     * @param eObject
+     *            A model element of a simulation run.
+     * @return The runtime state of the simulation run, or {@code null} if none has been injected for
+     *         the resource set of the model element.
+     */
+    public static AbstractSimuLizarRuntimeState getRuntimeState(EObject eObject) {
+        Resource resource = eObject.eResource();
+        if (resource == null || resource.getResourceSet() == null) {
+            return null;
+        }
+        Adapter adapter = EcoreUtil.getExistingAdapter(resource.getResourceSet(), ActionRuntimeState.class);
+        return adapter == null ? null : ((RuntimeStateAdapter) adapter).state;
+    }
+
+    /**
+     * Adapter which attaches a runtime state to a resource set.
+     */
+    private static final class RuntimeStateAdapter extends AdapterImpl {
+
+        private final AbstractSimuLizarRuntimeState state;
+
+        private RuntimeStateAdapter(AbstractSimuLizarRuntimeState state) {
+            this.state = state;
+        }
+
+        @Override
+        public boolean isAdapterForType(Object type) {
+            return type == ActionRuntimeState.class;
+        }
     }
 
     /**
@@ -61,7 +143,7 @@ public class ActionRuntimeState implements IRuntimeStateAccessor {
      */
     public static class TransientEffectInterpreterBuilder {
 
-        private final AbstractSimuLizarRuntimeState state = ActionRuntimeState.state;
+        private final AbstractSimuLizarRuntimeState state;
         private final RoleSet roleSet;
         private final AdaptationBehaviorRepository repository;
 
@@ -69,7 +151,9 @@ public class ActionRuntimeState implements IRuntimeStateAccessor {
         private ControllerCallInputVariableUsageCollection controllerCallVariableUsages = EMPTY_VARIABLE_USAGE_COLLECTION;
         private boolean isAsync = false;
 
-        private TransientEffectInterpreterBuilder(RoleSet roleSet, AdaptationBehaviorRepository repository) {
+        private TransientEffectInterpreterBuilder(AbstractSimuLizarRuntimeState state, RoleSet roleSet,
+                AdaptationBehaviorRepository repository) {
+            this.state = Objects.requireNonNull(state);
             this.roleSet = Objects.requireNonNull(roleSet);
             this.repository = Objects.requireNonNull(repository);
         }
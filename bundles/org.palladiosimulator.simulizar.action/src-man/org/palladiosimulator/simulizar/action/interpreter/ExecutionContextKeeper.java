@@ -7,12 +7,14 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.palladiosimulator.simulizar.action.context.ExecutionContext;
 import org.palladiosimulator.simulizar.action.core.AdaptationBehavior;
+import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
 
 import de.uka.ipd.sdq.simucomframework.SimuComSimProcess;
 
 /**
- * Utility class, realized as a singleton, to maintain associations between {@link ExecutionContext}
- * s and {@link SimuComSimProcess}es. More precisely, the {@link ExecutionContext} of any
+ * Utility class, realized as one instance per {@link AbstractSimuLizarRuntimeState}, to maintain
+ * associations between {@link ExecutionContext}s and {@link SimuComSimProcess}es of a simulation
+ * run. More precisely, the {@link ExecutionContext} of any
  * {@link AdaptationBehavior} that is executed asynchronously (i.e., one of its
  * {@link AdaptationBehavior#executeAsync(org.palladiosimulator.simulizar.action.instance.RoleSet)}
  * methods has been called) is maintained here together with the simulation processed which executes
@@ -23,20 +25,23 @@ import de.uka.ipd.sdq.simucomframework.SimuComSimProcess;
  */
 public final class ExecutionContextKeeper {
 
-    private static final ExecutionContextKeeper instance = new ExecutionContextKeeper();
-
     private final Map<String, SimuComSimProcess> contextProcessMapping = new ConcurrentHashMap<>();
 
     private ExecutionContextKeeper() {
     }
 
     /**
-     * Gets the sole instance of this class.
+     * Gets the instance of this class which belongs to the given runtime state.
      * 
-     * @return The sole {@link ExecutionContextKeeper} instance.
+     * @param state
+     *            The {@link AbstractSimuLizarRuntimeState} of the current simulation run.
+     * @return The {@link ExecutionContextKeeper} instance of the runtime state.
+     * @throws NullPointerException
+     *             In case {@code state == null}.
      */
-    public static ExecutionContextKeeper getInstance() {
-        return instance;
+    public static ExecutionContextKeeper getInstance(AbstractSimuLizarRuntimeState state) {
+        return Objects.requireNonNull(state).getExtensionState(ExecutionContextKeeper.class,
+                ExecutionContextKeeper::new);
     }
 
     /**
@@ -132,7 +132,7 @@ public class TransientEffectInterpreter extends CoreSwitch<TransientEffectExecut
 
 			@Override
 			public void notifyTerminated(ISimProcess process) {
-				ExecutionContextKeeper.getInstance().removeContextProcessMapping(
+				ExecutionContextKeeper.getInstance(TransientEffectInterpreter.this.state).removeContextProcessMapping(
 						asyncInterpretationProcess.getCorrespondingContext(), asyncInterpretationProcess);
 			}
 
@@ -156,7 +156,7 @@ public class TransientEffectInterpreter extends CoreSwitch<TransientEffectExecut
 		if (context.getId().equals(DEFAULT_EXECUTION_CONTEXT.getId())) {
 			interpreterProcess = this.associatedReconfigurationProcess;
 		} else {
-			interpreterProcess = ExecutionContextKeeper.getInstance().getProcessForContext(context)
+			interpreterProcess = ExecutionContextKeeper.getInstance(this.state).getProcessForContext(context)
 					.orElseThrow(() -> new RuntimeException(
 							"Invalid context for synchronous execution of adaptation behavior:\n"
 									+ "Corresponding process does not exist or has already terminated!"));
@@ -171,7 +171,7 @@ public class TransientEffectInterpreter extends CoreSwitch<TransientEffectExecut
 		if (this.isAsync) {
 			// spawn an async process for interpretation and return immediately
 			AsyncInterpretationProcess asyncProcess = createAsyncProcess(adaptationBehavior);
-			ExecutionContextKeeper.getInstance().addContextProcessMapping(asyncProcess.getCorrespondingContext(),
+			ExecutionContextKeeper.getInstance(this.state).addContextProcessMapping(asyncProcess.getCorrespondingContext(),
 					asyncProcess);
 					TransientEffectInterpreter.this.executionContext = 
 				Optional.of(asyncProcess.getCorrespondingContext());
@@ -432,6 +432,7 @@ public class TransientEffectInterpreter extends CoreSwitch<TransientEffectExecut
 
 		@Override
 		protected void internalLifeCycle() {
+			TransientEffectInterpreter.this.state.bindToCurrentThread();
 			LOGGER.debug("Async execution of adaptation behavior \"" + this.behaviorToInterpret.getEntityName() + "\" is taking place.");
 			// within the async process, just proceed regularly, that is, do the
 			// interpretation
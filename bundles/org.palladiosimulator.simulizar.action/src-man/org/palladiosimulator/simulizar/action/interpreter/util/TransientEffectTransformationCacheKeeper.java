@@ -1,30 +1,32 @@
 package org.palladiosimulator.simulizar.action.interpreter.util;
 
-import java.util.HashMap;
-import java.util.Map;
-
 import org.palladiosimulator.simulizar.modelobserver.IModelObserver;
 import org.palladiosimulator.simulizar.reconfiguration.qvto.util.ModelTransformationCache;
 import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
 
+/**
+ * Keeps the cache of the transformations of transient effects as state of the runtime state it is
+ * initialized with.
+ */
 public class TransientEffectTransformationCacheKeeper implements IModelObserver {
-	protected static Map<AbstractSimuLizarRuntimeState, ModelTransformationCache> CACHE_MAP = new HashMap<>();
 	protected AbstractSimuLizarRuntimeState runtimeState = null;
 
 	public static ModelTransformationCache getTransformationCacheForRuntimeState(AbstractSimuLizarRuntimeState state) {
-		return TransientEffectTransformationCacheKeeper.CACHE_MAP.get(state);
+		return state.getExtensionState(ModelTransformationCache.class, ModelTransformationCache::new);
 	}
 	
 	@Override
 	public void initialize(AbstractSimuLizarRuntimeState runtimeState) {
 		this.runtimeState = runtimeState;
-		TransientEffectTransformationCacheKeeper.CACHE_MAP.put(runtimeState, new ModelTransformationCache());
+		getTransformationCacheForRuntimeState(runtimeState);
 	}
 
 	@Override
 	public void unregister() {
-		ModelTransformationCache cache = TransientEffectTransformationCacheKeeper.CACHE_MAP.remove(this.runtimeState);
-		cache.clear();
+		ModelTransformationCache cache = this.runtimeState.removeExtensionState(ModelTransformationCache.class);
+		if (cache != null) {
+			cache.clear();
+		}
 	}
 
 }
@@ -29,7 +29,7 @@ public class LoadAdaptationBehaviorRepositoryIntoBlackBoardJob extends AbstractW
      * Constant which holds the id of the {@link AdaptationBehaviorRepository} within the
      * blackboard, as defined in the plugin.xml (in the corresponding extension section).
      */
-    private static final String ADAPTATION_BEHAVIOR__REPOSITORY_MODEL_PARTITION_ID = "org.palladiosimulator.simulizar.action";
+    public static final String ADAPTATION_BEHAVIOR__REPOSITORY_MODEL_PARTITION_ID = "org.palladiosimulator.simulizar.action";
 
     private String path;
 
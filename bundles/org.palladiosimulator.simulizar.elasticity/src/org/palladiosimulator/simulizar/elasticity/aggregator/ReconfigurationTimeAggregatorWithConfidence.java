@@ -56,12 +56,22 @@ public class ReconfigurationTimeAggregatorWithConfidence implements IMeasurement
     public void newMeasurementAvailable(final MeasuringValue measurement) {
     	final Measure<Double, Duration> responseTimeMeasure = measurement
                 .getMeasureForMetric(MetricDescriptionConstants.RECONFIGURATION_TIME_METRIC);
-        final double responseTime = responseTimeMeasure.doubleValue(SI.SECOND);
-        if(responseTime == 0.0){
-        	return;
+        this.offerSample(responseTimeMeasure.doubleValue(SI.SECOND));
+    }
+
+    /**
+     * Adds the given reconfiguration time to the sample and checks whether the requested confidence
+     * has been reached. Reconfiguration times of 0 are ignored.
+     *
+     * @param reconfigurationTime
+     *            the reconfiguration time in seconds.
+     */
+    public void offerSample(final double reconfigurationTime) {
+        if (reconfigurationTime == 0.0) {
+            return;
         }
 
-        batchAlgorithm.offerSample(responseTime);
+        batchAlgorithm.offerSample(reconfigurationTime);
         if (batchAlgorithm.hasValidBatches() && batchAlgorithm.getBatchMeans().size() >= minBatches) {
             // estimate actual confidence interval
             final ConfidenceInterval ci = estimator.estimateConfidence(batchAlgorithm.getBatchMeans(), confidenceLevel);
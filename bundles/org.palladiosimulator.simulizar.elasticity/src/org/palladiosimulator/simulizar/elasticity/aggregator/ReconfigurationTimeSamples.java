@@ -0,0 +1,54 @@
+package org.palladiosimulator.simulizar.elasticity.aggregator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.measure.Measure;
+import javax.measure.quantity.Duration;
+import javax.measure.unit.SI;
+
+import org.palladiosimulator.measurementframework.MeasuringValue;
+import org.palladiosimulator.measurementframework.listener.IMeasurementSourceListener;
+import org.palladiosimulator.metricspec.constants.MetricDescriptionConstants;
+
+/**
+ * Collects the reconfiguration times measured during a single simulation run, so that the samples
+ * of several runs can be merged into a {@link ReconfigurationTimeAggregatorWithConfidence} in a
+ * well-defined order once the runs have finished.
+ */
+public class ReconfigurationTimeSamples implements IMeasurementSourceListener {
+
+    private final List<Double> reconfigurationTimes = new ArrayList<Double>();
+
+    @Override
+    public void newMeasurementAvailable(final MeasuringValue measurement) {
+        final Measure<Double, Duration> reconfigurationTimeMeasure = measurement
+                .getMeasureForMetric(MetricDescriptionConstants.RECONFIGURATION_TIME_METRIC);
+        this.reconfigurationTimes.add(reconfigurationTimeMeasure.doubleValue(SI.SECOND));
+    }
+
+    @Override
+    public void preUnregister() {
+        // Nothing to do
+    }
+
+    /**
+     * Offers all collected reconfiguration times to the given aggregator, in the order they have
+     * been measured.
+     *
+     * @param aggregator
+     *            the aggregator.
+     */
+    public void offerTo(final ReconfigurationTimeAggregatorWithConfidence aggregator) {
+        for (final Double reconfigurationTime : this.reconfigurationTimes) {
+            aggregator.offerSample(reconfigurationTime);
+        }
+    }
+
+    /**
+     * @return the number of collected reconfiguration times.
+     */
+    public int size() {
+        return this.reconfigurationTimes.size();
+    }
+}
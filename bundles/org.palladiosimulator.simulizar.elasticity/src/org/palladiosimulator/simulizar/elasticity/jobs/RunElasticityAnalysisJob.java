@@ -2,10 +2,19 @@ package org.palladiosimulator.simulizar.elasticity.jobs;
 
 import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RECONFIGURATION_TIME_METRIC_TUPLE;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.emf.ecore.EClass;
 import org.palladiosimulator.commons.eclipseutils.ExtensionHelper;
 import org.palladiosimulator.edp2.models.measuringpoint.MeasuringPoint;
 import org.palladiosimulator.metricspec.constants.MetricDescriptionConstants;
@@ -16,6 +25,7 @@ import org.palladiosimulator.simulizar.access.IModelAccess;
 import org.palladiosimulator.simulizar.access.ModelAccess;
 import org.palladiosimulator.simulizar.access.ModelAccessUseOriginalReferences;
 import org.palladiosimulator.simulizar.elasticity.aggregator.ReconfigurationTimeAggregatorWithConfidence;
+import org.palladiosimulator.simulizar.elasticity.aggregator.ReconfigurationTimeSamples;
 import org.palladiosimulator.simulizar.interpreter.listener.LogDebugListener;
 import org.palladiosimulator.simulizar.interpreter.listener.AbstractProbeFrameworkListener;
 import org.palladiosimulator.simulizar.launcher.IConfigurator;
@@ -28,6 +38,7 @@ import org.palladiosimulator.simulizar.runtimestate.IRuntimeStateAccessor;
 import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
 import org.palladiosimulator.simulizar.runtimestate.SimulationCancelationDelegate;
 
+import de.uka.ipd.sdq.simucomframework.SimuComConfig;
 import de.uka.ipd.sdq.simucomframework.model.SimuComModel;
 import de.uka.ipd.sdq.simucomframework.resources.CalculatorHelper;
 import de.uka.ipd.sdq.statistics.StaticBatchAlgorithm;
@@ -38,35 +49,34 @@ import de.uka.ipd.sdq.workflow.jobs.JobFailedException;
 import de.uka.ipd.sdq.workflow.jobs.UserCanceledException;
 import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
 
+/**
+ * Job repeating the simulation until the mean reconfiguration time is known with the requested
+ * confidence. The runs are dispatched in waves of as many runs as there are replication worker
+ * threads. The runs of a wave are prepared one after another on the thread executing this job and
+ * then run concurrently. Each run has its own models, runtime state and seeds, and collects its
+ * reconfiguration times separately. Once a run has finished, its reconfiguration times are merged
+ * into the sample in the order of the runs, so that the outcome does not depend on the scheduling
+ * of the runs. As soon as the requested confidence is reached, the remaining runs of the wave are
+ * cancelled.
+ */
 public class RunElasticityAnalysisJob implements IBlackboardInteractingJob<MDSDBlackboard> {
 	private static final Logger LOGGER = Logger.getLogger(RunElasticityAnalysisJob.class.getName());
 
-	private MDSDBlackboard blackboard;
-
 	private final SimuLizarWorkflowConfiguration configuration;
 
-	private static ReconfigurationTimeAggregatorWithConfidence aggregatorWithConfidence;
-	
-	public static ProbeFrameworkListenerForElasticity probeFrameworkListener;
-
-	private static int NUMBER_OF_RUNS_LIMIT = 50;
+	private static final int NUMBER_OF_RUNS_LIMIT = 50;
 
 	private static final double ONE_HUNDERT_PERCENT = 100.0;
 
-	private LoadSimuLizarModelsIntoBlackboardJob loadSimuLizarModelsIntoBlackboardJob;
-
 	/**
 	 * Constructor
 	 *
 	 * @param configuration
 	 *            the SimuCom workflow configuration.
 	 */
-	public RunElasticityAnalysisJob(final SimuLizarWorkflowConfiguration configuration,
-			LoadSimuLizarModelsIntoBlackboardJob loadSimuLizarModelsIntoBlackboardJob) {
+	public RunElasticityAnalysisJob(final SimuLizarWorkflowConfiguration configuration) {
 		super();
 		this.configuration = configuration;
-		this.loadSimuLizarModelsIntoBlackboardJob = loadSimuLizarModelsIntoBlackboardJob;
-		aggregatorWithConfidence = null;
 	}
 
 	/**
@@ -74,38 +84,134 @@ public class RunElasticityAnalysisJob implements IBlackboardInteractingJob<MDSDB
 	 */
 	@Override
 	public void execute(final IProgressMonitor monitor) throws JobFailedException, UserCanceledException {
-		int numberOfRuns = 0;
-		while ((aggregatorWithConfidence == null || !aggregatorWithConfidence.isConfidenceReached()) && numberOfRuns++ < NUMBER_OF_RUNS_LIMIT) {
-			LOGGER.info("Elasticity analysis, run No. " + numberOfRuns);
-
-			LOGGER.info("Start job: " + this);
-
-			LOGGER.info("Initialise Simulizar runtime state");
-
-			final List<IConfigurator> configurators = ExtensionHelper.getExecutableExtensions(
-					SimulizarConstants.CONFIGURATOR_EXTENSION_POINT_ID,
-					SimulizarConstants.CONFIGURATOR_EXTENSION_POINT_ATTRIBUTE);
-			this.setBlackboard(new MDSDBlackboard());
-			loadSimuLizarModelsIntoBlackboardJob.setBlackboard(this.blackboard);
-			loadSimuLizarModelsIntoBlackboardJob.execute(monitor);
-			for (final IConfigurator configurator : configurators) {
-				configurator.configure(this.configuration, this.blackboard);
+		LOGGER.info("Start job: " + this);
+
+		final SimuComConfig simuComConfig = (SimuComConfig) this.configuration.getSimulationConfiguration();
+		final ReconfigurationTimeAggregatorWithConfidence aggregatorWithConfidence = new ReconfigurationTimeAggregatorWithConfidence(
+				new StaticBatchAlgorithm(5, 5), new SampleMeanEstimator(),
+				simuComConfig.getConfidenceLevel() / ONE_HUNDERT_PERCENT,
+				simuComConfig.getConfidenceHalfWidth() / ONE_HUNDERT_PERCENT);
+		final int workerThreads = Math.max(1,
+				Math.min(this.configuration.getReplicationWorkerThreads(), NUMBER_OF_RUNS_LIMIT));
+		final AtomicBoolean stopped = new AtomicBoolean(false);
+
+		final ExecutorService executor = Executors.newFixedThreadPool(workerThreads);
+		try {
+			int numberOfRuns = 0;
+			while (!aggregatorWithConfidence.isConfidenceReached() && numberOfRuns < NUMBER_OF_RUNS_LIMIT) {
+				if (monitor.isCanceled()) {
+					throw new UserCanceledException();
+				}
+				final int waveSize = Math.min(workerThreads, NUMBER_OF_RUNS_LIMIT - numberOfRuns);
+				LOGGER.info("Elasticity analysis, runs No. " + (numberOfRuns + 1) + " to " + (numberOfRuns + waveSize));
+
+				final List<SimuLizarRuntimeStateElasticity> runtimeStates = new ArrayList<SimuLizarRuntimeStateElasticity>(
+						waveSize);
+				try {
+					for (int i = 0; i < waveSize; i++) {
+						runtimeStates.add(this.prepareRun(numberOfRuns + i, monitor, stopped));
+					}
+				} catch (JobFailedException | UserCanceledException | RuntimeException e) {
+					runtimeStates.forEach(SimuLizarRuntimeStateElasticity::cleanUp);
+					throw e;
+				}
+				final List<Future<ReconfigurationTimeSamples>> wave = new ArrayList<Future<ReconfigurationTimeSamples>>(
+						waveSize);
+				for (final SimuLizarRuntimeStateElasticity runtimeState : runtimeStates) {
+					wave.add(executor.submit(createRun(numberOfRuns++, runtimeState, stopped)));
+				}
+				for (final Future<ReconfigurationTimeSamples> run : wave) {
+					final ReconfigurationTimeSamples samples;
+					try {
+						samples = run.get();
+					} catch (final ExecutionException e) {
+						stopped.set(true);
+						throw new JobFailedException("Elasticity analysis run failed", e.getCause());
+					}
+					if (!aggregatorWithConfidence.isConfidenceReached()) {
+						samples.offerTo(aggregatorWithConfidence);
+						if (aggregatorWithConfidence.isConfidenceReached()) {
+							LOGGER.info("Confidence reached, cancelling the remaining runs");
+							stopped.set(true);
+						}
+					}
+				}
 			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JobFailedException("Interrupted while waiting for the elasticity analysis runs", e);
+		} finally {
+			// queued runs are still started, but skip their simulation and clean up right away
+			stopped.set(true);
+			executor.shutdown();
+			awaitTermination(executor);
+		}
+		LOGGER.info("finished job: " + this);
+	}
+
+	/**
+	 * Prepares the runtime state of the given run. Runs are prepared one after another before any
+	 * run of their wave is started, as preparing a run creates an experiment run and sets up the
+	 * global random generator of SimuCom.
+	 */
+	private SimuLizarRuntimeStateElasticity prepareRun(final int run, final IProgressMonitor monitor,
+			final AtomicBoolean stopped) throws JobFailedException, UserCanceledException {
+		LOGGER.info("Initialise Simulizar runtime state of run No. " + (run + 1));
+		final SimuLizarWorkflowConfiguration runConfiguration = this.configuration.getReplicationClone(run);
+
+		final MDSDBlackboard runBlackboard = new MDSDBlackboard();
+		final LoadSimuLizarModelsIntoBlackboardJob loadSimuLizarModelsIntoBlackboardJob = new LoadSimuLizarModelsIntoBlackboardJob(
+				runConfiguration);
+		loadSimuLizarModelsIntoBlackboardJob.setBlackboard(runBlackboard);
+		loadSimuLizarModelsIntoBlackboardJob.execute(monitor);
 
-			this.configuration.setReconfigurationRulesFolder(this.configuration.getReconfigurationRulesFolder());
-
-			// FIXME @Igor: Use ModelAccess instead of
-			// ModelAccessUseOriginalReferences.
-			// After we find a way to copy models so that their links do not
-			// point to intermediary, but
-			// to the models directly.
-			final AbstractSimuLizarRuntimeState runtimeState = new SimuLizarRuntimeStateElasticity(this.configuration,
-					new ModelAccessUseOriginalReferences(this.blackboard),
-					new SimulationCancelationDelegate(monitor::isCanceled));
-			this.initializeRuntimeStateAccessors(runtimeState);
-			runtimeState.runSimulation();
-			runtimeState.cleanUp();
-			LOGGER.info("finished job: " + this);
+		final List<IConfigurator> configurators = ExtensionHelper.getExecutableExtensions(
+				SimulizarConstants.CONFIGURATOR_EXTENSION_POINT_ID,
+				SimulizarConstants.CONFIGURATOR_EXTENSION_POINT_ATTRIBUTE);
+		for (final IConfigurator configurator : configurators) {
+			configurator.configure(runConfiguration, runBlackboard);
+		}
+
+		// FIXME @Igor: Use ModelAccess instead of
+		// ModelAccessUseOriginalReferences.
+		// After we find a way to copy models so that their links do not
+		// point to intermediary, but
+		// to the models directly.
+		final SimuLizarRuntimeStateElasticity runtimeState = new SimuLizarRuntimeStateElasticity(runConfiguration,
+				new ModelAccessUseOriginalReferences(runBlackboard),
+				new SimulationCancelationDelegate(() -> monitor.isCanceled() || stopped.get()));
+		this.initializeRuntimeStateAccessors(runtimeState);
+		return runtimeState;
+	}
+
+	private static Callable<ReconfigurationTimeSamples> createRun(final int run,
+			final SimuLizarRuntimeStateElasticity runtimeState, final AtomicBoolean stopped) {
+		return () -> {
+			try {
+				if (stopped.get()) {
+					return new ReconfigurationTimeSamples();
+				}
+				runtimeState.runSimulation();
+			} finally {
+				runtimeState.cleanUp();
+			}
+			LOGGER.info("Finished run No. " + (run + 1) + " with " + runtimeState.getReconfigurationTimes().size()
+					+ " reconfiguration times");
+			return runtimeState.getReconfigurationTimes();
+		};
+	}
+
+	/**
+	 * Waits for the runs still running or queued. Simulation runs do not react to interrupts, but
+	 * are cancelled as soon as the analysis is stopped.
+	 */
+	private static void awaitTermination(final ExecutorService executor) {
+		try {
+			while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+				LOGGER.info("Waiting for running elasticity analysis runs to terminate");
+			}
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -139,11 +245,17 @@ public class RunElasticityAnalysisJob implements IBlackboardInteractingJob<MDSDB
 	 */
 	@Override
 	public void setBlackboard(final MDSDBlackboard blackboard) {
-		this.blackboard = blackboard;
+		// each run loads its models into a blackboard of its own
 	}
-	
-	private class SimuLizarRuntimeStateElasticity extends AbstractSimuLizarRuntimeState {
-		
+
+	private static class SimuLizarRuntimeStateElasticity extends AbstractSimuLizarRuntimeState {
+
+		/*
+		 * Assigned while the super constructor initializes the interpreter
+		 * listeners, hence neither final nor initialized here.
+		 */
+		private ReconfigurationTimeSamples reconfigurationTimes;
+
 		public SimuLizarRuntimeStateElasticity(SimuLizarWorkflowConfiguration configuration, ModelAccess modelAccess, final SimulationCancelationDelegate cancelationDelegate) {
 			super(configuration, modelAccess, cancelationDelegate);
 		}
@@ -151,42 +263,49 @@ public class RunElasticityAnalysisJob implements IBlackboardInteractingJob<MDSDB
 		@Override
 		protected void initializeInterpreterListeners(Reconfigurator reconfigurator) {
 			LOGGER.debug("Adding Debug and monitoring interpreter listeners");
-	        this.eventHelper.addObserver(new LogDebugListener());
+			this.reconfigurationTimes = new ReconfigurationTimeSamples();
+			if (LogDebugListener.isEnabled()) {
+				this.eventHelper.addObserver(new LogDebugListener());
+			}
 	        this.eventHelper.addObserver(new ProbeFrameworkListenerForElasticity(this.getModelAccess(),  this.getModel(), reconfigurator));
 		}
 
-	}
-	
-	private class ProbeFrameworkListenerForElasticity extends AbstractProbeFrameworkListener {
-
-		public ProbeFrameworkListenerForElasticity(IModelAccess modelAccess, SimuComModel simuComModel,
-				Reconfigurator reconfigurator) {
-			super(modelAccess, simuComModel, reconfigurator);
+		public ReconfigurationTimeSamples getReconfigurationTimes() {
+			return this.reconfigurationTimes;
 		}
 
-		@Override
-		protected void initReconfigurationTimeMeasurement() {
-			for (final MeasurementSpecification reconfigurationTimeMeasurementSpec : this
-					.getMeasurementSpecificationsForMetricDescription(
-							MetricDescriptionConstants.RECONFIGURATION_TIME_METRIC)) {
-				final MeasuringPoint measuringPoint = reconfigurationTimeMeasurementSpec.getMonitor().getMeasuringPoint();
-				final Probe probe = CalculatorHelper.getEventProbeSetWithCurrentTime(RECONFIGURATION_TIME_METRIC_TUPLE,
-						this.getSimuComModel().getSimulationControl(),
-						new TakeReconfigurationDurationProbe(reconfigurator));
-				try {
-					final Calculator calculator = this.getCalculatorFactory()
-							.buildReconfigurationTimeCalculator(measuringPoint, probe);
-					calculator.addObserver(RunElasticityAnalysisJob.aggregatorWithConfidence == null ? RunElasticityAnalysisJob.aggregatorWithConfidence = new ReconfigurationTimeAggregatorWithConfidence(
-																								new StaticBatchAlgorithm(5, 5),
-																								new SampleMeanEstimator(), 
-																								this.getSimuComModel().getConfiguration().getConfidenceLevel() / ONE_HUNDERT_PERCENT,
-																								this.getSimuComModel().getConfiguration().getConfidenceHalfWidth() / ONE_HUNDERT_PERCENT) 
-																			: RunElasticityAnalysisJob.aggregatorWithConfidence);
-				} catch (IllegalArgumentException iae) {
-					LOGGER.info("Tried to add a calculator that already exists");
+		private class ProbeFrameworkListenerForElasticity extends AbstractProbeFrameworkListener {
+
+			public ProbeFrameworkListenerForElasticity(IModelAccess modelAccess, SimuComModel simuComModel,
+					Reconfigurator reconfigurator) {
+				super(modelAccess, simuComModel, reconfigurator);
+			}
+
+			@Override
+			protected void initReconfigurationTimeMeasurement() {
+				for (final MeasurementSpecification reconfigurationTimeMeasurementSpec : this
+						.getMeasurementSpecificationsForMetricDescription(
+								MetricDescriptionConstants.RECONFIGURATION_TIME_METRIC)) {
+					final MeasuringPoint measuringPoint = reconfigurationTimeMeasurementSpec.getMonitor().getMeasuringPoint();
+					final Probe probe = CalculatorHelper.getEventProbeSetWithCurrentTime(RECONFIGURATION_TIME_METRIC_TUPLE,
+							this.getSimuComModel().getSimulationControl(),
+							new TakeReconfigurationDurationProbe(reconfigurator));
+					try {
+						final Calculator calculator = this.getCalculatorFactory()
+								.buildReconfigurationTimeCalculator(measuringPoint, probe);
+						calculator.addObserver(SimuLizarRuntimeStateElasticity.this.reconfigurationTimes);
+					} catch (IllegalArgumentException iae) {
+						LOGGER.info("Tried to add a calculator that already exists");
+					}
 				}
 			}
+
+			@Override
+			public boolean isInterestedIn(final EClass modelElementClass) {
+				return isMeasuredElementClass(modelElementClass);
+			}
 		}
+
 	}
-	
+
 }
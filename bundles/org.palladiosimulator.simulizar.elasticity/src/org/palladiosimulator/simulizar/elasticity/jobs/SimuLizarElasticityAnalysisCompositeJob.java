@@ -4,7 +4,6 @@ import de.uka.ipd.sdq.workflow.jobs.SequentialBlackboardInteractingJob;
 import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
 
 import org.palladiosimulator.simulizar.launcher.jobs.EvaluateResultsJob;
-import org.palladiosimulator.simulizar.launcher.jobs.LoadSimuLizarModelsIntoBlackboardJob;
 import org.palladiosimulator.simulizar.runconfig.SimuLizarWorkflowConfiguration;
 
 import de.uka.ipd.sdq.workflow.jobs.IBlackboardInteractingJob;
@@ -15,9 +14,7 @@ public class SimuLizarElasticityAnalysisCompositeJob extends SequentialBlackboar
 	public SimuLizarElasticityAnalysisCompositeJob(final SimuLizarWorkflowConfiguration configuration) {
         super(false);
 
-        LoadSimuLizarModelsIntoBlackboardJob loadSimuLizarModelsIntoBlackboardJob = new LoadSimuLizarModelsIntoBlackboardJob(configuration);
-
-        this.addJob(new RunElasticityAnalysisJob(configuration, loadSimuLizarModelsIntoBlackboardJob));
+        this.addJob(new RunElasticityAnalysisJob(configuration));
 
         if (configuration.getServiceLevelObjectivesFile() != null
                 && !(configuration.getServiceLevelObjectivesFile().equals(""))) {
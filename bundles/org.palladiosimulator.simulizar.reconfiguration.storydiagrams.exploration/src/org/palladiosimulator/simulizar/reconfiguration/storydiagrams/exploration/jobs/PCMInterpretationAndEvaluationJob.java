@@ -5,6 +5,7 @@ import org.palladiosimulator.simulizar.launcher.jobs.EvaluateResultsJob;
 import org.palladiosimulator.simulizar.launcher.jobs.PCMStartInterpretationJob;
 import org.palladiosimulator.simulizar.runconfig.SimuLizarWorkflowConfiguration;
 
+import de.uka.ipd.sdq.workflow.jobs.CleanupFailedException;
 import de.uka.ipd.sdq.workflow.jobs.JobFailedException;
 import de.uka.ipd.sdq.workflow.jobs.SequentialBlackboardInteractingJob;
 import de.uka.ipd.sdq.workflow.jobs.UserCanceledException;
@@ -13,15 +14,34 @@ import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
 public class PCMInterpretationAndEvaluationJob extends SequentialBlackboardInteractingJob<MDSDBlackboard> {
 
 	private SimuLizarWorkflowConfiguration configuration;
+	private final PCMStartInterpretationJob startInterpretationJob;
 	
 	public PCMInterpretationAndEvaluationJob(SimuLizarWorkflowConfiguration configuration) {
 		super();
 		this.configuration = configuration;
+		this.startInterpretationJob = new PCMStartInterpretationJob(configuration);
+	}
+
+	/**
+	 * Prepares the runtime state of the simulation on the calling thread, see
+	 * {@link PCMStartInterpretationJob#prepare(IProgressMonitor)}. The blackboard has to be set
+	 * before.
+	 */
+	public void prepare(IProgressMonitor monitor) throws JobFailedException, UserCanceledException {
+		this.startInterpretationJob.setBlackboard(this.myBlackboard);
+		this.startInterpretationJob.prepare(monitor);
+	}
+
+	/**
+	 * Cleans up the prepared runtime state if the job is not executed.
+	 */
+	public void discard(IProgressMonitor monitor) throws CleanupFailedException {
+		this.startInterpretationJob.cleanup(monitor);
 	}
 
 	@Override
 	public void execute(IProgressMonitor monitor) throws JobFailedException, UserCanceledException {
-		this.add(new PCMStartInterpretationJob(configuration));
+		this.add(this.startInterpretationJob);
 		this.add(new EvaluateResultsJob(configuration));
 		super.execute(monitor);
 	}
@@ -1,16 +1,21 @@
 package org.palladiosimulator.simulizar.reconfiguration.storydiagrams.exploration.jobs;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Calendar;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.apache.log4j.Logger;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IWorkspaceRoot;
-import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -19,20 +24,19 @@ import org.eclipse.emf.common.util.Diagnostic;
 import org.eclipse.emf.common.util.URI;
 import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.resource.ResourceSet;
-import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceImpl;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EcoreUtil;
-import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
 import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
 import org.palladiosimulator.analyzer.workflow.configurations.AbstractPCMWorkflowRunConfiguration;
 import org.palladiosimulator.analyzer.workflow.jobs.LoadPCMModelsIntoBlackboardJob;
 import org.palladiosimulator.analyzer.workflow.jobs.PreparePCMBlackboardPartitionJob;
-import org.palladiosimulator.pcm.repository.Repository;
 import org.palladiosimulator.simulizar.launcher.jobs.LoadMonitorRepositoryModelIntoBlackboardJob;
 import org.palladiosimulator.simulizar.launcher.jobs.LoadServiceLevelObjectiveRepositoryIntoBlackboardJob;
 import org.palladiosimulator.simulizar.launcher.jobs.LoadSimuLizarModelsIntoBlackboardJob;
 import org.palladiosimulator.simulizar.reconfiguration.storydiagram.jobs.LoadSDMModelsIntoBlackboardJob;
+import org.palladiosimulator.simulizar.reconfiguration.storydiagram.modelaccess.SDMResourceSetPartition;
 import org.palladiosimulator.simulizar.reconfiguration.storydiagrams.exploration.SDMReconfigurationSpaceExplorer;
 import org.palladiosimulator.simulizar.runconfig.SimuLizarWorkflowConfiguration;
 
@@ -46,6 +50,15 @@ import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
 import de.uka.ipd.sdq.workflow.mdsd.blackboard.ResourceSetPartition;
 import de.uni_paderborn.fujaba.muml.reachanalysis.reachabilityGraph.sdm.StepGraph;
 
+/**
+ * Simulates the reachable states of the reconfiguration space and evaluates their SLOs. The states
+ * are simulated concurrently by as many worker threads as replication worker threads are
+ * configured, each on in-memory copies of the models of the state and of the analyzed PCM, SDM
+ * and state space partitions. The first state, in the order of the reachability graph, whose
+ * simulation does not violate any SLO is the result of the analysis. Once a state meets its SLOs,
+ * the evaluations of all later states are cancelled and no further states are started; the
+ * evaluations of earlier states continue, as they still may meet their SLOs.
+ */
 public class RunSimuLizarScalabilityAnalysisJob extends SequentialJob
 		implements IBlackboardInteractingJob<MDSDBlackboard> {
 
@@ -83,155 +96,181 @@ public class RunSimuLizarScalabilityAnalysisJob extends SequentialJob
 		}
 
 		/*
-		 * Setting up the name of the ExperimentSetting in the EDP2 repository
-		 * so that all the jobs created below fall under the separate
-		 * ExperimentSetting.
+		 * Setting up the names of the ExperimentSettings in the EDP2 repository
+		 * so that the jobs created below fall under separate ExperimentSettings
+		 * of this analysis, one per state. The SLOs of a state are evaluated on
+		 * the last ExperimentRun of its ExperimentSetting, which would not be
+		 * well-defined if concurrently simulated states shared a setting.
 		 */
-		Map<String, Object> attributes = new TreeMap<String, Object>(configuration.getAttributes());
-		attributes.put("variationId", Calendar.getInstance().getTime().toString());
-
-		// List<PCMStartInterpretationJob> simuLizarJobs;
-		int j = 0;
-		for (final EObject stepGraph : reachabilityGraph) {
-			final StepGraph models = ((StepGraph) stepGraph);
-			final PCMResourceSetPartition pcmPartition = new PCMResourceSetPartition();
-			pcmPartition.initialiseResourceSetEPackages(AbstractPCMWorkflowRunConfiguration.PCM_EPACKAGES);
-			pcmPartition.loadModel(PreparePCMBlackboardPartitionJob.PCM_PALLADIO_PRIMITIVE_TYPE_REPOSITORY_URI);
-			pcmPartition.loadModel(PreparePCMBlackboardPartitionJob.PCM_PALLADIO_RESOURCE_TYPE_URI);
-			String modelsDirectory = temporaryDataLocation + "/model/PCM_partition_state_" + j++;
-			URI modelURI = URI.createFileURI(modelsDirectory);
-
-			for (int i = 0; i < models.getContainedNodes().size(); i++) {
-				final EObject model = EcoreUtil.copy(models.getContainedNodes().get(i));
-				final Resource resource = pcmPartition.getResourceSet()
-						.createResource(URI.createFileURI(modelsDirectory + model.hashCode()));
-				Diagnostic diagnostic = Diagnostician.INSTANCE.validate(model);
-				if (!(diagnostic.getSeverity() == Diagnostic.OK)) {
-					StringBuilder sb = new StringBuilder();
-					sb.append("The validation failed at: ").append(model.toString()).append("\n");
-					sb.append(diagnostic).append("\n");
-					throw new RuntimeException(sb.toString());
+		final String variationId = Calendar.getInstance().getTime().toString();
+
+		final int workerThreads = Math.max(1,
+				Math.min(this.configuration.getReplicationWorkerThreads(), reachabilityGraph.size()));
+		final ExecutorService executor = Executors.newFixedThreadPool(workerThreads);
+		final CompletionService<StateEvaluation> completionService = new ExecutorCompletionService<StateEvaluation>(
+				executor);
+		final List<StateEvaluation> evaluations = new ArrayList<StateEvaluation>();
+		int winner = Integer.MAX_VALUE;
+		try {
+			int running = 0;
+			while (true) {
+				/*
+				 * States are prepared on this thread only once a worker is
+				 * available, so that the EDP2 ExperimentRuns are created in the
+				 * order of the states and at most one copy of the models per
+				 * worker is held in memory. States behind a state meeting its
+				 * SLOs are not started anymore.
+				 */
+				while (running < workerThreads && evaluations.size() < Math.min(reachabilityGraph.size(), winner)) {
+					final int index = evaluations.size();
+					final StateEvaluation evaluation = this.prepareState(index,
+							(StepGraph) reachabilityGraph.get(index), variationId, monitor);
+					evaluations.add(evaluation);
+					completionService.submit(evaluation);
+					running++;
+				}
+				if (running == 0) {
+					break;
+				}
+				final StateEvaluation evaluation;
+				try {
+					evaluation = completionService.take().get();
+				} catch (final ExecutionException e) {
+					throw new JobFailedException("Evaluation of a reachable state failed", e.getCause());
+				}
+				running--;
+				if (evaluation.isSloMet() && evaluation.index < winner) {
+					winner = evaluation.index;
+					LOGGER.info("State " + winner + " meets its SLOs, cancelling the evaluations of later states");
+					for (int i = winner + 1; i < evaluations.size(); i++) {
+						evaluations.get(i).cancel();
+					}
+				}
+				if (monitor.isCanceled()) {
+					throw new UserCanceledException();
 				}
-				LOGGER.info("Adding model " + model.toString());
-
-				resource.getContents().add(model);
-				exportPcmModel(model, modelURI, monitor);
 			}
-
-			final MDSDBlackboard jobBlackboard = new MDSDBlackboard();
-			jobBlackboard.addPartition(LoadPCMModelsIntoBlackboardJob.PCM_MODELS_PARTITION_ID, pcmPartition);
-			jobBlackboard.addPartition(LoadSimuLizarModelsIntoBlackboardJob.PCM_MODELS_ANALYZED_PARTITION_ID,
-					this.blackboard
-							.getPartition(LoadSimuLizarModelsIntoBlackboardJob.PCM_MODELS_ANALYZED_PARTITION_ID));
-			jobBlackboard.addPartition(LoadSDMModelsIntoBlackboardJob.SDM_MODEL_PARTITION_ID,
-					this.blackboard.getPartition(LoadSDMModelsIntoBlackboardJob.SDM_MODEL_PARTITION_ID));
-			jobBlackboard.addPartition(SDMReconfigurationSpaceExplorer.SDM_RECONFIGURATION_STATE_SPACE,
-					this.blackboard.getPartition(SDMReconfigurationSpaceExplorer.SDM_RECONFIGURATION_STATE_SPACE));
-
-			/*
-			 * Creating a new configuration for a job with a new SimuComConfig
-			 * in order to have a new ExperimentRun in the EDP2 repository per
-			 * job. New ExperimentRun is created every time new SimuComConfig is
-			 * created.
-			 */
-			SimuLizarWorkflowConfiguration conf = new SimuLizarWorkflowConfiguration(attributes);
-
-			conf.setMonitorRepositoryFile(this.configuration.getMonitorRepositoryFile());
-			conf.setReconfigurationRulesFolder(this.configuration.getReconfigurationRulesFolder());
-			conf.setUsageEvolutionFile(this.configuration.getUsageEvolutionFile());
-			conf.setServiceLevelObjectivesFile(this.configuration.getServiceLevelObjectivesFile());
-
-			SimuComConfig simulationConfiguration = new SimuComConfig(attributes, false);
-			conf.setSimuComConfiguration(simulationConfiguration);
-			LoadMonitorRepositoryModelIntoBlackboardJob mrJob = new LoadMonitorRepositoryModelIntoBlackboardJob(conf);
-			mrJob.setBlackboard(jobBlackboard);
-			mrJob.execute(monitor);
-			LoadServiceLevelObjectiveRepositoryIntoBlackboardJob slJob = new LoadServiceLevelObjectiveRepositoryIntoBlackboardJob(
-					conf);
-			slJob.setBlackboard(jobBlackboard);
-			slJob.execute(monitor);
-
-			final PCMInterpretationAndEvaluationJob simulizarJob = new PCMInterpretationAndEvaluationJob(conf);
-			simulizarJob.setBlackboard(jobBlackboard);
-			this.add(simulizarJob);
-			// A separate NullProgressMonitor is used per simulation, so that
-			// the cancellation
-			// does not propagate to the main ProgressMonitor. If
-			// simulizarJobMonitor is cancelled
-			// it is an indicator that no other
-			// PCMInterpretationAndEvaluationJobs should be
-			// executed. The state has reached, where no SLOs are violated.
-			NullProgressMonitor simulizarJobMonitor = new NullProgressMonitor();
-			super.execute(simulizarJobMonitor);
-			if (simulizarJobMonitor.isCanceled()) {
-				break;
+		} catch (final InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new JobFailedException("Interrupted while evaluating the reachable states", e);
+		} finally {
+			for (final StateEvaluation evaluation : evaluations) {
+				evaluation.cancel();
 			}
+			executor.shutdown();
+		}
+		if (winner == Integer.MAX_VALUE) {
+			LOGGER.info("None of the " + evaluations.size() + " evaluated states meets its SLOs");
+		} else {
+			LOGGER.info("THE STATE WITH NO SLO VIOLATIONS WAS REACHED: state " + winner);
 		}
 	}
 
 	/**
-	 * Exports the PCM {@code model} to the file whose path is
-	 * {@code folderPath}.
-	 * 
-	 * @param model
-	 *            model to be exported
-	 * @param folderPath
-	 *            the path to which the {@code model} will be exported.
-	 * @param monitor
-	 *            ProgressMonitor.
+	 * Copies and validates the models of the given state into a blackboard of
+	 * its own, loads the monitor repository and the SLOs, and creates the
+	 * configuration and the runtime state of the state. The workers only run
+	 * the simulation and evaluate its results.
 	 */
-	private void exportPcmModel(final EObject model, final URI folderPath, IProgressMonitor monitor) {
-		IWorkspaceRunnable exportPcmModelRunnable = new IWorkspaceRunnable() {
-
-			@Override
-			public void run(IProgressMonitor monitor) throws CoreException {
-				try {
-					final ResourceSet resourceSet = new ResourceSetImpl();
-					String modelURI = folderPath.toString() + "/" + model.toString();
-					if (model.toString().contains("Repository")) {
-						Repository r = (Repository) model;
-						// We do not want to export PrimitiveDataTypes
-						// definition, but the defaultRepository.
-						// We are interested in components definitions rather
-						// than in PrimitiveDataTypes definitions.
-						if (r.getEntityName().equals("PrimitiveDataTypes")) {
-							return;
-						}
-						modelURI += ".repository";
-					}
-					if (model.toString().contains("System")) {
-						modelURI += ".system";
-					}
-					if (model.toString().contains("ResourceEnvironment")) {
-						modelURI += ".resourceenvironment";
-					}
-					if (model.toString().contains("Allocation")) {
-						modelURI += ".allocation";
-					}
-					if (model.toString().contains("UsageModel")) {
-						modelURI += ".usagemodel";
-					}
-					final URI fileURI = URI.createPlatformResourceURI(modelURI, true);
-					final Resource resource = resourceSet.createResource(fileURI);
-					resource.getContents().add(EcoreUtil.copy(model));
-
-					// Save the contents of the resource to the file system.
-					final Map<Object, Object> options = new HashMap<Object, Object>();
-					options.put(XMLResource.OPTION_ENCODING, "utf-8");
-					resource.save(options);
-				} catch (IOException e) {
-					LOGGER.error("PCM model \"" + model.toString() + "\" could not be exported!");
-					e.printStackTrace();
-				}
+	private StateEvaluation prepareState(final int index, final StepGraph models, final String variationId,
+			final IProgressMonitor monitor) throws JobFailedException, UserCanceledException {
+		final PCMResourceSetPartition pcmPartition = new PCMResourceSetPartition();
+		pcmPartition.initialiseResourceSetEPackages(AbstractPCMWorkflowRunConfiguration.PCM_EPACKAGES);
+		pcmPartition.loadModel(PreparePCMBlackboardPartitionJob.PCM_PALLADIO_PRIMITIVE_TYPE_REPOSITORY_URI);
+		pcmPartition.loadModel(PreparePCMBlackboardPartitionJob.PCM_PALLADIO_RESOURCE_TYPE_URI);
+		final String modelsDirectory = this.configuration.getTemporaryDataLocation() + "/model/PCM_partition_state_"
+				+ index;
+
+		for (int i = 0; i < models.getContainedNodes().size(); i++) {
+			final EObject model = EcoreUtil.copy(models.getContainedNodes().get(i));
+			final Resource resource = pcmPartition.getResourceSet()
+					.createResource(URI.createFileURI(modelsDirectory + model.hashCode()));
+			Diagnostic diagnostic = Diagnostician.INSTANCE.validate(model);
+			if (!(diagnostic.getSeverity() == Diagnostic.OK)) {
+				StringBuilder sb = new StringBuilder();
+				sb.append("The validation failed at: ").append(model.toString()).append("\n");
+				sb.append(diagnostic).append("\n");
+				throw new RuntimeException(sb.toString());
 			}
-		};
-		try {
-			ResourcesPlugin.getWorkspace().run(exportPcmModelRunnable, monitor);
-		} catch (CoreException e) {
-			LOGGER.error("IWorkspaceRunnable could not be executed ");
-			e.printStackTrace();
+			LOGGER.info("Adding model " + model.toString());
+
+			resource.getContents().add(model);
 		}
 
+		final MDSDBlackboard jobBlackboard = new MDSDBlackboard();
+		jobBlackboard.addPartition(LoadPCMModelsIntoBlackboardJob.PCM_MODELS_PARTITION_ID, pcmPartition);
+		/*
+		 * The states are simulated concurrently, and the simulation of a state
+		 * resolves proxies in and reconfigures the models of its partitions.
+		 * Hence, each state gets its own copy of the analyzed PCM models, the
+		 * SDM models and the reconfiguration state space.
+		 */
+		final PCMResourceSetPartition pcmAnalyzedPartition = new PCMResourceSetPartition();
+		pcmAnalyzedPartition.initialiseResourceSetEPackages(AbstractPCMWorkflowRunConfiguration.PCM_EPACKAGES);
+		jobBlackboard.addPartition(LoadSimuLizarModelsIntoBlackboardJob.PCM_MODELS_ANALYZED_PARTITION_ID,
+				copyPartition(
+						this.blackboard.getPartition(LoadSimuLizarModelsIntoBlackboardJob.PCM_MODELS_ANALYZED_PARTITION_ID),
+						pcmAnalyzedPartition));
+		jobBlackboard.addPartition(LoadSDMModelsIntoBlackboardJob.SDM_MODEL_PARTITION_ID,
+				copyPartition(this.blackboard.getPartition(LoadSDMModelsIntoBlackboardJob.SDM_MODEL_PARTITION_ID),
+						new SDMResourceSetPartition()));
+		jobBlackboard.addPartition(SDMReconfigurationSpaceExplorer.SDM_RECONFIGURATION_STATE_SPACE,
+				copyPartition(
+						this.blackboard.getPartition(SDMReconfigurationSpaceExplorer.SDM_RECONFIGURATION_STATE_SPACE),
+						new ResourceSetPartition()));
+
+		final Map<String, Object> attributes = new TreeMap<String, Object>(configuration.getAttributes());
+		attributes.put("variationId", variationId + " - state " + index);
+
+		/*
+		 * Creating a new configuration for a job with a new SimuComConfig in
+		 * order to have a new ExperimentRun in the EDP2 repository per job. New
+		 * ExperimentRun is created every time new SimuComConfig is created.
+		 */
+		SimuLizarWorkflowConfiguration conf = new SimuLizarWorkflowConfiguration(attributes);
+
+		conf.setMonitorRepositoryFile(this.configuration.getMonitorRepositoryFile());
+		conf.setReconfigurationRulesFolder(this.configuration.getReconfigurationRulesFolder());
+		conf.setUsageEvolutionFile(this.configuration.getUsageEvolutionFile());
+		conf.setServiceLevelObjectivesFile(this.configuration.getServiceLevelObjectivesFile());
+
+		SimuComConfig simulationConfiguration = new SimuComConfig(attributes, false);
+		conf.setSimuComConfiguration(simulationConfiguration);
+		LoadMonitorRepositoryModelIntoBlackboardJob mrJob = new LoadMonitorRepositoryModelIntoBlackboardJob(conf);
+		mrJob.setBlackboard(jobBlackboard);
+		mrJob.execute(monitor);
+		LoadServiceLevelObjectiveRepositoryIntoBlackboardJob slJob = new LoadServiceLevelObjectiveRepositoryIntoBlackboardJob(
+				conf);
+		slJob.setBlackboard(jobBlackboard);
+		slJob.execute(monitor);
+
+		final StateEvaluation evaluation = new StateEvaluation(index, conf, jobBlackboard);
+		evaluation.prepare();
+		return evaluation;
+	}
+
+	/**
+	 * Copies the resources of the given partition into the given target
+	 * partition. All resources are copied together, so that references
+	 * between them refer to the copies; references to resources outside of
+	 * the partition, e.g. the Palladio type repositories, are kept.
+	 */
+	private static <T extends ResourceSetPartition> T copyPartition(final ResourceSetPartition source,
+			final T target) {
+		final Copier copier = new Copier();
+		for (final Resource sourceResource : new ArrayList<Resource>(source.getResourceSet().getResources())) {
+			Resource targetResource = target.getResourceSet().getResource(sourceResource.getURI(), false);
+			if (targetResource == null) {
+				targetResource = target.getResourceSet().createResource(sourceResource.getURI());
+			}
+			if (targetResource == null) {
+				targetResource = new ResourceImpl(sourceResource.getURI());
+				target.getResourceSet().getResources().add(targetResource);
+			}
+			targetResource.getContents().addAll(copier.copyAll(sourceResource.getContents()));
+		}
+		copier.copyReferences();
+		return target;
 	}
 
 	@Override
@@ -278,4 +317,77 @@ public class RunSimuLizarScalabilityAnalysisJob extends SequentialJob
 		this.blackboard = blackboard;
 	}
 
+	/**
+	 * Simulation and SLO evaluation of a single state. A separate progress
+	 * monitor is used per state, so that neither the cancellation of the
+	 * state nor the indication of met SLOs propagates to the main progress
+	 * monitor. {@code EvaluateResultsJob} cancels this monitor if no SLOs are
+	 * violated.
+	 */
+	private static final class StateEvaluation implements Callable<StateEvaluation> {
+
+		private final int index;
+		private final PCMInterpretationAndEvaluationJob simulizarJob;
+		private final StateMonitor monitor = new StateMonitor();
+		private volatile boolean cancelled = false;
+		private volatile boolean sloMet = false;
+
+		private StateEvaluation(final int index, final SimuLizarWorkflowConfiguration configuration,
+				final MDSDBlackboard blackboard) {
+			this.index = index;
+			this.simulizarJob = new PCMInterpretationAndEvaluationJob(configuration);
+			this.simulizarJob.setBlackboard(blackboard);
+		}
+
+		/**
+		 * Creates the runtime state of the simulation on the calling thread.
+		 */
+		private void prepare() throws JobFailedException, UserCanceledException {
+			this.simulizarJob.prepare(this.monitor);
+		}
+
+		@Override
+		public StateEvaluation call() throws JobFailedException, CleanupFailedException {
+			if (this.cancelled) {
+				this.simulizarJob.discard(this.monitor);
+				return this;
+			}
+			try {
+				this.simulizarJob.execute(this.monitor);
+			} catch (final UserCanceledException e) {
+				// the evaluation of the state was cancelled
+			}
+			this.sloMet = !this.cancelled && this.monitor.isCanceled();
+			return this;
+		}
+
+		private boolean isSloMet() {
+			return this.sloMet;
+		}
+
+		private void cancel() {
+			this.cancelled = true;
+			this.monitor.setCanceled(true);
+		}
+	}
+
+	/**
+	 * Progress monitor whose cancellation is visible to the simulation thread
+	 * of a state.
+	 */
+	private static final class StateMonitor extends NullProgressMonitor {
+
+		private volatile boolean canceled = false;
+
+		@Override
+		public boolean isCanceled() {
+			return this.canceled;
+		}
+
+		@Override
+		public void setCanceled(final boolean canceled) {
+			this.canceled = canceled;
+		}
+	}
+
 }
@@ -0,0 +1,188 @@
+package org.palladiosimulator.simulizar.access;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.common.notify.impl.AdapterImpl;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.palladiosimulator.pcm.PcmPackage;
+
+import de.uka.ipd.sdq.stoex.StoexPackage;
+
+/**
+ * Tracks changes of the global PCM model and reports the changed resources to the
+ * {@link ModelAccess}.
+ *
+ * The tracker works on resource level: it is attached to the resource set of the global PCM model
+ * and to the resources holding PCM models, but not to the model elements. Changes of the elements
+ * are detected by the modification tracking of the resources, which marks a resource as modified
+ * on its first change. The tracker is notified only of this first change and reports the resource
+ * as changed. Once a new local copy has been taken, the copied resources are marked as unmodified
+ * again by {@link #resetChangedResources(Collection)}, so that their next change is reported again.
+ *
+ * Resources of other models, e.g., the monitor repository, service level objectives or usage
+ * evolution models, are not tracked. Resources added to the resource set (e.g., by resolving
+ * proxies) are tracked from then on, but are not reported as changed since they are copied anyway
+ * when they become part of the next local copy.
+ */
+final class GlobalPCMChangeTracker extends AdapterImpl {
+
+    private final ModelAccess modelAccess;
+    private final Set<Resource> trackedResources = Collections
+            .newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+    private final Set<Resource> trackingEnabledResources = Collections
+            .newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+
+    GlobalPCMChangeTracker(final ModelAccess modelAccess) {
+        super();
+        this.modelAccess = modelAccess;
+    }
+
+    @Override
+    public void setTarget(final Notifier newTarget) {
+        if (newTarget instanceof ResourceSet) {
+            super.setTarget(newTarget);
+            for (final Resource resource : ((ResourceSet) newTarget).getResources()) {
+                this.track(resource);
+            }
+        }
+    }
+
+    @Override
+    public void unsetTarget(final Notifier oldTarget) {
+        if (oldTarget instanceof ResourceSet) {
+            for (final Resource resource : new ArrayList<Resource>(this.trackedResources)) {
+                this.untrack(resource);
+            }
+            super.unsetTarget(oldTarget);
+        }
+    }
+
+    @Override
+    public void notifyChanged(final Notification notification) {
+        if (notification.isTouch()) {
+            return;
+        }
+        final Object notifier = notification.getNotifier();
+        if (notifier instanceof ResourceSet) {
+            this.resourcesChanged(notification);
+        } else if (notifier instanceof Resource) {
+            this.resourceChanged((Resource) notifier, notification);
+        }
+    }
+
+    /**
+     * Marks the given resources as unmodified after they have been copied, so that their next
+     * change is reported again.
+     *
+     * @param changedResources
+     *            the resources reported as changed which have been copied.
+     */
+    void resetChangedResources(final Collection<Resource> changedResources) {
+        for (final Resource resource : changedResources) {
+            if (this.trackedResources.contains(resource)) {
+                resource.setModified(false);
+            }
+        }
+    }
+
+    private void resourcesChanged(final Notification notification) {
+        if (notification.getFeatureID(ResourceSet.class) != ResourceSet.RESOURCE_SET__RESOURCES) {
+            return;
+        }
+        switch (notification.getEventType()) {
+        case Notification.ADD:
+            this.track((Resource) notification.getNewValue());
+            break;
+        case Notification.ADD_MANY:
+            for (final Object resource : (List<?>) notification.getNewValue()) {
+                this.track((Resource) resource);
+            }
+            break;
+        case Notification.REMOVE:
+            this.removed((Resource) notification.getOldValue());
+            break;
+        case Notification.REMOVE_MANY:
+            for (final Object resource : (List<?>) notification.getOldValue()) {
+                this.removed((Resource) resource);
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void resourceChanged(final Resource resource, final Notification notification) {
+        switch (notification.getFeatureID(Resource.class)) {
+        case Resource.RESOURCE__IS_MODIFIED:
+            if (notification.getNewBooleanValue()) {
+                this.modelAccess.resourceChanged(resource);
+            }
+            break;
+        case Resource.RESOURCE__CONTENTS:
+            if (!((Resource.Internal) resource).isLoading()) {
+                this.modelAccess.resourceChanged(resource);
+            }
+            break;
+        case Resource.RESOURCE__IS_LOADED:
+            if (!this.isTracked(resource)) {
+                this.untrack(resource);
+            }
+            break;
+        default:
+            break;
+        }
+    }
+
+    private void removed(final Resource resource) {
+        if (this.trackedResources.contains(resource)) {
+            this.untrack(resource);
+            this.modelAccess.resourceChanged(resource);
+        }
+    }
+
+    private void track(final Resource resource) {
+        if (this.trackedResources.contains(resource) || !this.isTracked(resource)) {
+            return;
+        }
+        this.trackedResources.add(resource);
+        if (!resource.isTrackingModification()) {
+            resource.setTrackingModification(true);
+            this.trackingEnabledResources.add(resource);
+        }
+        resource.eAdapters().add(this);
+        if (resource.isModified()) {
+            // the modification flag is only raised by the first change, so report earlier changes now
+            this.modelAccess.resourceChanged(resource);
+        }
+    }
+
+    private void untrack(final Resource resource) {
+        resource.eAdapters().remove(this);
+        if (this.trackingEnabledResources.remove(resource)) {
+            resource.setTrackingModification(false);
+        }
+        this.trackedResources.remove(resource);
+    }
+
+    /**
+     * Resources are tracked unless their root element is known to belong to another metamodel.
+     * Empty resources (e.g., resources which are about to be loaded) are tracked.
+     */
+    private boolean isTracked(final Resource resource) {
+        if (resource.getContents().isEmpty()) {
+            return true;
+        }
+        final EObject rootPackage = EcoreUtil.getRootContainer(resource.getContents().get(0).eClass());
+        return PcmPackage.eINSTANCE == rootPackage || StoexPackage.eINSTANCE == rootPackage;
+    }
+}
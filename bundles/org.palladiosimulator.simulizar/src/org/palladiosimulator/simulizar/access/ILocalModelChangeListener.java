@@ -0,0 +1,21 @@
+package org.palladiosimulator.simulizar.access;
+
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+
+/**
+ * Listener which gets informed whenever the {@link ModelAccess} takes a new local copy of the global
+ * PCM model, i.e., after the global model has been changed (e.g., by a reconfiguration).
+ *
+ * Interpreter caches which hold information derived from local model copies use this listener to
+ * drop outdated entries.
+ */
+public interface ILocalModelChangeListener {
+
+    /**
+     * Called after a new local copy of the global PCM model has been taken.
+     *
+     * @param newLocalModel
+     *            the new local copy which is handed out to simulated processes from now on.
+     */
+    public void localModelChanged(PCMResourceSetPartition newLocalModel);
+}
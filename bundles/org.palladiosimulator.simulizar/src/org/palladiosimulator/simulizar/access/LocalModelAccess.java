@@ -0,0 +1,65 @@
+package org.palladiosimulator.simulizar.access;
+
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.monitorrepository.MonitorRepository;
+import org.palladiosimulator.runtimemeasurement.RuntimeMeasurementModel;
+import org.scaledl.usageevolution.UsageEvolution;
+
+import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
+
+/**
+ * Immutable model access which is bound to a single local copy of the global PCM model. All
+ * global models are taken from the {@link ModelAccess} this access has been created by. One
+ * instance exists per local copy and is shared by all simulated threads started while this copy
+ * was current, see {@link ModelAccess#clone()}. An instance (and thereby its local copy) is
+ * reclaimed as soon as no simulated thread refers to it anymore.
+ */
+final class LocalModelAccess implements IModelAccess {
+
+    private final ModelAccess globalModelAccess;
+    private final PCMResourceSetPartition localPCMModel;
+
+    LocalModelAccess(final ModelAccess globalModelAccess, final PCMResourceSetPartition localPCMModel) {
+        super();
+        this.globalModelAccess = globalModelAccess;
+        this.localPCMModel = localPCMModel;
+    }
+
+    @Override
+    public MDSDBlackboard getBlackboard() {
+        return this.globalModelAccess.getBlackboard();
+    }
+
+    @Override
+    public PCMResourceSetPartition getLocalPCMModel() {
+        return this.localPCMModel;
+    }
+
+    @Override
+    public PCMResourceSetPartition getGlobalPCMModel() {
+        return this.globalModelAccess.getGlobalPCMModel();
+    }
+
+    @Override
+    public MonitorRepository getMonitorRepositoryModel() {
+        return this.globalModelAccess.getMonitorRepositoryModel();
+    }
+
+    @Override
+    public RuntimeMeasurementModel getRuntimeMeasurementModel() {
+        return this.globalModelAccess.getRuntimeMeasurementModel();
+    }
+
+    @Override
+    public UsageEvolution getUsageEvolutionModel() {
+        return this.globalModelAccess.getUsageEvolutionModel();
+    }
+
+    /**
+     * @return this access, as it is immutable.
+     */
+    @Override
+    public IModelAccess clone() {
+        return this;
+    }
+}
@@ -1,24 +1,18 @@
 package org.palladiosimulator.simulizar.access;
 
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.notify.Adapter;
-import org.eclipse.emf.common.notify.Notification;
-import org.eclipse.emf.common.util.URI;
-import org.eclipse.emf.ecore.EClass;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.EStructuralFeature;
-import org.eclipse.emf.ecore.EcorePackage;
 import org.eclipse.emf.ecore.resource.Resource;
-import org.eclipse.emf.ecore.util.EContentAdapter;
-import org.eclipse.emf.ecore.util.EcoreUtil;
 import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
 import org.palladiosimulator.analyzer.workflow.jobs.LoadPCMModelsIntoBlackboardJob;
-import org.palladiosimulator.commons.emfutils.EMFCopyHelper;
 import org.palladiosimulator.monitorrepository.MonitorRepository;
 import org.palladiosimulator.monitorrepository.MonitorRepositoryPackage;
-import org.palladiosimulator.pcm.PcmPackage;
 import org.palladiosimulator.runtimemeasurement.RuntimeMeasurementFactory;
 import org.palladiosimulator.runtimemeasurement.RuntimeMeasurementModel;
 import org.palladiosimulator.servicelevelobjective.ServiceLevelObjectiveRepository;
@@ -26,7 +20,6 @@ import org.palladiosimulator.servicelevelobjective.ServicelevelObjectivePackage;
 import org.scaledl.usageevolution.UsageEvolution;
 import org.scaledl.usageevolution.UsageevolutionPackage;
 
-import de.uka.ipd.sdq.stoex.StoexPackage;
 import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
 import de.uka.ipd.sdq.workflow.mdsd.blackboard.ResourceSetPartition;
 
@@ -45,45 +38,16 @@ public class ModelAccess implements IModelAccess {
     private final MDSDBlackboard blackboard;
     private boolean isObservingPcmChanges = false;
     private PCMResourceSetPartition currentPCMCopy;
+    private IModelAccess currentLocalModelAccess;
     private boolean modelsDirty = false;
+    private final Set<Resource> changedResources = Collections
+            .newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+    private final List<ILocalModelChangeListener> localModelChangeListeners;
 
-
-    
     /**
-     * A log listener which logs all changes in the global PCM model.
+     * Tracks the changes in the global PCM model.
      */
-    private final Adapter globalPCMChangeListener = new EContentAdapter() {
-
-        @Override
-        public void notifyChanged(final Notification notification) {
-            super.notifyChanged(notification);
-            // The models should not be marked as a new local copy if only individual values, and
-            // not references (i.e. wiring) has changed.
-            if (isPCMModel(notification.getFeature())
-                    && notification.getEventType() != Notification.REMOVING_ADAPTER) {
-                if (LOGGER.isDebugEnabled()) {
-                    LOGGER.debug("Detected change in global PCM model. Changed object: " + notification.getNotifier());
-                    LOGGER.debug(notification.toString());
-                }
-                ModelAccess.this.modelsDirty = true;
-            }
-        }
-
-        private boolean isPCMModel(Object feature) {
-            if(EcorePackage.eINSTANCE.getEObject().isInstance(feature)
-                    && EcorePackage.eINSTANCE.getEStructuralFeature().isInstance(feature)){
-                EStructuralFeature eStructFeature = (EStructuralFeature) feature;
-                EClass containingClass = eStructFeature.getEContainingClass();
-                EObject rootContainer = EcoreUtil.getRootContainer(containingClass);
-                
-                if(PcmPackage.eINSTANCE == rootContainer || StoexPackage.eINSTANCE == rootContainer) {
-                    return true;
-                }
-            }
-            return false;
-        }
-
-    };
+    private final GlobalPCMChangeTracker globalPCMChangeTracker = new GlobalPCMChangeTracker(this);
 
     /**
      * Constructor
@@ -96,21 +60,23 @@ public class ModelAccess implements IModelAccess {
         this.runtimeMeasurementModel = RuntimeMeasurementFactory.eINSTANCE.createRuntimeMeasurementModel();
         this.pcmPartition = this.getResourceSetPartition(blackboard,
                 LoadPCMModelsIntoBlackboardJob.PCM_MODELS_PARTITION_ID);
+        this.localModelChangeListeners = new CopyOnWriteArrayList<ILocalModelChangeListener>();
         this.currentPCMCopy = this.copyPCMPartition();
+        this.currentLocalModelAccess = new LocalModelAccess(this, this.currentPCMCopy);
     }
 
-    private ModelAccess(final ModelAccess copy) {
-        this.blackboard = copy.blackboard;
-        this.runtimeMeasurementModel = copy.runtimeMeasurementModel;
-        this.pcmPartition = copy.pcmPartition;
-        // make sure that model is consistent before creating copy.
-        copy.checkAndHandleDeferredChanges();
-        this.currentPCMCopy = copy.currentPCMCopy;
-    }
-
+    /**
+     * Returns a model access bound to the current local copy of the global PCM model. The returned
+     * access is immutable and shared by all callers until a new local copy is taken, so creating
+     * simulated threads does not create any new model access objects.
+     *
+     * @return the model access of the current local copy.
+     */
     @Override
     public IModelAccess clone() {
-        return new ModelAccess(this);
+        // make sure that model is consistent before handing out the local copy.
+        this.checkAndHandleDeferredChanges();
+        return this.currentLocalModelAccess;
     }
 
     @Override
@@ -122,10 +88,52 @@ public class ModelAccess implements IModelAccess {
     private void checkAndHandleDeferredChanges() {
         if (this.modelsDirty) {
             ModelAccess.this.currentPCMCopy = ModelAccess.this.copyPCMPartition();
+            this.currentLocalModelAccess = new LocalModelAccess(this, this.currentPCMCopy);
             modelsDirty = false;
+            for (final ILocalModelChangeListener listener : this.localModelChangeListeners) {
+                listener.localModelChanged(this.currentPCMCopy);
+            }
         }
     }
 
+    /**
+     * Called by the change tracker if a resource of the global PCM model has been changed. Records
+     * the resource, so that only this resource (and the resources referencing it) have to be
+     * copied for the next local copy.
+     *
+     * @param changedResource
+     *            the changed resource.
+     */
+    void resourceChanged(final Resource changedResource) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Detected change in global PCM model. Changed resource: " + changedResource.getURI());
+        }
+        this.modelsDirty = true;
+        this.changedResources.add(changedResource);
+    }
+
+    /**
+     * Registers a listener which is informed whenever a new local copy of the global PCM model is
+     * taken.
+     *
+     * @param listener
+     *            the listener to register.
+     */
+    public void addLocalModelChangeListener(final ILocalModelChangeListener listener) {
+        this.localModelChangeListeners.add(listener);
+    }
+
+    /**
+     * Deregisters a listener previously registered by
+     * {@link #addLocalModelChangeListener(ILocalModelChangeListener)}.
+     *
+     * @param listener
+     *            the listener to deregister.
+     */
+    public void removeLocalModelChangeListener(final ILocalModelChangeListener listener) {
+        this.localModelChangeListeners.remove(listener);
+    }
+
     /**
      * Calling this method has the current instance observe the {@link PCMResourceSetPartition} in
      * order to keep track of model changes.
@@ -136,8 +144,8 @@ public class ModelAccess implements IModelAccess {
     public void startObservingPcmChanges() {
         if (!this.isObservingPcmChanges) {
             final List<Adapter> adapters = this.pcmPartition.getResourceSet().eAdapters();
-            if (!adapters.contains(this.globalPCMChangeListener)) {
-                adapters.add(this.globalPCMChangeListener);
+            if (!adapters.contains(this.globalPCMChangeTracker)) {
+                adapters.add(this.globalPCMChangeTracker);
             }
             this.isObservingPcmChanges = true;
         }
@@ -152,24 +160,34 @@ public class ModelAccess implements IModelAccess {
      */
     public void stopObservingPcmChanges() {
         if (this.isObservingPcmChanges) {
-            this.pcmPartition.getResourceSet().eAdapters().remove(this.globalPCMChangeListener);
+            this.pcmPartition.getResourceSet().eAdapters().remove(this.globalPCMChangeTracker);
             this.isObservingPcmChanges = false;
         }
     }
 
     /**
+     * Takes a copy of the global PCM modelling partition. Only the resources which have changed
+     * since the last copy (and the resources referencing them) are copied, the copies of all
+     * other resources are shared with the last copy, see {@link PCMModelSnapshot}.
+     *
      * @return a copy of the global PCM modelling partition
      */
-    // FIXME @Igor: Return the access level back to private when ModelAccessUseOriginalReferences is not needed anymore.
-    protected PCMResourceSetPartition copyPCMPartition() {
+    private PCMResourceSetPartition copyPCMPartition() {
         LOGGER.debug("Take a new copy of the global PCM for new simulation threads");
-        final PCMResourceSetPartition newPartition = new PCMResourceSetPartition();
-        final List<EObject> modelCopy = EMFCopyHelper.deepCopyToEObjectList(this.pcmPartition.getResourceSet());
-        for (int i = 0; i < modelCopy.size(); i++) {
-            final Resource resource = newPartition.getResourceSet().createResource(URI.createFileURI("/temp" + i));
-            resource.getContents().add(modelCopy.get(i));
-        }
-        return newPartition;
+        final PCMModelSnapshot snapshot = PCMModelSnapshot.take(this.pcmPartition.getResourceSet(),
+                (PCMModelSnapshot) this.currentPCMCopy, this.changedResources, this.useOriginalReferences());
+        this.globalPCMChangeTracker.resetChangedResources(this.changedResources);
+        this.changedResources.clear();
+        return snapshot;
+    }
+
+    /**
+     * @return whether references to elements outside of the global PCM model are kept when
+     *         copying the model ({@code true}) or dropped ({@code false}).
+     */
+    // FIXME @Igor: Remove when ModelAccessUseOriginalReferences is not needed anymore.
+    protected boolean useOriginalReferences() {
+        return false;
     }
 
     @Override
@@ -0,0 +1,277 @@
+package org.palladiosimulator.simulizar.access;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.common.util.ECollections;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EClass;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.eclipse.emf.ecore.util.EcoreUtil.Copier;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+
+/**
+ * Local copy of the global PCM model which is taken incrementally. Each resource of the global
+ * model is copied into its own set of resources (one per root object). When a new snapshot is
+ * taken, only the changed resources and the resources referencing them (directly or transitively)
+ * are copied again, the copies of all other resources are shared with the previous snapshot.
+ * Taking a snapshot therefore scales with the size of the change rather than the size of the
+ * model.
+ *
+ * The copied resources do not belong to any resource set, as a resource can only be contained in
+ * one resource set but may be shared by several snapshots. Each snapshot keeps its own list of
+ * resources, including the shared ones. Its {@link #getResourceSet() resource set} is a read-only
+ * view of this list, from which model elements are also retrieved via {@link #getElement(EClass)}.
+ * Hence, taking a new snapshot never changes an older one, and a copy is released as soon as no
+ * snapshot shares it anymore. Copies are never modified once they have been taken, and no
+ * resources can be loaded into or created in a snapshot.
+ */
+final class PCMModelSnapshot extends PCMResourceSetPartition {
+
+    private static final Logger LOGGER = Logger.getLogger(PCMModelSnapshot.class);
+
+    private final Map<Resource, ResourceCopy> resourceCopies = new IdentityHashMap<Resource, ResourceCopy>();
+    private final List<Resource> snapshotResources = new ArrayList<Resource>();
+    private final ResourceSet snapshotResourceSet = new SnapshotResourceSet(this.snapshotResources);
+    private long nextResourceIndex = 0;
+
+    private PCMModelSnapshot() {
+        super();
+    }
+
+    /**
+     * Takes a snapshot of the given global resource set.
+     *
+     * @param globalResourceSet
+     *            the resource set holding the global PCM model.
+     * @param previous
+     *            the previous snapshot, or {@code null} to copy the complete model.
+     * @param changedResources
+     *            the global resources changed since the previous snapshot has been taken, or
+     *            {@code null} to copy the complete model.
+     * @param useOriginalReferences
+     *            whether references to elements which are not copied are kept, see
+     *            {@link Copier#Copier(boolean, boolean)}.
+     * @return the new snapshot.
+     */
+    static PCMModelSnapshot take(final ResourceSet globalResourceSet, final PCMModelSnapshot previous,
+            final Set<Resource> changedResources, final boolean useOriginalReferences) {
+        final boolean fullCopy = previous == null || changedResources == null;
+        if (fullCopy) {
+            EcoreUtil.resolveAll(globalResourceSet);
+        } else {
+            for (final Resource changedResource : changedResources) {
+                if (changedResource.getResourceSet() == globalResourceSet) {
+                    EcoreUtil.resolveAll(changedResource);
+                }
+            }
+        }
+        final List<Resource> globalResources = new ArrayList<Resource>(globalResourceSet.getResources());
+        final Set<Resource> toCopy = fullCopy ? null
+                : collectResourcesToCopy(globalResources, previous, changedResources);
+
+        final SnapshotCopier copier = new SnapshotCopier(useOriginalReferences, fullCopy ? null : previous);
+        final List<EObject> roots = new ArrayList<EObject>();
+        for (final Resource globalResource : globalResources) {
+            if (fullCopy || toCopy.contains(globalResource)) {
+                roots.addAll(globalResource.getContents());
+            }
+        }
+        copier.copyAll(roots);
+        copier.copyReferences();
+
+        final Map<Resource, Map<EObject, EObject>> copiesPerResource = new IdentityHashMap<Resource, Map<EObject, EObject>>();
+        for (final Map.Entry<EObject, EObject> entry : copier.entrySet()) {
+            final Resource globalResource = entry.getKey().eResource();
+            Map<EObject, EObject> copies = copiesPerResource.get(globalResource);
+            if (copies == null) {
+                copies = new IdentityHashMap<EObject, EObject>();
+                copiesPerResource.put(globalResource, copies);
+            }
+            copies.put(entry.getKey(), entry.getValue());
+        }
+
+        final PCMModelSnapshot snapshot = new PCMModelSnapshot();
+        snapshot.nextResourceIndex = fullCopy ? 0 : previous.nextResourceIndex;
+        int sharedResources = 0;
+        for (final Resource globalResource : globalResources) {
+            final ResourceCopy resourceCopy;
+            if (fullCopy || toCopy.contains(globalResource)) {
+                final List<Resource> copies = new ArrayList<Resource>(globalResource.getContents().size());
+                for (final EObject root : globalResource.getContents()) {
+                    final URI uri = URI.createFileURI("/temp" + snapshot.nextResourceIndex++);
+                    final Resource copy = Resource.Factory.Registry.INSTANCE.getFactory(uri).createResource(uri);
+                    copy.getContents().add(copier.get(root));
+                    copies.add(copy);
+                }
+                final Map<EObject, EObject> copiedObjects = copiesPerResource.get(globalResource);
+                resourceCopy = new ResourceCopy(copies,
+                        copiedObjects == null ? Collections.<EObject, EObject> emptyMap() : copiedObjects,
+                        collectReferencedResources(globalResource));
+            } else {
+                resourceCopy = previous.resourceCopies.get(globalResource);
+                sharedResources++;
+            }
+            snapshot.resourceCopies.put(globalResource, resourceCopy);
+            snapshot.snapshotResources.addAll(resourceCopy.copies);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Took PCM snapshot, copied " + (globalResources.size() - sharedResources) + " and shared "
+                    + sharedResources + " resources");
+        }
+        return snapshot;
+    }
+
+    /**
+     * Returns a read-only resource set which contains all resources of this snapshot, i.e., the
+     * resources copied by this snapshot and the ones shared with previous snapshots.
+     */
+    @Override
+    public ResourceSet getResourceSet() {
+        return this.snapshotResourceSet;
+    }
+
+    /**
+     * Returns the root elements of the given type, taken from the resources which belong to this
+     * snapshot.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends EObject> List<T> getElement(final EClass targetType) {
+        final List<T> result = new ArrayList<T>();
+        for (final Resource resource : this.snapshotResources) {
+            if (!resource.getContents().isEmpty() && targetType.isInstance(resource.getContents().get(0))) {
+                result.add((T) resource.getContents().get(0));
+            }
+        }
+        if (result.isEmpty()) {
+            // let the partition report the missing element
+            return super.getElement(targetType);
+        }
+        return result;
+    }
+
+    /**
+     * Determines the resources to copy for a new snapshot: all changed resources, all resources
+     * which are not part of the previous snapshot and all resources which reference a resource to
+     * copy or a resource which has been removed from the global model.
+     */
+    private static Set<Resource> collectResourcesToCopy(final List<Resource> globalResources,
+            final PCMModelSnapshot previous, final Set<Resource> changedResources) {
+        final Set<Resource> globalResourceSet = Collections.newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+        globalResourceSet.addAll(globalResources);
+        final Set<Resource> toCopy = Collections.newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+        for (final Resource globalResource : globalResources) {
+            final ResourceCopy previousCopy = previous.resourceCopies.get(globalResource);
+            if (previousCopy == null || changedResources.contains(globalResource)
+                    || !globalResourceSet.containsAll(previousCopy.referencedResources)) {
+                toCopy.add(globalResource);
+            }
+        }
+        boolean grown = !toCopy.isEmpty();
+        while (grown) {
+            grown = false;
+            for (final Resource globalResource : globalResources) {
+                if (!toCopy.contains(globalResource)) {
+                    for (final Resource referencedResource : previous.resourceCopies
+                            .get(globalResource).referencedResources) {
+                        if (toCopy.contains(referencedResource)) {
+                            toCopy.add(globalResource);
+                            grown = true;
+                            break;
+                        }
+                    }
+                }
+            }
+        }
+        return toCopy;
+    }
+
+    private static Set<Resource> collectReferencedResources(final Resource globalResource) {
+        final Set<Resource> referencedResources = Collections
+                .newSetFromMap(new IdentityHashMap<Resource, Boolean>());
+        for (final Iterator<EObject> contents = globalResource.getAllContents(); contents.hasNext();) {
+            for (final EObject referencedObject : contents.next().eCrossReferences()) {
+                final Resource referencedResource = referencedObject.eResource();
+                if (referencedResource != null && referencedResource != globalResource) {
+                    referencedResources.add(referencedResource);
+                }
+            }
+        }
+        return referencedResources;
+    }
+
+    /**
+     * Copies of the elements of a single global resource.
+     */
+    private static final class ResourceCopy {
+
+        private final List<Resource> copies;
+        private final Map<EObject, EObject> copiedObjects;
+        private final Set<Resource> referencedResources;
+
+        private ResourceCopy(final List<Resource> copies, final Map<EObject, EObject> copiedObjects,
+                final Set<Resource> referencedResources) {
+            super();
+            this.copies = copies;
+            this.copiedObjects = copiedObjects;
+            this.referencedResources = referencedResources;
+        }
+    }
+
+    /**
+     * Resource set whose resources are the resources of a snapshot. The resources are not
+     * attached to the resource set and cannot be changed through it.
+     */
+    private static final class SnapshotResourceSet extends ResourceSetImpl {
+
+        private final EList<Resource> snapshotResources;
+
+        private SnapshotResourceSet(final List<Resource> snapshotResources) {
+            super();
+            this.snapshotResources = ECollections.unmodifiableEList(snapshotResources);
+        }
+
+        @Override
+        public EList<Resource> getResources() {
+            return this.snapshotResources;
+        }
+    }
+
+    /**
+     * Copier which resolves references to elements of resources which are not copied again to
+     * their copies in the previous snapshot.
+     */
+    private static final class SnapshotCopier extends Copier {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient PCMModelSnapshot previous;
+
+        private SnapshotCopier(final boolean useOriginalReferences, final PCMModelSnapshot previous) {
+            super(true, useOriginalReferences);
+            this.previous = previous;
+        }
+
+        @Override
+        public EObject get(final Object key) {
+            final EObject copy = super.get(key);
+            if (copy != null || this.previous == null || !(key instanceof EObject)) {
+                return copy;
+            }
+            final ResourceCopy sharedCopy = this.previous.resourceCopies.get(((EObject) key).eResource());
+            return sharedCopy == null ? null : sharedCopy.copiedObjects.get(key);
+        }
+    }
+}
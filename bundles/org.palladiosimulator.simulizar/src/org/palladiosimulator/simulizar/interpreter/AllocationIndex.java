@@ -0,0 +1,130 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.allocation.Allocation;
+import org.palladiosimulator.pcm.allocation.AllocationContext;
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+
+import de.uka.ipd.sdq.simucomframework.ResourceRegistry;
+import de.uka.ipd.sdq.simucomframework.resources.AbstractSimulatedResourceContainer;
+
+/**
+ * Index resolving the allocation context and the simulated resource container of an assembly
+ * context stack. Per allocation, the position of the allocation context of each assembly context
+ * (identified by its id) is indexed on first access. Resolving a stack thereby only costs one
+ * lookup per stack element instead of a search over all allocation contexts.
+ *
+ * The allocation indices are dropped as soon as the model access takes a new local model copy.
+ * Resolved simulated resource containers are additionally dropped whenever the resource
+ * environment has been synchronized with SimuCom, see {@link #resourceEnvironmentChanged()}.
+ */
+public class AllocationIndex implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(AllocationIndex.class);
+
+    private final Map<Allocation, Map<String, Integer>> positions = new IdentityHashMap<Allocation, Map<String, Integer>>();
+    private final Map<AllocationContext, AbstractSimulatedResourceContainer> resourceContainers = new IdentityHashMap<AllocationContext, AbstractSimulatedResourceContainer>();
+
+    private long version = 0;
+
+    /**
+     * Gets the allocation context for the given assembly context stack, i.e., the allocation context
+     * which comes first in the allocation and references any element of the stack. This is needed
+     * for the case of sub systems.
+     *
+     * @param allocation
+     *            The allocation to find a suitable allocation context in.
+     * @param assemblyContextStack
+     *            The assembly context stack of the simulated thread.
+     * @return The allocation context, {@code null} if no allocation context could be found.
+     */
+    public AllocationContext getAllocationContext(final Allocation allocation,
+            final List<AssemblyContext> assemblyContextStack) {
+        final Map<String, Integer> allocationPositions = this.getPositions(allocation);
+        int firstPosition = Integer.MAX_VALUE;
+        for (final ListIterator<AssemblyContext> iterator = assemblyContextStack
+                .listIterator(assemblyContextStack.size()); iterator.hasPrevious();) {
+            final Integer position = allocationPositions.get(iterator.previous().getId());
+            if (position != null && position < firstPosition) {
+                firstPosition = position;
+            }
+        }
+        if (firstPosition == Integer.MAX_VALUE) {
+            return null;
+        }
+        return allocation.getAllocationContexts_Allocation().get(firstPosition);
+    }
+
+    /**
+     * Gets the simulated resource container the given allocation context is deployed on.
+     *
+     * @param allocationContext
+     *            The allocation context.
+     * @param resourceRegistry
+     *            The registry of simulated resources.
+     * @return The simulated resource container.
+     */
+    public AbstractSimulatedResourceContainer getSimulatedResourceContainer(final AllocationContext allocationContext,
+            final ResourceRegistry resourceRegistry) {
+        AbstractSimulatedResourceContainer resourceContainer = this.resourceContainers.get(allocationContext);
+        if (resourceContainer == null) {
+            resourceContainer = resourceRegistry
+                    .getResourceContainer(allocationContext.getResourceContainer_AllocationContext().getId());
+            this.resourceContainers.put(allocationContext, resourceContainer);
+        }
+        return resourceContainer;
+    }
+
+    /**
+     * Drops all resolved simulated resource containers. Has to be called whenever simulated
+     * resource containers are added to or removed from the resource registry.
+     */
+    public void resourceEnvironmentChanged() {
+        this.resourceContainers.clear();
+        this.version++;
+    }
+
+    /**
+     * @return the version of this index, which is incremented whenever resolved allocation
+     *         contexts or resource containers are dropped. Resolutions cached elsewhere are valid as
+     *         long as the version does not change.
+     */
+    public long getVersion() {
+        return this.version;
+    }
+
+    private Map<String, Integer> getPositions(final Allocation allocation) {
+        Map<String, Integer> allocationPositions = this.positions.get(allocation);
+        if (allocationPositions == null) {
+            final List<AllocationContext> allocationContexts = allocation.getAllocationContexts_Allocation();
+            allocationPositions = new HashMap<String, Integer>(allocationContexts.size() * 2);
+            for (int i = 0; i < allocationContexts.size(); i++) {
+                final String assemblyContextId = allocationContexts.get(i).getAssemblyContext_AllocationContext()
+                        .getId();
+                if (!allocationPositions.containsKey(assemblyContextId)) {
+                    allocationPositions.put(assemblyContextId, i);
+                }
+            }
+            this.positions.put(allocation, allocationPositions);
+        }
+        return allocationPositions;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.positions.size() + " allocation indices");
+        }
+        this.positions.clear();
+        this.resourceContainers.clear();
+        this.version++;
+    }
+}
@@ -0,0 +1,66 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.eclipse.emf.ecore.EObject;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.seff.BranchAction;
+import org.palladiosimulator.pcm.usagemodel.Branch;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+import org.palladiosimulator.simulizar.utils.BranchSelector;
+
+/**
+ * Cache of the {@link BranchSelector}s of probabilistic branch actions and usage model branches.
+ * The selector of a branch is built from the probabilities of its transitions when the branch is
+ * passed for the first time. Branch probabilities are only changed on the global model, so all
+ * entries are dropped as soon as the model access takes a new local model copy.
+ */
+public class BranchSelectorCache implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(BranchSelectorCache.class);
+
+    private final Map<EObject, BranchSelector> selectors = new IdentityHashMap<EObject, BranchSelector>();
+
+    /**
+     * Gets the selector of the given branch action, which must only contain probabilistic branch
+     * transitions.
+     *
+     * @param branchAction
+     *            the branch action.
+     * @return the selector of the branch transitions.
+     */
+    public BranchSelector getSelector(final BranchAction branchAction) {
+        BranchSelector selector = this.selectors.get(branchAction);
+        if (selector == null) {
+            selector = BranchSelector.createForProbabilisticTransitions(branchAction.getBranches_Branch());
+            this.selectors.put(branchAction, selector);
+        }
+        return selector;
+    }
+
+    /**
+     * Gets the selector of the given usage model branch.
+     *
+     * @param branch
+     *            the branch.
+     * @return the selector of the branch transitions.
+     */
+    public BranchSelector getSelector(final Branch branch) {
+        BranchSelector selector = this.selectors.get(branch);
+        if (selector == null) {
+            selector = BranchSelector.createForBranchTransitions(branch.getBranchTransitions_Branch());
+            this.selectors.put(branch, selector);
+        }
+        return selector;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.selectors.size() + " branch selectors");
+        }
+        this.selectors.clear();
+    }
+}
@@ -0,0 +1,222 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.regex.Pattern;
+
+import de.uka.ipd.sdq.probfunction.math.IRandomGenerator;
+import de.uka.ipd.sdq.simucomframework.variables.StackContext;
+import de.uka.ipd.sdq.simucomframework.variables.converter.NumberConverter;
+import de.uka.ipd.sdq.simucomframework.variables.stackframe.SimulatedStackframe;
+
+/**
+ * Compiled form of a stochastic expression as used by the interpreter. Compiling an expression
+ * classifies its specification once: specifications which are plain literals (e.g., loop counts
+ * like {@code 10}, demands like {@code 0.05} or guards like {@code true}) are folded into
+ * constants, which are returned without any evaluation. Specifications which consist of a single
+ * distribution with literal parameters (e.g., think times like {@code Exp(0.1)}) are sampled by a
+ * {@link DistributionSampler} if a random generator is given on compilation. All other
+ * specifications are evaluated by the SimuCom expression evaluator.
+ *
+ * Numeric results can be obtained as primitives by {@link #evaluateDouble(SimulatedStackframe)}
+ * and {@link #evaluateInt(SimulatedStackframe)}, which return numeric literals without boxing or
+ * dispatching on the expected type.
+ *
+ * @see CompiledExpressionCache
+ */
+public final class CompiledExpression {
+
+    private static final Pattern INTEGER_LITERAL = Pattern.compile("-?[0-9]+");
+    private static final Pattern DOUBLE_LITERAL = Pattern.compile("-?[0-9]*\\.[0-9]+([eE][-+]?[0-9]+)?");
+
+    private final String specification;
+    private final Object constant;
+    private final Integer intConstant;
+    private final Long longConstant;
+    private final Double doubleConstant;
+    private final Boolean booleanConstant;
+    private final boolean isDoubleConstant;
+    private final double doubleValue;
+    private final boolean isIntConstant;
+    private final int intValue;
+    private final DistributionSampler sampler;
+
+    private CompiledExpression(final String specification, final Object constant, final Integer intConstant,
+            final Long longConstant, final Double doubleConstant, final Boolean booleanConstant) {
+        this(specification, constant, intConstant, longConstant, doubleConstant, booleanConstant, null);
+    }
+
+    private CompiledExpression(final String specification, final Object constant, final Integer intConstant,
+            final Long longConstant, final Double doubleConstant, final Boolean booleanConstant,
+            final DistributionSampler sampler) {
+        super();
+        this.specification = specification;
+        this.constant = constant;
+        this.intConstant = intConstant;
+        this.longConstant = longConstant;
+        this.doubleConstant = doubleConstant;
+        this.booleanConstant = booleanConstant;
+        this.isDoubleConstant = doubleConstant != null;
+        this.doubleValue = this.isDoubleConstant ? doubleConstant : 0.0;
+        this.isIntConstant = intConstant != null;
+        this.intValue = this.isIntConstant ? intConstant : 0;
+        this.sampler = sampler;
+    }
+
+    /**
+     * Compiles the given specification.
+     *
+     * @param specification
+     *            the StoEx specification.
+     * @return the compiled expression.
+     */
+    public static CompiledExpression compile(final String specification) {
+        return compile(specification, null);
+    }
+
+    /**
+     * Compiles the given specification. Supported distributions are sampled from the given random
+     * generator.
+     *
+     * @param specification
+     *            the StoEx specification.
+     * @param randomGenerator
+     *            the random generator of the simulation, or {@code null} to leave the sampling of
+     *            distributions to the expression evaluator.
+     * @return the compiled expression.
+     */
+    public static CompiledExpression compile(final String specification, final IRandomGenerator randomGenerator) {
+        final String literal = specification.trim();
+        if (INTEGER_LITERAL.matcher(literal).matches()) {
+            try {
+                final long value = Long.parseLong(literal);
+                final boolean isInt = value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+                final Integer intValue = isInt ? Integer.valueOf((int) value) : null;
+                return new CompiledExpression(specification, isInt ? intValue : null, intValue,
+                        Long.valueOf(value), Double.valueOf(value), null);
+            } catch (final NumberFormatException e) {
+                // out of range, leave it to the expression evaluator
+            }
+        } else if (DOUBLE_LITERAL.matcher(literal).matches()) {
+            final Double value = Double.valueOf(literal);
+            return new CompiledExpression(specification, value, null, null, value, null);
+        } else if ("true".equals(literal) || "false".equals(literal)) {
+            final Boolean value = Boolean.valueOf(literal);
+            return new CompiledExpression(specification, value, null, null, null, value);
+        }
+        final DistributionSampler sampler = randomGenerator == null ? null
+                : DistributionSampler.create(specification, randomGenerator);
+        return new CompiledExpression(specification, null, null, null, null, null, sampler);
+    }
+
+    /**
+     * @return the specification this expression has been compiled from.
+     */
+    public String getSpecification() {
+        return this.specification;
+    }
+
+    /**
+     * @return {@code true} if the specification is a literal and no evaluation is needed.
+     */
+    public boolean isConstant() {
+        return this.constant != null || this.longConstant != null;
+    }
+
+    /**
+     * @return the value of the literal this expression has been compiled from, or {@code null} if
+     *         the specification is not a literal or its value is only available as {@code long}.
+     */
+    public Object getConstant() {
+        return this.constant;
+    }
+
+    /**
+     * Evaluates the expression on the given stack frame.
+     *
+     * @param expectedType
+     *            the type of the result.
+     * @param stackFrame
+     *            the stack frame used to resolve variables, or {@code null} if the expression does
+     *            not refer to any.
+     * @return the result of the evaluation.
+     */
+    public <T> T evaluate(final Class<T> expectedType, final SimulatedStackframe<Object> stackFrame) {
+        final Object constantValue = this.getConstant(expectedType);
+        if (constantValue != null) {
+            return expectedType.cast(constantValue);
+        }
+        if (this.sampler != null && expectedType == Double.class) {
+            return expectedType.cast(this.sampler.sample());
+        }
+        return this.evaluateSpecification(expectedType, stackFrame);
+    }
+
+    /**
+     * Evaluates the expression to a double on the given stack frame.
+     *
+     * @param stackFrame
+     *            the stack frame used to resolve variables, or {@code null} if the expression does
+     *            not refer to any.
+     * @return the result of the evaluation.
+     */
+    public double evaluateDouble(final SimulatedStackframe<Object> stackFrame) {
+        if (this.isDoubleConstant) {
+            return this.doubleValue;
+        }
+        if (this.sampler != null) {
+            return this.sampler.sample();
+        }
+        return NumberConverter.toDouble(this.evaluateSpecification(Double.class, stackFrame));
+    }
+
+    /**
+     * Evaluates the expression to an int on the given stack frame.
+     *
+     * @param stackFrame
+     *            the stack frame used to resolve variables, or {@code null} if the expression does
+     *            not refer to any.
+     * @return the result of the evaluation.
+     */
+    public int evaluateInt(final SimulatedStackframe<Object> stackFrame) {
+        if (this.isIntConstant) {
+            return this.intValue;
+        }
+        return this.evaluateSpecification(Integer.class, stackFrame);
+    }
+
+    /**
+     * Evaluates the expression on the given stack frame without expecting a particular type.
+     *
+     * @param stackFrame
+     *            the stack frame used to resolve variables.
+     * @return the result of the evaluation.
+     */
+    public Object evaluate(final SimulatedStackframe<Object> stackFrame) {
+        if (this.constant != null) {
+            return this.constant;
+        }
+        if (this.sampler != null) {
+            return this.sampler.sample();
+        }
+        return StackContext.evaluateStatic(this.specification, stackFrame);
+    }
+
+    private <T> T evaluateSpecification(final Class<T> expectedType, final SimulatedStackframe<Object> stackFrame) {
+        if (stackFrame == null) {
+            return StackContext.evaluateStatic(this.specification, expectedType);
+        }
+        return StackContext.evaluateStatic(this.specification, expectedType, stackFrame);
+    }
+
+    private Object getConstant(final Class<?> expectedType) {
+        if (expectedType == Integer.class) {
+            return this.intConstant;
+        } else if (expectedType == Double.class) {
+            return this.doubleConstant;
+        } else if (expectedType == Long.class) {
+            return this.longConstant;
+        } else if (expectedType == Boolean.class) {
+            return this.booleanConstant;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,146 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.core.PCMRandomVariable;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+
+import de.uka.ipd.sdq.probfunction.math.IRandomGenerator;
+import de.uka.ipd.sdq.simucomframework.variables.stackframe.SimulatedStackframe;
+
+/**
+ * Cache of {@link CompiledExpression}s keyed by the identity of the {@link PCMRandomVariable} they
+ * have been compiled from. An entry is recompiled if the specification of its random variable has
+ * been changed since compilation, e.g., by a reconfiguration. All entries are dropped as soon as
+ * the model access takes a new local model copy.
+ *
+ * Expressions are compiled with the random generator of the simulation, so distributions sampled
+ * by the compiled expressions draw from the same random stream as the expression evaluator.
+ */
+public class CompiledExpressionCache implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(CompiledExpressionCache.class);
+
+    private final Map<PCMRandomVariable, CompiledExpression> expressions = new IdentityHashMap<PCMRandomVariable, CompiledExpression>();
+
+    private final IRandomGenerator randomGenerator;
+
+    private long hits = 0;
+    private long misses = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param randomGenerator
+     *            the random generator of the simulation.
+     */
+    public CompiledExpressionCache(final IRandomGenerator randomGenerator) {
+        super();
+        this.randomGenerator = randomGenerator;
+    }
+
+    /**
+     * Returns the compiled expression of the given random variable. The expression is compiled on
+     * first access and whenever the specification of the random variable has changed.
+     *
+     * @param randomVariable
+     *            the random variable.
+     * @return the compiled expression.
+     */
+    public CompiledExpression getExpression(final PCMRandomVariable randomVariable) {
+        final String specification = randomVariable.getSpecification();
+        CompiledExpression expression = this.expressions.get(randomVariable);
+        if (expression != null && (expression.getSpecification() == specification
+                || expression.getSpecification().equals(specification))) {
+            this.hits++;
+            return expression;
+        }
+        this.misses++;
+        expression = CompiledExpression.compile(specification, this.randomGenerator);
+        this.expressions.put(randomVariable, expression);
+        return expression;
+    }
+
+    /**
+     * Evaluates the given random variable on the given stack frame.
+     *
+     * @param randomVariable
+     *            the random variable to evaluate.
+     * @param expectedType
+     *            the type of the result.
+     * @param stackFrame
+     *            the stack frame used to resolve variables.
+     * @return the result of the evaluation.
+     */
+    public <T> T evaluate(final PCMRandomVariable randomVariable, final Class<T> expectedType,
+            final SimulatedStackframe<Object> stackFrame) {
+        return this.getExpression(randomVariable).evaluate(expectedType, stackFrame);
+    }
+
+    /**
+     * Evaluates the given random variable to a double on the given stack frame.
+     *
+     * @param randomVariable
+     *            the random variable to evaluate.
+     * @param stackFrame
+     *            the stack frame used to resolve variables, or {@code null} if the random variable
+     *            does not refer to any.
+     * @return the result of the evaluation.
+     */
+    public double evaluateDouble(final PCMRandomVariable randomVariable,
+            final SimulatedStackframe<Object> stackFrame) {
+        return this.getExpression(randomVariable).evaluateDouble(stackFrame);
+    }
+
+    /**
+     * Evaluates the given random variable to an int on the given stack frame.
+     *
+     * @param randomVariable
+     *            the random variable to evaluate.
+     * @param stackFrame
+     *            the stack frame used to resolve variables, or {@code null} if the random variable
+     *            does not refer to any.
+     * @return the result of the evaluation.
+     */
+    public int evaluateInt(final PCMRandomVariable randomVariable, final SimulatedStackframe<Object> stackFrame) {
+        return this.getExpression(randomVariable).evaluateInt(stackFrame);
+    }
+
+    /**
+     * Evaluates the given random variable which does not refer to any variables.
+     *
+     * @param randomVariable
+     *            the random variable to evaluate.
+     * @param expectedType
+     *            the type of the result.
+     * @return the result of the evaluation.
+     */
+    public <T> T evaluate(final PCMRandomVariable randomVariable, final Class<T> expectedType) {
+        return this.getExpression(randomVariable).evaluate(expectedType, null);
+    }
+
+    /**
+     * @return the number of lookups which could be served by an already compiled expression.
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * @return the number of lookups which required compiling an expression.
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.expressions.size() + " compiled expressions");
+        }
+        this.expressions.clear();
+    }
+}
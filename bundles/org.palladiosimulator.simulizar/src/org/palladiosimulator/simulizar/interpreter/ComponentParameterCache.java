@@ -0,0 +1,120 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+import org.palladiosimulator.pcm.repository.BasicComponent;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+import org.palladiosimulator.simulizar.utils.VariableBinding;
+
+import de.uka.ipd.sdq.simucomframework.variables.stackframe.SimulatedStackframe;
+
+/**
+ * Cache of the evaluated component parameters and assembly context configuration parameters of
+ * basic component instances. Parameters can only be cached if all of them are specified by
+ * literals; parameters referring to variables or stochastic parameters have to be evaluated on
+ * every call. A cached frame holds the component parameters overridden by the configuration
+ * parameters of the assembly context and must not be modified.
+ *
+ * The specifications of the parameters in a local model copy do not change, since changes of the
+ * global model are only visible in the next local copy. All entries are dropped as soon as the
+ * model access takes a new local model copy.
+ */
+public class ComponentParameterCache implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ComponentParameterCache.class);
+
+    private final VariableBindingCache variableBindingCache;
+    private final CompiledExpressionCache expressionCache;
+    private final Map<AssemblyContext, ParameterFrame> parameterFrames = new IdentityHashMap<AssemblyContext, ParameterFrame>();
+
+    /**
+     * Constructor.
+     *
+     * @param variableBindingCache
+     *            the cache of the bindings of the parameters.
+     * @param expressionCache
+     *            the cache of the compiled parameter specifications.
+     */
+    public ComponentParameterCache(final VariableBindingCache variableBindingCache,
+            final CompiledExpressionCache expressionCache) {
+        super();
+        this.variableBindingCache = variableBindingCache;
+        this.expressionCache = expressionCache;
+    }
+
+    /**
+     * Gets the frame holding the parameters of the given basic component instantiated in the given
+     * assembly context.
+     *
+     * @param basicComponent
+     *            the basic component.
+     * @param assemblyContext
+     *            the assembly context.
+     * @return the frame of the parameters, or {@code null} if the parameters have to be evaluated
+     *         on every call.
+     */
+    public SimulatedStackframe<Object> getParameterFrame(final BasicComponent basicComponent,
+            final AssemblyContext assemblyContext) {
+        ParameterFrame parameterFrame = this.parameterFrames.get(assemblyContext);
+        if (parameterFrame == null || parameterFrame.basicComponent != basicComponent) {
+            parameterFrame = this.createParameterFrame(basicComponent, assemblyContext);
+            this.parameterFrames.put(assemblyContext, parameterFrame);
+        }
+        return parameterFrame.frame;
+    }
+
+    private ParameterFrame createParameterFrame(final BasicComponent basicComponent,
+            final AssemblyContext assemblyContext) {
+        final VariableBinding[] componentBindings = this.variableBindingCache
+                .getBindings(basicComponent.getComponentParameterUsage_ImplementationComponentType());
+        final VariableBinding[] assemblyContextBindings = this.variableBindingCache
+                .getBindings(assemblyContext.getConfigParameterUsages__AssemblyContext());
+        final VariableBinding[] bindings = new VariableBinding[componentBindings.length
+                + assemblyContextBindings.length];
+        System.arraycopy(componentBindings, 0, bindings, 0, componentBindings.length);
+        System.arraycopy(assemblyContextBindings, 0, bindings, componentBindings.length,
+                assemblyContextBindings.length);
+
+        final SimulatedStackframe<Object> frame = new SimulatedStackframe<Object>();
+        for (int i = 0; i < bindings.length; i++) {
+            final CompiledExpression expression = this.expressionCache
+                    .getExpression(bindings[i].getRandomVariable());
+            if (bindings[i].isInner() || expression.getConstant() == null) {
+                return new ParameterFrame(basicComponent, null);
+            }
+            frame.addValue(bindings[i].getId(), expression.getConstant());
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Cached " + bindings.length + " parameters of " + basicComponent.getEntityName() + " in "
+                    + assemblyContext.getEntityName());
+        }
+        return new ParameterFrame(basicComponent, frame);
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.parameterFrames.size() + " parameter frames");
+        }
+        this.parameterFrames.clear();
+    }
+
+    /**
+     * Cached parameters of a component instance.
+     */
+    private static final class ParameterFrame {
+
+        private final BasicComponent basicComponent;
+        private final SimulatedStackframe<Object> frame;
+
+        private ParameterFrame(final BasicComponent basicComponent, final SimulatedStackframe<Object> frame) {
+            super();
+            this.basicComponent = basicComponent;
+            this.frame = frame;
+        }
+    }
+}
@@ -32,8 +32,8 @@ class ComposedStructureInnerSwitch extends CompositionSwitch<SimulatedStackframe
      * Context of the simulated thread which resolves an external call
      */
     private final InterpreterDefaultContext context;
-    private final Signature signature;
-    private final RequiredRole requiredRole;
+    private Signature signature;
+    private RequiredRole requiredRole;
 
     /**
      * Constructor
@@ -49,12 +49,50 @@ class ComposedStructureInnerSwitch extends CompositionSwitch<SimulatedStackframe
         this.requiredRole = requiredRole;
     }
 
+    /**
+     * Constructor for a switch which is reused for all calls of a simulated thread, see
+     * {@link #resolveCall(AssemblyContext, Signature, RequiredRole)}.
+     *
+     * @param context
+     *            the context of the simulated thread.
+     */
+    ComposedStructureInnerSwitch(final InterpreterDefaultContext context) {
+        this(context, null, null);
+    }
+
+    /**
+     * Follows the connector attached to the given required role of the given assembly context and
+     * interprets the call of the given signature at its target. The call state of this switch is
+     * restored afterwards, so the switch can be reused for nested calls of the same simulated
+     * thread.
+     *
+     * @param assemblyContext
+     *            the calling assembly context.
+     * @param operationSignature
+     *            the called signature.
+     * @param requiredRole
+     *            the required role the call is issued at.
+     * @return the stack frame containing the results of the call.
+     */
+    SimulatedStackframe<Object> resolveCall(final AssemblyContext assemblyContext, final Signature operationSignature,
+            final RequiredRole requiredRole) {
+        final Signature callerSignature = this.signature;
+        final RequiredRole callerRequiredRole = this.requiredRole;
+        this.signature = operationSignature;
+        this.requiredRole = requiredRole;
+        try {
+            return this.doSwitch(assemblyContext);
+        } finally {
+            this.signature = callerSignature;
+            this.requiredRole = callerRequiredRole;
+        }
+    }
+
     @Override
     public SimulatedStackframe<Object> caseAssemblyConnector(final AssemblyConnector assemblyConnector) {
-        final RepositoryComponentSwitch repositoryComponentSwitch = new RepositoryComponentSwitch(this.context,
+        return this.context.getRepositoryComponentSwitch().interpretCall(
                 assemblyConnector.getProvidingAssemblyContext_AssemblyConnector(), this.signature,
                 assemblyConnector.getProvidedRole_AssemblyConnector());
-        return repositoryComponentSwitch.doSwitch(assemblyConnector.getProvidedRole_AssemblyConnector());
     }
 
     /*
@@ -67,20 +105,17 @@ class ComposedStructureInnerSwitch extends CompositionSwitch<SimulatedStackframe
     @Override
     public SimulatedStackframe<Object> caseAssemblyInfrastructureConnector(
             final AssemblyInfrastructureConnector assemblyInfrastructureConnector) {
-        final RepositoryComponentSwitch repositoryComponentSwitch = new RepositoryComponentSwitch(this.context,
+        return this.context.getRepositoryComponentSwitch().interpretCall(
                 assemblyInfrastructureConnector.getProvidingAssemblyContext__AssemblyInfrastructureConnector(),
                 this.signature, assemblyInfrastructureConnector.getProvidedRole__AssemblyInfrastructureConnector());
-        return repositoryComponentSwitch
-                .doSwitch(assemblyInfrastructureConnector.getProvidedRole__AssemblyInfrastructureConnector());
     }
 
     @Override
     public SimulatedStackframe<Object> caseRequiredDelegationConnector(
             final RequiredDelegationConnector requiredDelegationConnector) {
         final AssemblyContext parentContext = this.context.getAssemblyContextStack().pop();
-        final ComposedStructureInnerSwitch composedStructureInnerSwitch = new ComposedStructureInnerSwitch(this.context,
-                this.signature, requiredDelegationConnector.getOuterRequiredRole_RequiredDelegationConnector());
-        final SimulatedStackframe<Object> result = composedStructureInnerSwitch.doSwitch(parentContext);
+        final SimulatedStackframe<Object> result = this.resolveCall(parentContext, this.signature,
+                requiredDelegationConnector.getOuterRequiredRole_RequiredDelegationConnector());
         this.context.getAssemblyContextStack().push(parentContext);
         return result;
     }
@@ -89,16 +124,16 @@ class ComposedStructureInnerSwitch extends CompositionSwitch<SimulatedStackframe
     public SimulatedStackframe<Object> caseRequiredInfrastructureDelegationConnector(
             final RequiredInfrastructureDelegationConnector requiredInfrastructureDelegationConnector) {
         final AssemblyContext parentContext = this.context.getAssemblyContextStack().pop();
-        final ComposedStructureInnerSwitch composedStructureInnerSwitch = new ComposedStructureInnerSwitch(this.context,
-                this.signature, requiredInfrastructureDelegationConnector.getOuterRequiredRole__RequiredInfrastructureDelegationConnector());
-        final SimulatedStackframe<Object> result = composedStructureInnerSwitch.doSwitch(parentContext);
+        final SimulatedStackframe<Object> result = this.resolveCall(parentContext, this.signature,
+                requiredInfrastructureDelegationConnector
+                        .getOuterRequiredRole__RequiredInfrastructureDelegationConnector());
         this.context.getAssemblyContextStack().push(parentContext);
         return result;
     }
 
     @Override
     public SimulatedStackframe<Object> caseAssemblyContext(final AssemblyContext assemblyContext) {
-        final Connector connector = getConnectedConnector(assemblyContext, this.requiredRole);
+        final Connector connector = this.getConnectedConnector(assemblyContext, this.requiredRole);
         return this.doSwitch(connector);
     }
 
@@ -109,70 +144,17 @@ class ComposedStructureInnerSwitch extends CompositionSwitch<SimulatedStackframe
      *            the required role.
      * @return the determined assembly connector, null otherwise.
      */
-    private static Connector getConnectedConnector(final AssemblyContext myContext, final RequiredRole requiredRole) {
+    private Connector getConnectedConnector(final AssemblyContext myContext, final RequiredRole requiredRole) {
         if (myContext == null) {
             throw new IllegalArgumentException("Assembly context must not be null");
         }
         if (requiredRole == null) {
             throw new IllegalArgumentException("Required role must not be null");
         }
-        final CompositionSwitch<Connector> connectorSelector = new CompositionSwitch<Connector>() {
-
-            @Override
-            public Connector caseRequiredDelegationConnector(final RequiredDelegationConnector delegationConnector) {
-                if (delegationConnector.getAssemblyContext_RequiredDelegationConnector() == myContext
-                        && delegationConnector.getInnerRequiredRole_RequiredDelegationConnector() == requiredRole) {
-                    return delegationConnector;
-                }
-                return null;
-            }
-
-            @Override
-            public Connector caseAssemblyConnector(final AssemblyConnector assemblyConnector) {
-                if (assemblyConnector.getRequiringAssemblyContext_AssemblyConnector() == myContext
-                        && assemblyConnector.getRequiredRole_AssemblyConnector() == requiredRole) {
-                    return assemblyConnector;
-                }
-                return null;
-            }
-
-            /*
-             * (non-Javadoc)
-             *
-             * @see org.palladiosimulator.pcm.core.composition.util.CompositionSwitch#
-             * caseAssemblyInfrastructureConnector
-             * (org.palladiosimulator.pcm.core.composition.AssemblyInfrastructureConnector)
-             */
-            @Override
-            public Connector caseAssemblyInfrastructureConnector(
-                    final AssemblyInfrastructureConnector assemblyInfrastructureConnector) {
-                if (assemblyInfrastructureConnector
-                        .getRequiringAssemblyContext__AssemblyInfrastructureConnector() == myContext
-                        && assemblyInfrastructureConnector
-                                .getRequiredRole__AssemblyInfrastructureConnector() == requiredRole) {
-                    return assemblyInfrastructureConnector;
-                }
-                return null;
-            }
-
-            @Override
-            public Connector caseRequiredInfrastructureDelegationConnector(
-                    final RequiredInfrastructureDelegationConnector requiredInfrastructureDelegationConnector) {
-                if (requiredInfrastructureDelegationConnector
-                        .getAssemblyContext__RequiredInfrastructureDelegationConnector() == myContext
-                        && requiredInfrastructureDelegationConnector
-                                .getInnerRequiredRole__RequiredInfrastructureDelegationConnector() == requiredRole) {
-                    return requiredInfrastructureDelegationConnector;
-                }
-                return null;
-            }
-        };
-        for (final Connector connector : myContext.getParentStructure__AssemblyContext()
-                .getConnectors__ComposedStructure()) {
-            final Connector result = connectorSelector.doSwitch(connector);
-            if (result != null) {
-                return result;
-            }
+        final Connector connector = this.context.getRuntimeState().getConnectorIndex()
+                .getConnectedConnector(myContext, requiredRole);
+        if (connector != null) {
+            return connector;
         }
         throw new PCMModelInterpreterException("Found unbound provided role. PCM model is invalid.");
     }
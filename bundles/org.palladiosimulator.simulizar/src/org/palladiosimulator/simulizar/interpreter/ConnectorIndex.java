@@ -0,0 +1,165 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.core.composition.AssemblyConnector;
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+import org.palladiosimulator.pcm.core.composition.AssemblyInfrastructureConnector;
+import org.palladiosimulator.pcm.core.composition.ComposedStructure;
+import org.palladiosimulator.pcm.core.composition.Connector;
+import org.palladiosimulator.pcm.core.composition.ProvidedDelegationConnector;
+import org.palladiosimulator.pcm.core.composition.RequiredDelegationConnector;
+import org.palladiosimulator.pcm.core.composition.RequiredInfrastructureDelegationConnector;
+import org.palladiosimulator.pcm.core.composition.util.CompositionSwitch;
+import org.palladiosimulator.pcm.repository.ProvidedRole;
+import org.palladiosimulator.pcm.repository.RequiredRole;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+
+/**
+ * Index of the connectors which are attached to the required roles of assembly contexts, i.e.,
+ * assembly connectors, assembly infrastructure connectors and (infrastructure) required delegation
+ * connectors, and of the provided delegation connectors attached to the outer provided roles of
+ * composed structures. The index of a composed structure is built on first access by a single pass
+ * over its connectors. Local model copies are not modified, changes of the global model are only
+ * visible in the next local model copy. Therefore, all indices are dropped as soon as the model
+ * access takes a new local model copy, and are valid until then.
+ */
+public class ConnectorIndex implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectorIndex.class);
+
+    private final Map<ComposedStructure, StructureIndex> indices = new IdentityHashMap<ComposedStructure, StructureIndex>();
+
+    /**
+     * Returns the connector which is attached to the given required role of the given assembly
+     * context.
+     *
+     * @param assemblyContext
+     *            the requiring assembly context.
+     * @param requiredRole
+     *            the required role.
+     * @return the connected connector, {@code null} if the role is unbound.
+     */
+    public Connector getConnectedConnector(final AssemblyContext assemblyContext, final RequiredRole requiredRole) {
+        final Map<RequiredRole, Connector> connectors = this
+                .getIndex(assemblyContext.getParentStructure__AssemblyContext()).requiredConnectors
+                .get(assemblyContext);
+        return connectors == null ? null : connectors.get(requiredRole);
+    }
+
+    /**
+     * Returns the provided delegation connector which is attached to the given outer provided role
+     * of the given composed structure.
+     *
+     * @param structure
+     *            the composed structure providing the role.
+     * @param providedRole
+     *            the outer provided role.
+     * @return the connected provided delegation connector, {@code null} if the role is unbound.
+     */
+    public ProvidedDelegationConnector getConnectedProvidedDelegationConnector(final ComposedStructure structure,
+            final ProvidedRole providedRole) {
+        return this.getIndex(structure).providedDelegationConnectors.get(providedRole);
+    }
+
+    private StructureIndex getIndex(final ComposedStructure structure) {
+        StructureIndex index = this.indices.get(structure);
+        if (index == null) {
+            index = buildIndex(structure);
+            this.indices.put(structure, index);
+        }
+        return index;
+    }
+
+    private static StructureIndex buildIndex(final ComposedStructure structure) {
+        final StructureIndex structureIndex = new StructureIndex();
+        final Map<AssemblyContext, Map<RequiredRole, Connector>> index = structureIndex.requiredConnectors;
+        final CompositionSwitch<Connector> indexer = new CompositionSwitch<Connector>() {
+
+            @Override
+            public Connector caseRequiredDelegationConnector(final RequiredDelegationConnector delegationConnector) {
+                return register(index, delegationConnector.getAssemblyContext_RequiredDelegationConnector(),
+                        delegationConnector.getInnerRequiredRole_RequiredDelegationConnector(), delegationConnector);
+            }
+
+            @Override
+            public Connector caseAssemblyConnector(final AssemblyConnector assemblyConnector) {
+                return register(index, assemblyConnector.getRequiringAssemblyContext_AssemblyConnector(),
+                        assemblyConnector.getRequiredRole_AssemblyConnector(), assemblyConnector);
+            }
+
+            @Override
+            public Connector caseAssemblyInfrastructureConnector(
+                    final AssemblyInfrastructureConnector assemblyInfrastructureConnector) {
+                return register(index,
+                        assemblyInfrastructureConnector.getRequiringAssemblyContext__AssemblyInfrastructureConnector(),
+                        assemblyInfrastructureConnector.getRequiredRole__AssemblyInfrastructureConnector(),
+                        assemblyInfrastructureConnector);
+            }
+
+            @Override
+            public Connector caseRequiredInfrastructureDelegationConnector(
+                    final RequiredInfrastructureDelegationConnector requiredInfrastructureDelegationConnector) {
+                return register(index,
+                        requiredInfrastructureDelegationConnector
+                                .getAssemblyContext__RequiredInfrastructureDelegationConnector(),
+                        requiredInfrastructureDelegationConnector
+                                .getInnerRequiredRole__RequiredInfrastructureDelegationConnector(),
+                        requiredInfrastructureDelegationConnector);
+            }
+
+            @Override
+            public Connector caseProvidedDelegationConnector(final ProvidedDelegationConnector delegationConnector) {
+                final ProvidedRole outerProvidedRole = delegationConnector
+                        .getOuterProvidedRole_ProvidedDelegationConnector();
+                if (!structureIndex.providedDelegationConnectors.containsKey(outerProvidedRole)) {
+                    structureIndex.providedDelegationConnectors.put(outerProvidedRole, delegationConnector);
+                }
+                return delegationConnector;
+            }
+        };
+        for (final Connector connector : structure.getConnectors__ComposedStructure()) {
+            indexer.doSwitch(connector);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Indexed connectors of " + structure.getEntityName() + " for " + index.size()
+                    + " requiring assembly contexts and " + structureIndex.providedDelegationConnectors.size()
+                    + " provided roles");
+        }
+        return structureIndex;
+    }
+
+    private static Connector register(final Map<AssemblyContext, Map<RequiredRole, Connector>> index,
+            final AssemblyContext assemblyContext, final RequiredRole requiredRole, final Connector connector) {
+        Map<RequiredRole, Connector> connectors = index.get(assemblyContext);
+        if (connectors == null) {
+            connectors = new IdentityHashMap<RequiredRole, Connector>();
+            index.put(assemblyContext, connectors);
+        }
+        // the first matching connector wins, as in a linear search over the connectors
+        if (!connectors.containsKey(requiredRole)) {
+            connectors.put(requiredRole, connector);
+        }
+        return connector;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.indices.size() + " connector indices");
+        }
+        this.indices.clear();
+    }
+
+    /**
+     * Connectors of a single composed structure.
+     */
+    private static final class StructureIndex {
+
+        private final Map<AssemblyContext, Map<RequiredRole, Connector>> requiredConnectors = new IdentityHashMap<AssemblyContext, Map<RequiredRole, Connector>>();
+        private final Map<ProvidedRole, ProvidedDelegationConnector> providedDelegationConnectors = new IdentityHashMap<ProvidedRole, ProvidedDelegationConnector>();
+    }
+}
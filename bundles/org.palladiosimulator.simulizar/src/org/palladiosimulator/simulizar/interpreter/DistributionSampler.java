@@ -0,0 +1,171 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import de.uka.ipd.sdq.probfunction.math.IRandomGenerator;
+
+/**
+ * Sampler of a stochastic expression which consists of a single distribution with literal
+ * parameters. Variates are drawn in batches of {@value #BATCH_SIZE} into a buffer, each batch
+ * consuming a fixed number of random numbers from the random generator of the simulation, so the
+ * drawn variates are reproducible for a given seed. The following distributions are supported:
+ * <ul>
+ * <li>{@code Exp(lambda)}: exponential distribution with rate lambda, sampled by inversion.</li>
+ * <li>{@code Norm(mu,sigma)}: normal distribution with mean mu and standard deviation sigma,
+ * sampled by the Box-Muller transform.</li>
+ * <li>{@code DoublePDF[(x1;p1)(x2;p2)...]}: boxed probability density, i.e., the value lies in
+ * the interval from x(i-1) to xi with probability pi, where x0 is 0. The value is sampled by
+ * inversion, using a table of the cumulative probabilities of the intervals.</li>
+ * </ul>
+ */
+final class DistributionSampler {
+
+    /**
+     * The number of variates drawn at once.
+     */
+    static final int BATCH_SIZE = 64;
+
+    private static final String NUMBER = "(-?[0-9]*\\.?[0-9]+(?:[eE][-+]?[0-9]+)?)";
+    private static final Pattern EXP = Pattern.compile("Exp\\(\\s*" + NUMBER + "\\s*\\)");
+    private static final Pattern NORM = Pattern.compile("Norm\\(\\s*" + NUMBER + "\\s*,\\s*" + NUMBER + "\\s*\\)");
+    private static final Pattern DOUBLE_PDF = Pattern
+            .compile("DoublePDF\\[((?:\\s*\\(\\s*" + NUMBER + "\\s*;\\s*" + NUMBER + "\\s*\\))+)\\s*\\]");
+    private static final Pattern DOUBLE_PDF_SAMPLE = Pattern
+            .compile("\\(\\s*" + NUMBER + "\\s*;\\s*" + NUMBER + "\\s*\\)");
+
+    private enum Kind {
+        EXPONENTIAL, NORMAL, BOXED
+    }
+
+    private final Kind kind;
+    private final double first;
+    private final double second;
+    private final double[] cumulativeProbabilities;
+    private final double[] bounds;
+    private final IRandomGenerator randomGenerator;
+    private final double[] buffer = new double[BATCH_SIZE];
+    private int next = BATCH_SIZE;
+
+    private DistributionSampler(final Kind kind, final double first, final double second,
+            final double[] cumulativeProbabilities, final double[] bounds, final IRandomGenerator randomGenerator) {
+        super();
+        this.kind = kind;
+        this.first = first;
+        this.second = second;
+        this.cumulativeProbabilities = cumulativeProbabilities;
+        this.bounds = bounds;
+        this.randomGenerator = randomGenerator;
+    }
+
+    /**
+     * Creates the sampler of the given specification.
+     *
+     * @param specification
+     *            the StoEx specification.
+     * @param randomGenerator
+     *            the random generator to draw from.
+     * @return the sampler, or {@code null} if the specification is not a single supported
+     *         distribution with literal parameters.
+     */
+    static DistributionSampler create(final String specification, final IRandomGenerator randomGenerator) {
+        final String literal = specification.trim();
+        Matcher matcher = EXP.matcher(literal);
+        if (matcher.matches()) {
+            final double rate = Double.parseDouble(matcher.group(1));
+            return rate > 0 ? new DistributionSampler(Kind.EXPONENTIAL, rate, 0, null, null, randomGenerator)
+                    : null;
+        }
+        matcher = NORM.matcher(literal);
+        if (matcher.matches()) {
+            final double sigma = Double.parseDouble(matcher.group(2));
+            return sigma >= 0 ? new DistributionSampler(Kind.NORMAL, Double.parseDouble(matcher.group(1)), sigma,
+                    null, null, randomGenerator) : null;
+        }
+        matcher = DOUBLE_PDF.matcher(literal);
+        if (matcher.matches()) {
+            return createBoxed(matcher.group(1), randomGenerator);
+        }
+        return null;
+    }
+
+    private static DistributionSampler createBoxed(final String samples, final IRandomGenerator randomGenerator) {
+        final List<double[]> boxes = new ArrayList<double[]>();
+        final Matcher matcher = DOUBLE_PDF_SAMPLE.matcher(samples);
+        while (matcher.find()) {
+            boxes.add(new double[] { Double.parseDouble(matcher.group(1)), Double.parseDouble(matcher.group(2)) });
+        }
+        final double[] bounds = new double[boxes.size() + 1];
+        final double[] cumulativeProbabilities = new double[boxes.size()];
+        double sum = 0;
+        for (int i = 0; i < boxes.size(); i++) {
+            bounds[i + 1] = boxes.get(i)[0];
+            if (bounds[i + 1] < bounds[i] || boxes.get(i)[1] < 0) {
+                return null;
+            }
+            cumulativeProbabilities[i] = (sum = sum + boxes.get(i)[1]);
+        }
+        if (!(sum > 0)) {
+            return null;
+        }
+        return new DistributionSampler(Kind.BOXED, 0, 0, cumulativeProbabilities, bounds, randomGenerator);
+    }
+
+    /**
+     * @return the next variate.
+     */
+    double sample() {
+        if (this.next == BATCH_SIZE) {
+            this.fillBuffer();
+            this.next = 0;
+        }
+        return this.buffer[this.next++];
+    }
+
+    private void fillBuffer() {
+        switch (this.kind) {
+        case EXPONENTIAL:
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                this.buffer[i] = -Math.log(1.0 - this.randomGenerator.random()) / this.first;
+            }
+            break;
+        case NORMAL:
+            for (int i = 0; i < BATCH_SIZE; i += 2) {
+                final double radius = Math.sqrt(-2.0 * Math.log(1.0 - this.randomGenerator.random()));
+                final double angle = 2.0 * Math.PI * this.randomGenerator.random();
+                this.buffer[i] = this.first + this.second * radius * Math.cos(angle);
+                this.buffer[i + 1] = this.first + this.second * radius * Math.sin(angle);
+            }
+            break;
+        case BOXED:
+            for (int i = 0; i < BATCH_SIZE; i++) {
+                this.buffer[i] = this.inverseBoxed(this.randomGenerator.random());
+            }
+            break;
+        default:
+            throw new IllegalStateException("Unknown distribution " + this.kind);
+        }
+    }
+
+    private double inverseBoxed(final double randomNumber) {
+        final int size = this.cumulativeProbabilities.length;
+        final double target = this.cumulativeProbabilities[size - 1] * randomNumber;
+        // first box whose cumulative probability exceeds the target
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (target < this.cumulativeProbabilities[middle]) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        final double lowerProbability = low == 0 ? 0 : this.cumulativeProbabilities[low - 1];
+        final double boxProbability = this.cumulativeProbabilities[low] - lowerProbability;
+        final double position = boxProbability > 0 ? (target - lowerProbability) / boxProbability : 0;
+        return this.bounds[low] + position * (this.bounds[low + 1] - this.bounds[low]);
+    }
+}
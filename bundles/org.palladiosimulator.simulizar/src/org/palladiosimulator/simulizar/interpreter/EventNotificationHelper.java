@@ -3,13 +3,13 @@
  */
 package org.palladiosimulator.simulizar.interpreter;
 
-import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Optional;
-import java.util.function.BinaryOperator;
-import java.util.function.Consumer;
-import java.util.function.Function;
+import java.util.Map;
+import java.util.function.BiConsumer;
 
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.palladiosimulator.commons.designpatterns.AbstractObservable;
 import org.palladiosimulator.pcm.repository.OperationProvidedRole;
@@ -27,109 +27,202 @@ import org.palladiosimulator.simulizar.interpreter.listener.ModelElementPassedEv
 import org.palladiosimulator.simulizar.interpreter.listener.RDSEFFElementPassedEvent;
 
 /**
+ * Notifies the registered {@link IInterpreterListener}s about passed model elements.
+ *
+ * Events are dispatched through a table which holds, per {@link EClass} of the passed model
+ * elements, the listener callbacks to invoke and the listeners interested in elements of this
+ * class (see {@link IInterpreterListener#isInterestedIn(EClass)}). A table entry is computed when
+ * an element of its class is passed for the first time; the table is dropped whenever listeners
+ * are added or removed. Interpreters should check {@link #isEventRequired(EObject)} before creating
+ * an event, so that no events are created for elements no listener is interested in.
+ *
  * @author snowball, Sebastian Krach
  *
  */
 public class EventNotificationHelper extends AbstractObservable<IInterpreterListener> {
-    
-    
-    private static BinaryOperator<Consumer<ModelElementPassedEvent<? extends EObject>>> BEGIN_END_SWITCH = (beginFunc, endFunc) -> 
-    	((ModelElementPassedEvent<? extends EObject> event) -> {
-    	    if (event.getEventType() == EventType.BEGIN) 
-    	    	beginFunc.accept(event);
-    	    else
-    	    	endFunc.accept(event);
-    	    
-    	});
-    
+
     @SuppressWarnings("unchecked")
-    private UsagemodelSwitch<Optional<Consumer<ModelElementPassedEvent<? extends EObject>>>> USAGE_MODEL_NOTIFICATOR_SELECTOR = new UsagemodelSwitch<Optional<Consumer<ModelElementPassedEvent<? extends EObject>>>>() {
-		public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> caseEntryLevelSystemCall(EntryLevelSystemCall object) {
-			return Optional.of(
-		    	BEGIN_END_SWITCH.apply(
-	    			(ev -> getEventDispatcher().beginEntryLevelSystemCallInterpretation((ModelElementPassedEvent<EntryLevelSystemCall>) ev)),
-	    			(ev -> getEventDispatcher().endEntryLevelSystemCallInterpretation((ModelElementPassedEvent<EntryLevelSystemCall>) ev))
-				)
-		    );
-		};
-		
-		public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> caseUsageScenario(UsageScenario object) {
-		    return Optional.of(
-				BEGIN_END_SWITCH.apply(
-	    			((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().beginUsageScenarioInterpretation((ModelElementPassedEvent<UsageScenario>) ev)),
-	    			((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().endUsageScenarioInterpretation((ModelElementPassedEvent<UsageScenario>) ev))
-	    		)
-		    );
-			    		
-		};
-		
-		public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> defaultCase(EObject object) {
-		    return Optional.empty();
-		};
-    };
-    
+    private static final Notifier ENTRY_LEVEL_SYSTEM_CALL_NOTIFIER = new Notifier(
+            (listener, event) -> listener
+                    .beginEntryLevelSystemCallInterpretation((ModelElementPassedEvent<EntryLevelSystemCall>) event),
+            (listener, event) -> listener
+                    .endEntryLevelSystemCallInterpretation((ModelElementPassedEvent<EntryLevelSystemCall>) event));
+
     @SuppressWarnings("unchecked")
-    private RepositorySwitch<Optional<Consumer<ModelElementPassedEvent<? extends EObject>>>> REPOSITORY_NOTIFICATOR_SELECTOR = new RepositorySwitch<Optional<Consumer<ModelElementPassedEvent<? extends EObject>>>>() {
-    	public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> caseOperationSignature(OperationSignature object) {
-    		return Optional.of(    
-	    		BEGIN_END_SWITCH.apply(
-    				((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().beginSystemOperationCallInterpretation((ModelElementPassedEvent<OperationSignature>) ev)),
-    				((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().endSystemOperationCallInterpretation((ModelElementPassedEvent<OperationSignature>) ev))
-			    )
-    		);		
-		};
-		
-		public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> caseOperationProvidedRole(OperationProvidedRole object) {
-    		return Optional.of(    
-	    		BEGIN_END_SWITCH.apply(
-    				((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().beginAssemblyProvidedOperationCallInterpretation((AssemblyProvidedOperationPassedEvent<OperationProvidedRole, OperationSignature>) ev)),
-    				((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().endAssemblyProvidedOperationCallInterpretation((AssemblyProvidedOperationPassedEvent<OperationProvidedRole, OperationSignature>) ev))
-			    )
-    		);	
-		};
-		
-		public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> defaultCase(EObject object) {
-		    return Optional.empty();
-		};
-    };
-    
+    private static final Notifier USAGE_SCENARIO_NOTIFIER = new Notifier(
+            (listener, event) -> listener
+                    .beginUsageScenarioInterpretation((ModelElementPassedEvent<UsageScenario>) event),
+            (listener, event) -> listener
+                    .endUsageScenarioInterpretation((ModelElementPassedEvent<UsageScenario>) event));
+
+    @SuppressWarnings("unchecked")
+    private static final Notifier SYSTEM_OPERATION_CALL_NOTIFIER = new Notifier(
+            (listener, event) -> listener
+                    .beginSystemOperationCallInterpretation((ModelElementPassedEvent<OperationSignature>) event),
+            (listener, event) -> listener
+                    .endSystemOperationCallInterpretation((ModelElementPassedEvent<OperationSignature>) event));
+
     @SuppressWarnings("unchecked")
-    private SeffSwitch<Optional<Consumer<ModelElementPassedEvent<? extends EObject>>>> SEFF_NOTIFICATOR_SELECTOR = new SeffSwitch<Optional<Consumer<ModelElementPassedEvent<? extends EObject>>>> () {
-    	public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> caseExternalCallAction(ExternalCallAction object) {
-    		return Optional.of(
-		    		BEGIN_END_SWITCH.apply(
-	    				((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().beginExternalCallInterpretation((RDSEFFElementPassedEvent<ExternalCallAction>) ev)),
-	    				((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().endExternalCallInterpretation((RDSEFFElementPassedEvent<ExternalCallAction>) ev))
-				    )
-        		);		
-    		};
-    	
-    	public Optional<Consumer<ModelElementPassedEvent<? extends EObject>>> defaultCase(EObject object) {
-		    return Optional.empty();
-		};
+    private static final Notifier ASSEMBLY_PROVIDED_OPERATION_CALL_NOTIFIER = new Notifier(
+            (listener, event) -> listener.beginAssemblyProvidedOperationCallInterpretation(
+                    (AssemblyProvidedOperationPassedEvent<OperationProvidedRole, OperationSignature>) event),
+            (listener, event) -> listener.endAssemblyProvidedOperationCallInterpretation(
+                    (AssemblyProvidedOperationPassedEvent<OperationProvidedRole, OperationSignature>) event));
+
+    @SuppressWarnings("unchecked")
+    private static final Notifier EXTERNAL_CALL_NOTIFIER = new Notifier(
+            (listener, event) -> listener
+                    .beginExternalCallInterpretation((RDSEFFElementPassedEvent<ExternalCallAction>) event),
+            (listener, event) -> listener
+                    .endExternalCallInterpretation((RDSEFFElementPassedEvent<ExternalCallAction>) event));
+
+    private static final Notifier UNKNOWN_ELEMENT_NOTIFIER = new Notifier(
+            (listener, event) -> listener.beginUnknownElementInterpretation(event),
+            (listener, event) -> listener.endUnknownElementInterpretation(event));
+
+    private static final UsagemodelSwitch<Notifier> USAGE_MODEL_NOTIFIER_SELECTOR = new UsagemodelSwitch<Notifier>() {
+
+        @Override
+        public Notifier caseEntryLevelSystemCall(final EntryLevelSystemCall object) {
+            return ENTRY_LEVEL_SYSTEM_CALL_NOTIFIER;
+        }
+
+        @Override
+        public Notifier caseUsageScenario(final UsageScenario object) {
+            return USAGE_SCENARIO_NOTIFIER;
+        }
     };
-    
-    private Consumer<ModelElementPassedEvent<? extends EObject>> UNKNOWN_ELEMENT_NOTIFICATOR_SELECTOR =
-		BEGIN_END_SWITCH.apply(
-			((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().beginUnknownElementInterpretation(ev)),
-			((ModelElementPassedEvent<? extends EObject> ev) -> getEventDispatcher().endUnknownElementInterpretation(ev))
-	    );
-    
-
-    private final List<Function<EObject, Optional<Consumer<ModelElementPassedEvent<? extends EObject>>>>> NOTIFICATOR_SELECTOR_SWITCHES = Arrays.asList(
-		USAGE_MODEL_NOTIFICATOR_SELECTOR::doSwitch,
-		REPOSITORY_NOTIFICATOR_SELECTOR::doSwitch,
-		SEFF_NOTIFICATOR_SELECTOR::doSwitch);
-    
+
+    private static final RepositorySwitch<Notifier> REPOSITORY_NOTIFIER_SELECTOR = new RepositorySwitch<Notifier>() {
+
+        @Override
+        public Notifier caseOperationSignature(final OperationSignature object) {
+            return SYSTEM_OPERATION_CALL_NOTIFIER;
+        }
+
+        @Override
+        public Notifier caseOperationProvidedRole(final OperationProvidedRole object) {
+            return ASSEMBLY_PROVIDED_OPERATION_CALL_NOTIFIER;
+        }
+    };
+
+    private static final SeffSwitch<Notifier> SEFF_NOTIFIER_SELECTOR = new SeffSwitch<Notifier>() {
+
+        @Override
+        public Notifier caseExternalCallAction(final ExternalCallAction object) {
+            return EXTERNAL_CALL_NOTIFIER;
+        }
+    };
+
+    private final List<IInterpreterListener> listeners = new ArrayList<IInterpreterListener>();
+    private final Map<EClass, Dispatch> dispatchTable = new HashMap<EClass, Dispatch>();
+
+    @Override
+    public void addObserver(final IInterpreterListener observer) {
+        super.addObserver(observer);
+        this.listeners.add(observer);
+        this.dispatchTable.clear();
+    }
+
+    @Override
+    public void removeObserver(final IInterpreterListener observer) {
+        super.removeObserver(observer);
+        this.listeners.remove(observer);
+        this.dispatchTable.clear();
+    }
+
+    @Override
+    public void removeAllObserver() {
+        super.removeAllObserver();
+        this.listeners.clear();
+        this.dispatchTable.clear();
+    }
+
+    /**
+     * Checks whether any registered listener is interested in events of the given model element.
+     *
+     * @param modelElement
+     *            the passed model element.
+     * @return {@code true} if an event of the given element has to be fired, {@code false} if it
+     *         would not reach any listener.
+     */
+    public boolean isEventRequired(final EObject modelElement) {
+        return this.getDispatch(modelElement).listeners.length > 0;
+    }
+
     public <T extends EObject> void firePassedEvent(final ModelElementPassedEvent<T> event) {
-		NOTIFICATOR_SELECTOR_SWITCHES.stream()
-			.map(sw -> sw.apply(event.getModelElement()))
-			.filter(Optional::isPresent).map(Optional::get).findFirst()
-			.orElse(UNKNOWN_ELEMENT_NOTIFICATOR_SELECTOR)
-			.accept(event);
+        final Dispatch dispatch = this.getDispatch(event.getModelElement());
+        final BiConsumer<IInterpreterListener, ModelElementPassedEvent<? extends EObject>> callback = event
+                .getEventType() == EventType.BEGIN ? dispatch.notifier.begin : dispatch.notifier.end;
+        for (final IInterpreterListener listener : dispatch.listeners) {
+            callback.accept(listener, event);
+        }
     }
-    
+
     public void removeAllListener() {
         this.removeAllObserver();
     }
+
+    private Dispatch getDispatch(final EObject modelElement) {
+        final EClass eClass = modelElement.eClass();
+        Dispatch dispatch = this.dispatchTable.get(eClass);
+        if (dispatch == null) {
+            dispatch = this.createDispatch(modelElement);
+            this.dispatchTable.put(eClass, dispatch);
+        }
+        return dispatch;
+    }
+
+    private Dispatch createDispatch(final EObject modelElement) {
+        Notifier notifier = USAGE_MODEL_NOTIFIER_SELECTOR.doSwitch(modelElement);
+        if (notifier == null) {
+            notifier = REPOSITORY_NOTIFIER_SELECTOR.doSwitch(modelElement);
+        }
+        if (notifier == null) {
+            notifier = SEFF_NOTIFIER_SELECTOR.doSwitch(modelElement);
+        }
+        if (notifier == null) {
+            notifier = UNKNOWN_ELEMENT_NOTIFIER;
+        }
+        final List<IInterpreterListener> interestedListeners = new ArrayList<IInterpreterListener>(
+                this.listeners.size());
+        for (final IInterpreterListener listener : this.listeners) {
+            if (listener.isInterestedIn(modelElement.eClass())) {
+                interestedListeners.add(listener);
+            }
+        }
+        return new Dispatch(notifier,
+                interestedListeners.toArray(new IInterpreterListener[interestedListeners.size()]));
+    }
+
+    /**
+     * Listener callbacks for the begin and end events of a kind of model element.
+     */
+    private static final class Notifier {
+
+        private final BiConsumer<IInterpreterListener, ModelElementPassedEvent<? extends EObject>> begin;
+        private final BiConsumer<IInterpreterListener, ModelElementPassedEvent<? extends EObject>> end;
+
+        private Notifier(final BiConsumer<IInterpreterListener, ModelElementPassedEvent<? extends EObject>> begin,
+                final BiConsumer<IInterpreterListener, ModelElementPassedEvent<? extends EObject>> end) {
+            super();
+            this.begin = begin;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Entry of the dispatch table.
+     */
+    private static final class Dispatch {
+
+        private final Notifier notifier;
+        private final IInterpreterListener[] listeners;
+
+        private Dispatch(final Notifier notifier, final IInterpreterListener[] listeners) {
+            super();
+            this.notifier = notifier;
+            this.listeners = listeners;
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+/**
+ * Statistics on the overhead of interpreting fork actions, i.e., the real time spent on preparing
+ * the forked behaviours of fork actions and on setting up the contexts of the forked behaviours.
+ * The time forked behaviours spend on their actual interpretation is not included.
+ *
+ * Measuring the real time is costly compared to the setup of a forked behaviour, so the
+ * interpreter only records the statistics if they are {@link #isEnabled() enabled}.
+ */
+public class ForkStatistics {
+
+    private final boolean enabled;
+    private long forkActions = 0;
+    private long forkedBehaviours = 0;
+    private long forkSetupNanos = 0;
+    private long contextSetupNanos = 0;
+
+    /**
+     * @param enabled
+     *            whether the statistics shall be recorded.
+     */
+    public ForkStatistics(final boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * @return whether the statistics are recorded.
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Records the preparation of a fork action.
+     *
+     * @param numberOfForkedBehaviours
+     *            the number of forked behaviours of the fork action.
+     * @param nanos
+     *            the real time spent on preparing the forked behaviours.
+     */
+    void forkPrepared(final int numberOfForkedBehaviours, final long nanos) {
+        this.forkActions++;
+        this.forkedBehaviours += numberOfForkedBehaviours;
+        this.forkSetupNanos += nanos;
+    }
+
+    /**
+     * Records the setup of the context of a forked behaviour.
+     *
+     * @param nanos
+     *            the real time spent on setting up the context.
+     */
+    void contextPrepared(final long nanos) {
+        this.contextSetupNanos += nanos;
+    }
+
+    /**
+     * @return the number of interpreted fork actions.
+     */
+    public long getForkActions() {
+        return this.forkActions;
+    }
+
+    /**
+     * @return the number of started forked behaviours.
+     */
+    public long getForkedBehaviours() {
+        return this.forkedBehaviours;
+    }
+
+    /**
+     * @return the real time in nanoseconds spent on preparing fork actions.
+     */
+    public long getForkSetupNanos() {
+        return this.forkSetupNanos;
+    }
+
+    /**
+     * @return the real time in nanoseconds spent on setting up the contexts of forked behaviours.
+     */
+    public long getContextSetupNanos() {
+        return this.contextSetupNanos;
+    }
+
+    @Override
+    public String toString() {
+        return this.forkActions + " fork actions with " + this.forkedBehaviours + " forked behaviours, "
+                + this.forkSetupNanos / 1000000 + " ms fork setup, " + this.contextSetupNanos / 1000000
+                + " ms context setup";
+    }
+}
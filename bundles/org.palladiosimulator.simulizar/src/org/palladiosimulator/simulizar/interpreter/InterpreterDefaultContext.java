@@ -1,11 +1,15 @@
 package org.palladiosimulator.simulizar.interpreter;
 
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Stack;
 
 import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
 import org.palladiosimulator.pcm.core.composition.AssemblyContext;
 import org.palladiosimulator.simulizar.access.IModelAccess;
 import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
+import org.palladiosimulator.simulizar.runtimestate.SimulatedBasicComponentInstance;
 
 import de.uka.ipd.sdq.simucomframework.Context;
 import de.uka.ipd.sdq.simucomframework.SimuComSimProcess;
@@ -33,6 +37,12 @@ public class InterpreterDefaultContext extends Context {
 
 	private PCMResourceSetPartition localPCMModelCopy;
 
+    private final Map<SimulatedBasicComponentInstance, RDSeffInterpreter> rdseffInterpreters = new IdentityHashMap<SimulatedBasicComponentInstance, RDSeffInterpreter>();
+
+    private ComposedStructureInnerSwitch composedStructureInnerSwitch;
+
+    private RepositoryComponentSwitch repositoryComponentSwitch;
+
     public InterpreterDefaultContext(final AbstractSimuLizarRuntimeState simulizarModel) {
         super(simulizarModel.getModel());
         this.stack = new SimulatedStack<Object>();
@@ -43,6 +53,47 @@ public class InterpreterDefaultContext extends Context {
 
     InterpreterDefaultContext(final Context context, final AbstractSimuLizarRuntimeState runtimeState,
             final boolean copyStack, final PCMResourceSetPartition pcmLocalCopy) {
+        this(context, runtimeState, pcmLocalCopy);
+        if (copyStack && context.getStack().size() > 0) {
+            this.stack.pushStackFrame(context.getStack().currentStackFrame().copyFrame());
+        } else {
+            this.stack.pushStackFrame(new SimulatedStackframe<Object>());
+        }
+    }
+
+    /**
+     * Creates the context of a forked behaviour.
+     *
+     * @param forkContext
+     *            the context of the forked behaviour process.
+     * @param runtimeState
+     *            the runtime state.
+     * @param pcmLocalCopy
+     *            the local PCM copy of the forking thread.
+     * @param assemblyContexts
+     *            the assembly context stack of the forking thread, bottom first.
+     * @param shareStackFrame
+     *            {@code true} if the current stack frame of the fork context does not change while
+     *            the forked behaviour is executed (i.e., for synchronously forked behaviours). In
+     *            this case, the frame is not copied, but used as parent of the frame of the new
+     *            context, so reads fall through to the shared frame and writes go to the own one.
+     */
+    InterpreterDefaultContext(final Context forkContext, final AbstractSimuLizarRuntimeState runtimeState,
+            final PCMResourceSetPartition pcmLocalCopy, final List<AssemblyContext> assemblyContexts,
+            final boolean shareStackFrame) {
+        this(forkContext, runtimeState, pcmLocalCopy);
+        if (forkContext.getStack().size() == 0) {
+            this.stack.pushStackFrame(new SimulatedStackframe<Object>());
+        } else if (shareStackFrame) {
+            this.stack.createAndPushNewStackFrame(forkContext.getStack().currentStackFrame());
+        } else {
+            this.stack.pushStackFrame(forkContext.getStack().currentStackFrame().copyFrame());
+        }
+        this.assemblyContextStack.addAll(assemblyContexts);
+    }
+
+    private InterpreterDefaultContext(final Context context, final AbstractSimuLizarRuntimeState runtimeState,
+            final PCMResourceSetPartition pcmLocalCopy) {
         super(context.getModel());
         this.modelAccess = runtimeState.getModelAccess().clone();
         this.localPCMModelCopy = pcmLocalCopy;
@@ -50,11 +101,6 @@ public class InterpreterDefaultContext extends Context {
         this.setSimProcess(context.getThread());
         this.stack = new SimulatedStack<Object>();
         this.runtimeState = runtimeState;
-        if (copyStack && context.getStack().size() > 0) {
-            this.stack.pushStackFrame(context.getStack().currentStackFrame().copyFrame());
-        } else {
-            this.stack.pushStackFrame(new SimulatedStackframe<Object>());
-        }
     }
 
     /**
@@ -94,4 +140,46 @@ public class InterpreterDefaultContext extends Context {
     public PCMResourceSetPartition getLocalPCMModelAtContextCreation() {
     	return this.localPCMModelCopy;
     };
+
+    /**
+     * @return the switch resolving required roles, reused for all calls of this context.
+     */
+    ComposedStructureInnerSwitch getComposedStructureInnerSwitch() {
+        if (this.composedStructureInnerSwitch == null) {
+            this.composedStructureInnerSwitch = new ComposedStructureInnerSwitch(this);
+        }
+        return this.composedStructureInnerSwitch;
+    }
+
+    /**
+     * @return the switch interpreting calls to provided roles, reused for all calls of this
+     *         context.
+     */
+    RepositoryComponentSwitch getRepositoryComponentSwitch() {
+        if (this.repositoryComponentSwitch == null) {
+            this.repositoryComponentSwitch = new RepositoryComponentSwitch(this);
+        }
+        return this.repositoryComponentSwitch;
+    }
+
+    /**
+     * Gets the interpreter for RDSEFFs of the given component instance. Interpreters are built once
+     * per context and component instance. If the interpreter of the component instance is already
+     * in use (i.e., the component instance is called recursively), a new one is built.
+     *
+     * @param basicComponentInstance
+     *            the called component instance.
+     * @return the interpreter.
+     */
+    RDSeffInterpreter getRDSeffInterpreter(final SimulatedBasicComponentInstance basicComponentInstance) {
+        final RDSeffInterpreter interpreter = this.rdseffInterpreters.get(basicComponentInstance);
+        if (interpreter != null && !interpreter.isInUse()) {
+            return interpreter;
+        }
+        final RDSeffInterpreter newInterpreter = new RDSeffInterpreter(this, basicComponentInstance);
+        if (interpreter == null) {
+            this.rdseffInterpreters.put(basicComponentInstance, newInterpreter);
+        }
+        return newInterpreter;
+    }
 }
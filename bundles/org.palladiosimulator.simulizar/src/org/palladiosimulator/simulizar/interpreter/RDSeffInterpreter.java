@@ -0,0 +1,60 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import org.palladiosimulator.pcm.seff.ResourceDemandingSEFF;
+import org.palladiosimulator.simulizar.runtimestate.SimulatedBasicComponentInstance;
+
+import de.uka.ipd.sdq.simucomframework.variables.stackframe.SimulatedStackframe;
+
+/**
+ * Composed switch hierarchy interpreting the RDSEFFs of one basic component instance on behalf of
+ * one simulated thread, i.e., the extension switches contributed by the
+ * {@link AbstractRDSeffSwitchFactory}s of the runtime state and the default {@link RDSeffSwitch}.
+ * The hierarchy is built once and reused by all subsequent calls of the thread to the component
+ * instance, see {@link InterpreterDefaultContext#getRDSeffInterpreter(SimulatedBasicComponentInstance)}.
+ */
+final class RDSeffInterpreter {
+
+    private final ExplicitDispatchComposedSwitch<Object> interpreter;
+    private final RDSeffSwitch rdseffSwitch;
+    private boolean inUse = false;
+
+    RDSeffInterpreter(final InterpreterDefaultContext context,
+            final SimulatedBasicComponentInstance basicComponentInstance) {
+        super();
+        this.interpreter = new ExplicitDispatchComposedSwitch<Object>();
+        for (final AbstractRDSeffSwitchFactory switchFactory : context.getRuntimeState()
+                .getRDSeffSwitchFactories()) {
+            this.interpreter.addSwitch(switchFactory.createRDSeffSwitch(context, basicComponentInstance,
+                    this.interpreter));
+        }
+        // add default RDSeffSwitch
+        this.rdseffSwitch = new RDSeffSwitch(context, basicComponentInstance, this.interpreter);
+        this.interpreter.addSwitch(this.rdseffSwitch);
+    }
+
+    /**
+     * Interprets the given SEFF.
+     *
+     * @param seff
+     *            the called SEFF.
+     * @return the stack frame containing the results of the call.
+     */
+    @SuppressWarnings("unchecked")
+    SimulatedStackframe<Object> interpret(final ResourceDemandingSEFF seff) {
+        this.inUse = true;
+        try {
+            this.rdseffSwitch.resetResultStackFrame();
+            return (SimulatedStackframe<Object>) this.interpreter.doSwitch(seff);
+        } finally {
+            this.inUse = false;
+        }
+    }
+
+    /**
+     * @return true if a call is currently interpreted, e.g., if the component instance calls
+     *         itself.
+     */
+    boolean isInUse() {
+        return this.inUse;
+    }
+}
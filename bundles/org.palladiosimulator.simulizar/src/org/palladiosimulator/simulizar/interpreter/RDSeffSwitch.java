@@ -2,10 +2,7 @@ package org.palladiosimulator.simulizar.interpreter;
 
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.ListIterator;
-import java.util.Stack;
 
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.EList;
@@ -16,11 +13,7 @@ import org.palladiosimulator.pcm.allocation.Allocation;
 import org.palladiosimulator.pcm.allocation.AllocationContext;
 import org.palladiosimulator.pcm.core.PCMRandomVariable;
 import org.palladiosimulator.pcm.core.composition.AssemblyContext;
-import org.palladiosimulator.pcm.core.entity.ResourceProvidedRole;
 import org.palladiosimulator.pcm.repository.Parameter;
-import org.palladiosimulator.pcm.resourceenvironment.ResourceContainer;
-import org.palladiosimulator.pcm.resourcetype.ResourceInterface;
-import org.palladiosimulator.pcm.resourcetype.ResourceRepository;
 import org.palladiosimulator.pcm.resourcetype.ResourceSignature;
 import org.palladiosimulator.pcm.resourcetype.ResourceType;
 import org.palladiosimulator.pcm.seff.AbstractAction;
@@ -35,7 +28,6 @@ import org.palladiosimulator.pcm.seff.InternalAction;
 import org.palladiosimulator.pcm.seff.LoopAction;
 import org.palladiosimulator.pcm.seff.ReleaseAction;
 import org.palladiosimulator.pcm.seff.ResourceDemandingBehaviour;
-import org.palladiosimulator.pcm.seff.SeffPackage;
 import org.palladiosimulator.pcm.seff.SetVariableAction;
 import org.palladiosimulator.pcm.seff.seff_performance.InfrastructureCall;
 import org.palladiosimulator.pcm.seff.seff_performance.ParametricResourceDemand;
@@ -50,11 +42,10 @@ import org.palladiosimulator.simulizar.runtimestate.SimulatedBasicComponentInsta
 import org.palladiosimulator.simulizar.utils.SimulatedStackHelper;
 import org.palladiosimulator.simulizar.utils.TransitionDeterminer;
 
-import de.uka.ipd.sdq.simucomframework.ResourceRegistry;
 import de.uka.ipd.sdq.simucomframework.fork.ForkExecutor;
 import de.uka.ipd.sdq.simucomframework.fork.ForkedBehaviourProcess;
+import de.uka.ipd.sdq.simucomframework.resources.AbstractSimulatedResourceContainer;
 import de.uka.ipd.sdq.simucomframework.variables.StackContext;
-import de.uka.ipd.sdq.simucomframework.variables.converter.NumberConverter;
 import de.uka.ipd.sdq.simucomframework.variables.stackframe.SimulatedStackframe;
 
 /**
@@ -73,7 +64,7 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
     private final InterpreterDefaultContext context;
     private final Allocation allocation;
 
-    private final SimulatedStackframe<Object> resultStackFrame;
+    private SimulatedStackframe<Object> resultStackFrame;
 
     private final SimulatedBasicComponentInstance basicComponentInstance;
 
@@ -112,35 +103,38 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
     	this.parentSwitch = parentSwitch;
     }
 
+    /**
+     * Replaces the result stack frame by an empty one. Needs to be called before this switch is
+     * reused for interpreting another call.
+     */
+    void resetResultStackFrame() {
+        this.resultStackFrame = new SimulatedStackframe<Object>();
+    }
+
     /**
      * @see org.palladiosimulator.pcm.seff.util.SeffSwitch#caseResourceDemandingBehaviour(org.palladiosimulator.pcm.seff.ResourceDemandingBehaviour)
      */
     @Override
     public Object caseResourceDemandingBehaviour(final ResourceDemandingBehaviour object) {
         final int stacksize = this.context.getStack().size();
+        final ResourceDemandingBehaviourPlan plan = this.context.getRuntimeState().getBehaviourPlanCache()
+                .getPlan(object);
 
-        AbstractAction currentAction = null;
         // interpret start action
-        for (final AbstractAction abstractAction : object.getSteps_Behaviour()) {
-            if (abstractAction.eClass() == SeffPackage.eINSTANCE.getStartAction()) {
-                this.firePassedEvent(abstractAction, EventType.BEGIN);
-                currentAction = abstractAction.getSuccessor_AbstractAction();
-                this.firePassedEvent(abstractAction, EventType.END);
-                break;
-            }
-        }
-        if (currentAction == null) {
-            throw new PCMModelInterpreterException("RDSEFF is invalid, it misses a start action");
-        }
-
-        while (currentAction.eClass() != SeffPackage.eINSTANCE.getStopAction()) {
+        final AbstractAction startAction = plan.getStartAction();
+        this.firePassedEvent(startAction, EventType.BEGIN);
+        this.firePassedEvent(startAction, EventType.END);
+
+        // interpret the precompiled chain of actions up to the stop action
+        final List<AbstractAction> steps = plan.getSteps();
+        for (int i = 0; i < steps.size(); i++) {
+            final AbstractAction currentAction = steps.get(i);
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Interpret " + currentAction.eClass().getName() + ": " + currentAction);
             }
             this.firePassedEvent(currentAction, EventType.BEGIN);
             this.getParentSwitch().doSwitch(currentAction);
             this.firePassedEvent(currentAction, EventType.END);
-            currentAction = currentAction.getSuccessor_AbstractAction();
         }
 
         if (this.context.getStack().size() != stacksize) {
@@ -190,21 +184,18 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
      * @param internalAction
      */
     private void interpretInfrastructureCalls(final InternalAction internalAction) {
+        final ComposedStructureInnerSwitch composedStructureSwitch = this.context.getComposedStructureInnerSwitch();
         for (final InfrastructureCall infrastructureCall : internalAction.getInfrastructureCall__Action()) {
             final SimulatedStackframe<Object> currentStackFrame = this.context.getStack().currentStackFrame();
-            final int repetitions = StackContext.evaluateStatic(
-                    infrastructureCall.getNumberOfCalls__InfrastructureCall().getSpecification(), Integer.class,
-                    currentStackFrame);
+            final int repetitions = this.context.getRuntimeState().getExpressionCache()
+                    .evaluateInt(infrastructureCall.getNumberOfCalls__InfrastructureCall(), currentStackFrame);
             for (int i = 0; i < repetitions; i++) {
-                final ComposedStructureInnerSwitch composedStructureSwitch = new ComposedStructureInnerSwitch(
-                        this.context, infrastructureCall.getSignature__InfrastructureCall(),
-                        infrastructureCall.getRequiredRole__InfrastructureCall());
-
                 // create new stack frame for input parameter
-                SimulatedStackHelper.createAndPushNewStackFrame(this.context.getStack(),
+                SimulatedStackHelper.createAndPushNewStackFrame(this.context,
                         infrastructureCall.getInputVariableUsages__CallAction());
                 final AssemblyContext myContext = this.context.getAssemblyContextStack().pop();
-                composedStructureSwitch.doSwitch(myContext);
+                composedStructureSwitch.resolveCall(myContext, infrastructureCall.getSignature__InfrastructureCall(),
+                        infrastructureCall.getRequiredRole__InfrastructureCall());
                 this.context.getAssemblyContextStack().push(myContext);
                 this.context.getStack().removeStackFrame();
             }
@@ -230,25 +221,23 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
      */
     @Override
     public Object caseExternalCallAction(final ExternalCallAction externalCall) {
-        final ComposedStructureInnerSwitch composedStructureSwitch = new ComposedStructureInnerSwitch(this.context,
-                externalCall.getCalledService_ExternalService(), externalCall.getRole_ExternalService());
-
         if (externalCall instanceof DelegatingExternalCallAction) {
             final SimulatedStackframe<Object> currentFrame = this.context.getStack().currentStackFrame();
             final SimulatedStackframe<Object> callFrame = SimulatedStackHelper.createAndPushNewStackFrame(
-                    this.context.getStack(), externalCall.getInputVariableUsages__CallAction(), currentFrame);
+                    this.context, externalCall.getInputVariableUsages__CallAction(), currentFrame);
             callFrame.addVariables(this.resultStackFrame);
         } else {
             // create new stack frame for input parameter
-            SimulatedStackHelper.createAndPushNewStackFrame(this.context.getStack(),
+            SimulatedStackHelper.createAndPushNewStackFrame(this.context,
                     externalCall.getInputVariableUsages__CallAction());
         }
         final AssemblyContext myContext = this.context.getAssemblyContextStack().pop();
-        final SimulatedStackframe<Object> outputFrame = composedStructureSwitch.doSwitch(myContext);
+        final SimulatedStackframe<Object> outputFrame = this.context.getComposedStructureInnerSwitch().resolveCall(
+                myContext, externalCall.getCalledService_ExternalService(), externalCall.getRole_ExternalService());
         this.context.getAssemblyContextStack().push(myContext);
         this.context.getStack().removeStackFrame();
 
-        SimulatedStackHelper.addParameterToStackFrame(outputFrame,
+        SimulatedStackHelper.addParameterToStackFrame(this.context, outputFrame,
                 externalCall.getReturnVariableUsage__CallReturnAction(), this.context.getStack().currentStackFrame());
 
         return SUCCESS;
@@ -277,8 +266,7 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
 
             LOGGER.debug(sb.toString());
         }
-        final AbstractBranchTransition branchTransition = this.transitionDeterminer
-                .determineTransition(abstractBranchTransitions);
+        final AbstractBranchTransition branchTransition = this.transitionDeterminer.determineTransition(object);
 
         /*
          * In case of a guarded transition, it must not necessarily be the case, that any branch
@@ -322,19 +310,37 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
          * THIS IS CURRENTLY NOT SUPPORTED BY THE INTERPRETER
          */
 
-        // get asynced processes
-        final List<ForkedBehaviourProcess> asyncProcesses = this
-                .getProcesses(object.getAsynchronousForkedBehaviours_ForkAction(), true);
-
-        // get synced processes
-        final List<ForkedBehaviourProcess> syncProcesses = this.determineSyncedProcesses(object);
-
-        // combine both
-        final List<ForkedBehaviourProcess> combinedProcesses = this.combineProcesses(asyncProcesses, syncProcesses);
+        final ForkStatistics forkStatistics = this.context.getRuntimeState().getForkStatistics();
+        final long setupStart = forkStatistics.isEnabled() ? System.nanoTime() : 0;
+        final List<ForkedBehaviour> asyncBehaviours = object.getAsynchronousForkedBehaviours_ForkAction();
+        final List<ForkedBehaviour> syncBehaviours = object.getSynchronisingBehaviours_ForkAction() == null
+                ? Collections.<ForkedBehaviour> emptyList()
+                : object.getSynchronisingBehaviours_ForkAction().getSynchronousForkedBehaviours_SynchronisationPoint();
+
+        // the assembly context stack of this thread is taken once and shared by all forked
+        // behaviours
+        final List<AssemblyContext> parentAssemblyContexts = Collections.unmodifiableList(
+                new ArrayList<AssemblyContext>(this.context.getAssemblyContextStack()));
+        final String assemblyContextId = this.context.getAssemblyContextStack().peek().getId();
+
+        // asynced processes first, synced processes afterwards
+        final ForkedBehaviourProcess[] processes = new ForkedBehaviourProcess[asyncBehaviours.size()
+                + syncBehaviours.size()];
+        int i = 0;
+        for (final ForkedBehaviour forkedBehaviour : asyncBehaviours) {
+            processes[i++] = this.createForkedBehaviourProcess(forkedBehaviour, parentAssemblyContexts,
+                    assemblyContextId, true);
+        }
+        for (final ForkedBehaviour forkedBehaviour : syncBehaviours) {
+            processes[i++] = this.createForkedBehaviourProcess(forkedBehaviour, parentAssemblyContexts,
+                    assemblyContextId, false);
+        }
+        if (forkStatistics.isEnabled()) {
+            forkStatistics.forkPrepared(processes.length, System.nanoTime() - setupStart);
+        }
 
         // create and start fork executor
-        final ForkExecutor forkExecutor = new ForkExecutor(this.context.getThread(),
-                combinedProcesses.toArray(new ForkedBehaviourProcess[0]));
+        final ForkExecutor forkExecutor = new ForkExecutor(this.context.getThread(), processes);
 
         forkExecutor.run();
 
@@ -347,10 +353,9 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
     @Override
     public Object caseLoopAction(final LoopAction object) {
         final PCMRandomVariable iterationCount = object.getIterationCount_LoopAction();
-        final String stoex = iterationCount.getSpecification();
 
         // we expect an int here
-        final int numberOfLoops = StackContext.evaluateStatic(stoex, Integer.class,
+        final int numberOfLoops = this.context.getRuntimeState().getExpressionCache().evaluateInt(iterationCount,
                 this.context.getStack().currentStackFrame());
 
         if (LOGGER.isDebugEnabled()) {
@@ -368,7 +373,7 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
      */
     @Override
     public Object caseSetVariableAction(final SetVariableAction object) {
-        SimulatedStackHelper.addParameterToStackFrame(this.context.getStack().currentStackFrame(),
+        SimulatedStackHelper.addParameterToStackFrame(this.context, this.context.getStack().currentStackFrame(),
                 object.getLocalVariableUsages_SetVariableAction(), this.resultStackFrame);
         /*
          * Special attention has to be paid if the random variable to set is an INNER
@@ -426,92 +431,62 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
      * @param eventType
      */
     private <T extends AbstractAction> void firePassedEvent(final T abstractAction, final EventType eventType) {
-        this.context.getRuntimeState().getEventNotificationHelper().firePassedEvent(new RDSEFFElementPassedEvent<T>(
-                abstractAction, eventType, this.context.getThread(), this.context.getAssemblyContextStack().peek()));
-    }
-
-    /**
-     * Combines synced and asynced processes in a combined list.
-     *
-     * @param asyncProcesses
-     *            list of asynced processes.
-     * @param syncProcesses
-     *            list of synced processes.
-     * @return combined list.
-     */
-    private List<ForkedBehaviourProcess> combineProcesses(final List<ForkedBehaviourProcess> asyncProcesses,
-            final List<ForkedBehaviourProcess> syncProcesses) {
-        final List<ForkedBehaviourProcess> combinedProcesses = new LinkedList<ForkedBehaviourProcess>();
-        combinedProcesses.addAll(asyncProcesses);
-        combinedProcesses.addAll(syncProcesses);
-        return Collections.synchronizedList(combinedProcesses);
-    }
-
-    /**
-     * Determines the synced processes in a fork action.
-     *
-     * @param object
-     *            the fork action.
-     * @return a list with synced processes.
-     */
-    private List<ForkedBehaviourProcess> determineSyncedProcesses(final ForkAction object) {
-        List<ForkedBehaviourProcess> syncProcesses = new ArrayList<ForkedBehaviourProcess>();
-
-        if (object.getSynchronisingBehaviours_ForkAction() != null) {
-            syncProcesses = this.getProcesses(object.getSynchronisingBehaviours_ForkAction()
-                    .getSynchronousForkedBehaviours_SynchronisationPoint(), false);
+        final EventNotificationHelper eventHelper = this.context.getRuntimeState().getEventNotificationHelper();
+        if (eventHelper.isEventRequired(abstractAction)) {
+            eventHelper.firePassedEvent(new RDSEFFElementPassedEvent<T>(abstractAction, eventType,
+                    this.context.getThread(), this.context.getAssemblyContextStack().peek()));
         }
-        return syncProcesses;
     }
 
     /**
-     * Creates a list of sync and async processes for given behaviors.
+     * Creates the process interpreting the given forked behaviour.
      *
-     * @param forkedBehaviours
-     *            the forked behaviors, independent of their sync or async character.
+     * @param forkedBehaviour
+     *            the forked behaviour.
+     * @param parentAssemblyContexts
+     *            the assembly context stack of the forking thread.
+     * @param assemblyContextId
+     *            the id of the current assembly context of the forking thread.
      * @param isAsync
-     *            true if processes shall be async, otherwise false.
-     * @return a list of configured forked behavior processes.
+     *            true if the process shall be async, otherwise false.
+     * @return the configured forked behaviour process.
      */
-    private List<ForkedBehaviourProcess> getProcesses(final List<ForkedBehaviour> forkedBehaviours,
+    private ForkedBehaviourProcess createForkedBehaviourProcess(final ForkedBehaviour forkedBehaviour,
+            final List<AssemblyContext> parentAssemblyContexts, final String assemblyContextId,
             final boolean isAsync) {
-        final List<ForkedBehaviourProcess> processes = new LinkedList<ForkedBehaviourProcess>();
-
-        // for each create process, and add to array of processes
-
-        for (final ForkedBehaviour forkedBehaviour : forkedBehaviours) {
-            @SuppressWarnings("unchecked")
-            final Stack<AssemblyContext> parentAssemblyContextStack = (Stack<AssemblyContext>) this.context
-            .getAssemblyContextStack().clone();
-            processes.add(new ForkedBehaviourProcess(this.context,
-                    this.context.getAssemblyContextStack().peek().getId(), isAsync) {
-
-                @Override
-                protected void executeBehaviour() {
-
-                    /*
-                     * The forked behavior process has its own copied stack in its context, for type
-                     * reasons we need an InterpreterDefaultContext. Thus we have to copy the
-                     * context including its stack.
-                     */
-                    final InterpreterDefaultContext seffContext = new InterpreterDefaultContext(this.myContext,
-                            RDSeffSwitch.this.context.getRuntimeState(), true,
-                            RDSeffSwitch.this.context.getLocalPCMModelAtContextCreation());
-                    seffContext.getAssemblyContextStack().addAll(parentAssemblyContextStack);
-                    final RDSeffSwitch seffInterpreter = new RDSeffSwitch(seffContext,
-                            RDSeffSwitch.this.basicComponentInstance);
-
-                    if (LOGGER.isDebugEnabled()) {
-                        LOGGER.debug("Created new RDSeff interpreter for " + ((this.isAsync()) ? "asynced" : "synced")
-                                + " forked baviour: " + this);
-                    }
-                    // no use of parentSwitch.doSwitch() because we want the inner switches
-                    seffInterpreter.doSwitch(forkedBehaviour);
+        return new ForkedBehaviourProcess(this.context, assemblyContextId, isAsync) {
+
+            @Override
+            protected void executeBehaviour() {
+                RDSeffSwitch.this.context.getRuntimeState().bindToCurrentThread();
+                final ForkStatistics forkStatistics = RDSeffSwitch.this.context.getRuntimeState()
+                        .getForkStatistics();
+                final long setupStart = forkStatistics.isEnabled() ? System.nanoTime() : 0;
+
+                /*
+                 * The forked behavior process has its own copied stack in its context, for type
+                 * reasons we need an InterpreterDefaultContext. The forking thread waits for synced
+                 * processes, so their stack frame is shared instead of copied.
+                 */
+                final InterpreterDefaultContext seffContext = new InterpreterDefaultContext(this.myContext,
+                        RDSeffSwitch.this.context.getRuntimeState(),
+                        RDSeffSwitch.this.context.getLocalPCMModelAtContextCreation(), parentAssemblyContexts,
+                        !isAsync);
+                final RDSeffSwitch seffInterpreter = new RDSeffSwitch(seffContext,
+                        RDSeffSwitch.this.basicComponentInstance);
+                if (forkStatistics.isEnabled()) {
+                    forkStatistics.contextPrepared(System.nanoTime() - setupStart);
                 }
 
-            });
-        }
-        return processes;
+                if (LOGGER.isDebugEnabled()) {
+                    LOGGER.debug("Created new RDSeff interpreter for " + ((this.isAsync()) ? "asynced" : "synced")
+                            + " forked baviour: " + this);
+                }
+                // no use of parentSwitch.doSwitch() because we want the inner switches
+                seffInterpreter.doSwitch(forkedBehaviour);
+            }
+
+        };
     }
 
     /**
@@ -609,21 +584,18 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
      * 				The internal action containing the resource demand
      */
     private void interpretResourceDemands(final InternalAction internalAction) {
-        final AllocationContext allocationContext = this.getAllocationContext(this.allocation);
-        final ResourceContainer resourceContainer = allocationContext.getResourceContainer_AllocationContext();
+        final AbstractSimulatedResourceContainer resourceContainer = this.getSimulatedResourceContainer();
+        final CompiledExpressionCache expressionCache = this.context.getRuntimeState().getExpressionCache();
+        final SimulatedStackframe<Object> currentStackFrame = this.context.getStack().currentStackFrame();
 
         for (final ParametricResourceDemand parametricResourceDemand : internalAction.getResourceDemand_Action()) {
 
-            final ResourceRegistry resourceRegistry = this.context.getModel().getResourceRegistry();
             final String idRequiredResourceType = parametricResourceDemand
                     .getRequiredResource_ParametricResourceDemand().getId();
-            final String specification = parametricResourceDemand.getSpecification_ParametericResourceDemand()
-                    .getSpecification();
-            final SimulatedStackframe<Object> currentStackFrame = this.context.getStack().currentStackFrame();
-            final Double value = StackContext.evaluateStatic(specification, Double.class, currentStackFrame);
+            final double value = expressionCache.evaluateDouble(
+                    parametricResourceDemand.getSpecification_ParametericResourceDemand(), currentStackFrame);
 
-            resourceRegistry.getResourceContainer(resourceContainer.getId())
-            .loadActiveResource(this.context.getThread(), idRequiredResourceType, value);
+            resourceContainer.loadActiveResource(this.context.getThread(), idRequiredResourceType, value);
 
         }
     }
@@ -633,47 +605,56 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
      * @param internalAction
      */
     private void interpretResourceCall(final InternalAction internalAction) {
-        final AllocationContext allocationContext = this.getAllocationContext(this.allocation);
-        final ResourceContainer resourceContainer = allocationContext.getResourceContainer_AllocationContext();
+        final AbstractSimulatedResourceContainer resourceContainer = this.getSimulatedResourceContainer();
+        final ResourceTypeIndex resourceTypeIndex = this.context.getRuntimeState().getResourceTypeIndex();
+        final CompiledExpressionCache expressionCache = this.context.getRuntimeState().getExpressionCache();
+        final SimulatedStackframe<Object> currentStackFrame = this.context.getStack().currentStackFrame();
 
         for (final ResourceCall resourceCall : internalAction.getResourceCall__Action()) {
 
             // find the corresponding resource type which was invoked by the resource call
-            final ResourceInterface resourceInterface = resourceCall.getSignature__ResourceCall()
-                    .getResourceInterface__ResourceSignature();
-            final ResourceRepository resourceRepository = resourceInterface.getResourceRepository__ResourceInterface();
-            ResourceType currentResourceType = null;
-
-            for (final ResourceType resourceType : resourceRepository.getAvailableResourceTypes_ResourceRepository()) {
-                for (final ResourceProvidedRole resourceProvidedRole : resourceType
-                        .getResourceProvidedRoles__ResourceInterfaceProvidingEntity()) {
-                    if (resourceProvidedRole.getProvidedResourceInterface__ResourceProvidedRole().getId()
-                            .equals(resourceInterface.getId())) {
-                        currentResourceType = resourceType;
-                        break;
-                    }
-                }
-            }
-
             final ResourceSignature resourceSignature = resourceCall.getSignature__ResourceCall();
+            final ResourceType currentResourceType = resourceTypeIndex
+                    .getResourceType(resourceSignature.getResourceInterface__ResourceSignature());
             final int resourceServiceId = resourceSignature.getResourceServiceId();
 
-            final SimulatedStackframe<Object> currentStackFrame = this.context.getStack().currentStackFrame();
-            final Double evaluatedDemand = NumberConverter.toDouble(
-                    StackContext.evaluateStatic(resourceCall.getNumberOfCalls__ResourceCall().getSpecification(),
-                            Double.class, currentStackFrame));
+            final double evaluatedDemand = expressionCache
+                    .evaluateDouble(resourceCall.getNumberOfCalls__ResourceCall(), currentStackFrame);
             final String idRequiredResourceType = currentResourceType.getId();
 
-            final ResourceRegistry resourceRegistry = this.context.getModel().getResourceRegistry();
-
-            resourceRegistry.getResourceContainer(resourceContainer.getId())
-            .loadActiveResource(this.context.getThread(), resourceServiceId, idRequiredResourceType,
+            resourceContainer.loadActiveResource(this.context.getThread(), resourceServiceId, idRequiredResourceType,
                     evaluatedDemand);
 
         }
     }
 
 
+    /**
+     * Gets the simulated resource container of the allocation context for the current assembly
+     * context stack.
+     *
+     * @return The simulated resource container.
+     * @throws PCMModelAccessException
+     *             if no allocation context could be found.
+     */
+    private AbstractSimulatedResourceContainer getSimulatedResourceContainer() {
+        final AllocationIndex allocationIndex = this.context.getRuntimeState().getAllocationIndex();
+        final long version = allocationIndex.getVersion();
+        if (this.basicComponentInstance != null) {
+            final AbstractSimulatedResourceContainer resolvedResourceContainer = this.basicComponentInstance
+                    .getResolvedResourceContainer(this.allocation, version);
+            if (resolvedResourceContainer != null) {
+                return resolvedResourceContainer;
+            }
+        }
+        final AbstractSimulatedResourceContainer resourceContainer = allocationIndex.getSimulatedResourceContainer(
+                this.getAllocationContext(this.allocation), this.context.getModel().getResourceRegistry());
+        if (this.basicComponentInstance != null) {
+            this.basicComponentInstance.setResolvedResourceContainer(this.allocation, version, resourceContainer);
+        }
+        return resourceContainer;
+    }
+
     /**
      * Gets the allocation context for the current assembly context stack. The stack is investigated
      * in a FIFO-manner, i.e., first upper elements are checked. This is needed for the case of sub
@@ -686,16 +667,10 @@ class RDSeffSwitch extends SeffSwitch<Object> implements IComposableSwitch {
      *             if no allocation context could be found.
      */
     private AllocationContext getAllocationContext(final Allocation allocation) {
-        // For iterating top-down through a stack see:
-        // http://stackoverflow.com/questions/16992758/is-there-a-bug-in-java-util-stacks-iterator
-        for (final AllocationContext allocationContext : allocation.getAllocationContexts_Allocation()) {
-            for (final ListIterator<AssemblyContext> iterator = this.context.getAssemblyContextStack()
-                    .listIterator(this.context.getAssemblyContextStack().size()); iterator.hasPrevious();) {
-                if (allocationContext.getAssemblyContext_AllocationContext().getId()
-                        .equals(iterator.previous().getId())) {
-                    return allocationContext;
-                }
-            }
+        final AllocationContext allocationContext = this.context.getRuntimeState().getAllocationIndex()
+                .getAllocationContext(allocation, this.context.getAssemblyContextStack());
+        if (allocationContext != null) {
+            return allocationContext;
         }
 
         throw new PCMModelAccessException("No AllocationContext in Allocation " + allocation + " for AssemblyContext "
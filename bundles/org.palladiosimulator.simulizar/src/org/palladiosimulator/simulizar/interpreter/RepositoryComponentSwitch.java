@@ -4,19 +4,14 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.Stack;
-import java.util.stream.Collectors;
 
 import org.apache.log4j.Logger;
-import org.eclipse.emf.common.util.EList;
 import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.util.ComposedSwitch;
-import org.palladiosimulator.commons.eclipseutils.ExtensionHelper;
 import org.palladiosimulator.pcm.core.composition.AssemblyContext;
 import org.palladiosimulator.pcm.core.composition.ComposedStructure;
 import org.palladiosimulator.pcm.core.composition.CompositionFactory;
 import org.palladiosimulator.pcm.core.composition.CompositionPackage;
-import org.palladiosimulator.pcm.core.composition.Connector;
 import org.palladiosimulator.pcm.core.composition.ProvidedDelegationConnector;
 import org.palladiosimulator.pcm.core.entity.ComposedProvidingRequiringEntity;
 import org.palladiosimulator.pcm.core.entity.EntityPackage;
@@ -32,6 +27,8 @@ import org.palladiosimulator.pcm.seff.ServiceEffectSpecification;
 import org.palladiosimulator.simulizar.exceptions.PCMModelInterpreterException;
 import org.palladiosimulator.simulizar.interpreter.listener.AssemblyProvidedOperationPassedEvent;
 import org.palladiosimulator.simulizar.interpreter.listener.EventType;
+import org.palladiosimulator.simulizar.launcher.SimulizarConstants;
+import org.palladiosimulator.simulizar.runtimestate.ComponentInstanceRegistry;
 import org.palladiosimulator.simulizar.runtimestate.FQComponentID;
 import org.palladiosimulator.simulizar.runtimestate.SimulatedBasicComponentInstance;
 import org.palladiosimulator.simulizar.runtimestate.SimulatedCompositeComponentInstance;
@@ -48,13 +45,13 @@ class RepositoryComponentSwitch extends RepositorySwitch<SimulatedStackframe<Obj
 
     private static final Logger LOGGER = Logger.getLogger(RepositoryComponentSwitch.class);
     public static final AssemblyContext SYSTEM_ASSEMBLY_CONTEXT = CompositionFactory.eINSTANCE.createAssemblyContext();
-    public static final String RDSEFFSWITCH_EXTENSION_POINT_ID = "org.palladiosimulator.simulizar.interpreter.rdseffswitch";
-    public static final String RDSEFFSWITCH_EXTENSION_ATTRIBUTE = "rdseffswitch";
+    public static final String RDSEFFSWITCH_EXTENSION_POINT_ID = SimulizarConstants.RDSEFFSWITCH_EXTENSION_POINT_ID;
+    public static final String RDSEFFSWITCH_EXTENSION_ATTRIBUTE = SimulizarConstants.RDSEFFSWITCH_EXTENSION_ATTRIBUTE;
 
-    private final Signature signature;
-    private final ProvidedRole providedRole;
+    private Signature signature;
+    private ProvidedRole providedRole;
     private final InterpreterDefaultContext context;
-    private final AssemblyContext instanceAssemblyContext;
+    private AssemblyContext instanceAssemblyContext;
 
     /**
      *
@@ -68,46 +65,111 @@ class RepositoryComponentSwitch extends RepositorySwitch<SimulatedStackframe<Obj
         this.providedRole = providedRole;
     }
 
+    /**
+     * Constructor for a switch which is reused for all calls of a simulated thread, see
+     * {@link #interpretCall(AssemblyContext, Signature, ProvidedRole)}.
+     *
+     * @param context
+     *            the context of the simulated thread.
+     */
+    RepositoryComponentSwitch(final InterpreterDefaultContext context) {
+        this(context, null, null, null);
+    }
+
+    /**
+     * Interprets the call of the given signature at the given provided role of the given assembly
+     * context. The call state of this switch is restored afterwards, so the switch can be reused
+     * for nested calls of the same simulated thread.
+     *
+     * @param assemblyContext
+     *            the called assembly context.
+     * @param signature
+     *            the called signature.
+     * @param providedRole
+     *            the called provided role.
+     * @return the stack frame containing the results of the call.
+     */
+    SimulatedStackframe<Object> interpretCall(final AssemblyContext assemblyContext, final Signature signature,
+            final ProvidedRole providedRole) {
+        final AssemblyContext callerAssemblyContext = this.instanceAssemblyContext;
+        final Signature callerSignature = this.signature;
+        final ProvidedRole callerProvidedRole = this.providedRole;
+        this.instanceAssemblyContext = assemblyContext;
+        this.signature = signature;
+        this.providedRole = providedRole;
+        try {
+            return this.doSwitch(providedRole);
+        } finally {
+            this.instanceAssemblyContext = callerAssemblyContext;
+            this.signature = callerSignature;
+            this.providedRole = callerProvidedRole;
+        }
+    }
+
     @Override
     public SimulatedStackframe<Object> caseBasicComponent(final BasicComponent basicComponent) {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Entering BasicComponent: " + basicComponent);
         }
 
-        // create new stack frame for component parameters
         final SimulatedStack<Object> stack = this.context.getStack();
-        final SimulatedStackframe<Object> componentParameterStackFrame = SimulatedStackHelper
-                .createAndPushNewStackFrame(stack,
-                        basicComponent.getComponentParameterUsage_ImplementationComponentType(),
-                        stack.currentStackFrame());
+        final SimulatedStackframe<Object> parameterFrame = this.context.getRuntimeState().getComponentParameterCache()
+                .getParameterFrame(basicComponent, this.instanceAssemblyContext);
+        final int pushedStackFrames;
+        if (parameterFrame != null) {
+            /*
+             * Parameters are static, copy them into a single new stack frame. A new frame is
+             * required nevertheless, as the RDSEFF interpreter adds the results of external calls
+             * to it.
+             */
+            final SimulatedStackframe<Object> stackFrame = new SimulatedStackframe<Object>(stack.currentStackFrame());
+            stackFrame.addVariables(parameterFrame);
+            stack.pushStackFrame(stackFrame);
+            pushedStackFrames = 1;
+        } else {
+            // create new stack frame for component parameters
+            final SimulatedStackframe<Object> componentParameterStackFrame = SimulatedStackHelper
+                    .createAndPushNewStackFrame(this.context,
+                            basicComponent.getComponentParameterUsage_ImplementationComponentType(),
+                            stack.currentStackFrame());
 
-        // create new stack frame for assembly context component parameters
-        SimulatedStackHelper.createAndPushNewStackFrame(stack,
-                this.instanceAssemblyContext.getConfigParameterUsages__AssemblyContext(), componentParameterStackFrame);
+            // create new stack frame for assembly context component parameters
+            SimulatedStackHelper.createAndPushNewStackFrame(this.context,
+                    this.instanceAssemblyContext.getConfigParameterUsages__AssemblyContext(),
+                    componentParameterStackFrame);
+            pushedStackFrames = 2;
+        }
 
-        final FQComponentID fqID = this.computeFQComponentID();
-        if (!this.context.getRuntimeState().getComponentInstanceRegistry().hasComponentInstance(fqID)) {
+        final ComponentInstanceRegistry componentInstanceRegistry = this.context.getRuntimeState()
+                .getComponentInstanceRegistry();
+        final SimulatedBasicComponentInstance basicComponentInstance;
+        if (!componentInstanceRegistry.hasComponentInstance(this.context.getAssemblyContextStack())) {
+            final FQComponentID fqID = this.computeFQComponentID();
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Found new basic component component instance, registering it: " + basicComponent);
                 LOGGER.debug("FQComponentID is " + fqID);
             }
-            this.context.getRuntimeState().getComponentInstanceRegistry()
-                    .addComponentInstance(new SimulatedBasicComponentInstance(this.context, fqID,
-                            basicComponent.getPassiveResource_BasicComponent()));
+            basicComponentInstance = new SimulatedBasicComponentInstance(this.context, fqID,
+                    basicComponent.getPassiveResource_BasicComponent());
+            componentInstanceRegistry.addComponentInstance(basicComponentInstance);
+        } else {
+            basicComponentInstance = (SimulatedBasicComponentInstance) componentInstanceRegistry
+                    .getComponentInstance(this.context.getAssemblyContextStack());
         }
 
         // get seffs for call
-        final List<ServiceEffectSpecification> calledSeffs = this
-                .getSeffsForCall(basicComponent.getServiceEffectSpecifications__BasicComponent(), this.signature);
+        final List<ServiceEffectSpecification> calledSeffs = this.context.getRuntimeState()
+                .getServiceEffectSpecificationIndex().getSeffsForCall(basicComponent, this.signature);
 
-        final SimulatedStackframe<Object> result = this.interpretSeffs(calledSeffs);
+        final SimulatedStackframe<Object> result = this.interpretSeffs(calledSeffs, basicComponentInstance);
 
         /*
          * Remove created stack frame (including stack frame created for the results of an external
          * call in RDSEFF, done in RDSEFF Interpreter).
          */
-        stack.removeStackFrame();
-        stack.removeStackFrame();
+        for (int i = 0; i < pushedStackFrames; i++) {
+            stack.removeStackFrame();
+        }
 
         return result;
     }
@@ -118,26 +180,24 @@ class RepositoryComponentSwitch extends RepositorySwitch<SimulatedStackframe<Obj
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Entering ComposedProvidingRequiringEntity: " + entity);
         }
-        final FQComponentID fqID = this.computeFQComponentID();
-        if (!this.context.getRuntimeState().getComponentInstanceRegistry().hasComponentInstance(fqID)) {
+        if (!this.context.getRuntimeState().getComponentInstanceRegistry()
+                .hasComponentInstance(this.context.getAssemblyContextStack())) {
+            final FQComponentID fqID = this.computeFQComponentID();
             if (LOGGER.isDebugEnabled()) {
                 LOGGER.debug("Found new composed component instance, registering it: " + entity);
                 LOGGER.debug("FQComponentID is " + fqID);
             }
             this.context.getRuntimeState().getComponentInstanceRegistry().addComponentInstance(
-                    new SimulatedCompositeComponentInstance(this.context.getRuntimeState(), fqID.getFQIDString()));
+                    new SimulatedCompositeComponentInstance(this.context.getRuntimeState(), fqID));
         }
 
         if (entity != this.providedRole.getProvidingEntity_ProvidedRole()) {
             throw new PCMModelInterpreterException("Interpret entity of provided role only");
         }
-        final ProvidedDelegationConnector connectedProvidedDelegationConnector = getConnectedProvidedDelegationConnector(
-                this.providedRole);
-        final RepositoryComponentSwitch repositoryComponentSwitch = new RepositoryComponentSwitch(this.context,
-                connectedProvidedDelegationConnector.getAssemblyContext_ProvidedDelegationConnector(), this.signature,
-                connectedProvidedDelegationConnector.getInnerProvidedRole_ProvidedDelegationConnector());
-        return repositoryComponentSwitch
-                .doSwitch(connectedProvidedDelegationConnector.getInnerProvidedRole_ProvidedDelegationConnector());
+        final ProvidedDelegationConnector connectedProvidedDelegationConnector = this
+                .getConnectedProvidedDelegationConnector(this.providedRole);
+        return this.interpretCall(connectedProvidedDelegationConnector.getAssemblyContext_ProvidedDelegationConnector(),
+                this.signature, connectedProvidedDelegationConnector.getInnerProvidedRole_ProvidedDelegationConnector());
     }
 
     /**
@@ -147,19 +207,23 @@ class RepositoryComponentSwitch extends RepositorySwitch<SimulatedStackframe<Obj
     public SimulatedStackframe<Object> caseProvidedRole(final ProvidedRole providedRole) {
         this.context.getAssemblyContextStack().push(this.instanceAssemblyContext == SYSTEM_ASSEMBLY_CONTEXT
                 ? this.generateSystemAssemblyContext(providedRole) : this.instanceAssemblyContext);
-        
-        this.context.getRuntimeState().getEventNotificationHelper().firePassedEvent(
-        	new AssemblyProvidedOperationPassedEvent<ProvidedRole, Signature>(providedRole, 
-        			EventType.BEGIN, this.context.getThread(), this.signature, this.instanceAssemblyContext));
+
+        final EventNotificationHelper eventHelper = this.context.getRuntimeState().getEventNotificationHelper();
+        final boolean eventRequired = eventHelper.isEventRequired(providedRole);
+        if (eventRequired) {
+            eventHelper.firePassedEvent(new AssemblyProvidedOperationPassedEvent<ProvidedRole, Signature>(providedRole,
+                    EventType.BEGIN, this.context.getThread(), this.signature, this.instanceAssemblyContext));
+        }
 
         final SimulatedStackframe<Object> result = this.doSwitch(providedRole.getProvidingEntity_ProvidedRole());
 
         this.context.getAssemblyContextStack().pop();
-        
-        this.context.getRuntimeState().getEventNotificationHelper().firePassedEvent(
-            	new AssemblyProvidedOperationPassedEvent<ProvidedRole, Signature>(providedRole, 
-            			EventType.END, this.context.getThread(), this.signature, this.instanceAssemblyContext));
-        
+
+        if (eventRequired) {
+            eventHelper.firePassedEvent(new AssemblyProvidedOperationPassedEvent<ProvidedRole, Signature>(providedRole,
+                    EventType.END, this.context.getThread(), this.signature, this.instanceAssemblyContext));
+        }
+
         return result;
     }
 
@@ -170,35 +234,16 @@ class RepositoryComponentSwitch extends RepositorySwitch<SimulatedStackframe<Obj
         return result;
     }
 
-    /**
-     * Return the seffs (of different types) from a list of seffs which are affected by the call.
-     * Different types are currently not supported by the meta model.
-     *
-     * @param serviceEffectSpecifications
-     *            a list of service effect specifications.
-     * @param operationSignature
-     *            the operation signature.
-     * @return a list of seffs corresponding to the operation signature.
-     */
-    private List<ServiceEffectSpecification> getSeffsForCall(
-            EList<ServiceEffectSpecification> serviceEffectSpecifications, Signature operationSignature) {
-
-        assert serviceEffectSpecifications != null && operationSignature != null;
-
-        // use equality of ids as filter criterion, do not rely on signature equality
-        return serviceEffectSpecifications.stream()
-                .filter(seff -> seff.getDescribedService__SEFF().getId().equals(operationSignature.getId()))
-                .collect(Collectors.toList());
-    }
-
     /**
      * Interpret the given Seffs.
      *
      * @param calledSeffs
      *            a list of seffs.
+     * @param basicComponentInstance
+     *            the called component instance.
      */
-    @SuppressWarnings("unchecked")
-    private SimulatedStackframe<Object> interpretSeffs(final List<ServiceEffectSpecification> calledSeffs) {
+    private SimulatedStackframe<Object> interpretSeffs(final List<ServiceEffectSpecification> calledSeffs,
+            final SimulatedBasicComponentInstance basicComponentInstance) {
         /*
          * we assume exactly one seff per call, the meta model also allows no seffs, but we omit
          * that in this interpreter
@@ -209,19 +254,9 @@ class RepositoryComponentSwitch extends RepositorySwitch<SimulatedStackframe<Obj
         if (!(calledSeffs.get(0) instanceof ResourceDemandingSEFF)) {
             throw new PCMModelInterpreterException("Only ResourceDemandingSEFFs are currently supported.");
         } else {
-            final FQComponentID componentID = this.computeFQComponentID();
-            final SimulatedBasicComponentInstance basicComponentInstance = (SimulatedBasicComponentInstance) this.context
-                    .getRuntimeState().getComponentInstanceRegistry().getComponentInstance(componentID);
-            
-            final List<AbstractRDSeffSwitchFactory> switchFactories = ExtensionHelper
-            		.getExecutableExtensions(RDSEFFSWITCH_EXTENSION_POINT_ID, RDSEFFSWITCH_EXTENSION_ATTRIBUTE);
-            final  ExplicitDispatchComposedSwitch<Object> interpreter = new ExplicitDispatchComposedSwitch<Object>();
-            switchFactories.stream().forEach(s -> interpreter.addSwitch(
-            		s.createRDSeffSwitch(this.context, basicComponentInstance, interpreter)));
-            // add default RDSeffSwitch
-            interpreter.addSwitch(new RDSeffSwitch(this.context, basicComponentInstance, interpreter));
             // interpret called seff
-            return (SimulatedStackframe<Object>) interpreter.doSwitch(calledSeffs.get(0));
+            return this.context.getRDSeffInterpreter(basicComponentInstance)
+                    .interpret((ResourceDemandingSEFF) calledSeffs.get(0));
         }
     }
 
@@ -254,20 +289,15 @@ class RepositoryComponentSwitch extends RepositorySwitch<SimulatedStackframe<Obj
      *            the provided role.
      * @return the determined provided delegation connector, null otherwise.
      */
-    private static ProvidedDelegationConnector getConnectedProvidedDelegationConnector(
-            final ProvidedRole providedRole) {
+    private ProvidedDelegationConnector getConnectedProvidedDelegationConnector(final ProvidedRole providedRole) {
         final InterfaceProvidingEntity implementingEntity = providedRole.getProvidingEntity_ProvidedRole();
         if (!CompositionPackage.eINSTANCE.getComposedStructure().isSuperTypeOf(implementingEntity.eClass())) {
             throw new PCMModelInterpreterException("Structure used for connector search must be a composed structure");
         }
-        for (final Connector connector : ((ComposedStructure) implementingEntity).getConnectors__ComposedStructure()) {
-            if (connector.eClass() == CompositionPackage.eINSTANCE.getProvidedDelegationConnector()) {
-
-                if (((ProvidedDelegationConnector) connector).getOuterProvidedRole_ProvidedDelegationConnector()
-                        .equals(providedRole)) {
-                    return (ProvidedDelegationConnector) connector;
-                }
-            }
+        final ProvidedDelegationConnector connector = this.context.getRuntimeState().getConnectorIndex()
+                .getConnectedProvidedDelegationConnector((ComposedStructure) implementingEntity, providedRole);
+        if (connector != null) {
+            return connector;
         }
         throw new PCMModelInterpreterException("Found unbound provided role. PCM model is invalid.");
     }
@@ -0,0 +1,93 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.palladiosimulator.pcm.seff.AbstractAction;
+import org.palladiosimulator.pcm.seff.ResourceDemandingBehaviour;
+import org.palladiosimulator.pcm.seff.SeffPackage;
+import org.palladiosimulator.simulizar.exceptions.PCMModelInterpreterException;
+
+/**
+ * Flat execution plan of a {@link ResourceDemandingBehaviour}. The plan contains the start action
+ * and all actions between start and stop action in the order of their execution. Thus, the
+ * interpreter neither has to search for the start action nor has to follow the successor
+ * references of the behaviour each time it is executed.
+ *
+ * Plans are compiled once per behaviour of a local model copy, see
+ * {@link ResourceDemandingBehaviourPlanCache}.
+ */
+public final class ResourceDemandingBehaviourPlan {
+
+    private final ResourceDemandingBehaviour behaviour;
+    private final AbstractAction startAction;
+    private final List<AbstractAction> steps;
+
+    private ResourceDemandingBehaviourPlan(final ResourceDemandingBehaviour behaviour,
+            final AbstractAction startAction, final List<AbstractAction> steps) {
+        super();
+        this.behaviour = behaviour;
+        this.startAction = startAction;
+        this.steps = Collections.unmodifiableList(steps);
+    }
+
+    /**
+     * Compiles the execution plan of the given behaviour.
+     *
+     * @param behaviour
+     *            the behaviour to compile.
+     * @return the execution plan.
+     * @throws PCMModelInterpreterException
+     *             if the behaviour misses a start action or its action chain does not end with a
+     *             stop action.
+     */
+    public static ResourceDemandingBehaviourPlan compile(final ResourceDemandingBehaviour behaviour) {
+        AbstractAction startAction = null;
+        for (final AbstractAction abstractAction : behaviour.getSteps_Behaviour()) {
+            if (abstractAction.eClass() == SeffPackage.eINSTANCE.getStartAction()) {
+                startAction = abstractAction;
+                break;
+            }
+        }
+        if (startAction == null) {
+            throw new PCMModelInterpreterException("RDSEFF is invalid, it misses a start action");
+        }
+
+        final int numberOfActions = behaviour.getSteps_Behaviour().size();
+        final List<AbstractAction> steps = new ArrayList<AbstractAction>(numberOfActions);
+        AbstractAction currentAction = startAction.getSuccessor_AbstractAction();
+        while (currentAction == null || currentAction.eClass() != SeffPackage.eINSTANCE.getStopAction()) {
+            if (currentAction == null || steps.size() >= numberOfActions) {
+                throw new PCMModelInterpreterException(
+                        "RDSEFF is invalid, its action chain does not end in a stop action: " + behaviour);
+            }
+            steps.add(currentAction);
+            currentAction = currentAction.getSuccessor_AbstractAction();
+        }
+
+        return new ResourceDemandingBehaviourPlan(behaviour, startAction, steps);
+    }
+
+    /**
+     * @return the behaviour this plan has been compiled for.
+     */
+    public ResourceDemandingBehaviour getBehaviour() {
+        return this.behaviour;
+    }
+
+    /**
+     * @return the start action of the behaviour.
+     */
+    public AbstractAction getStartAction() {
+        return this.startAction;
+    }
+
+    /**
+     * @return an unmodifiable list of the actions between start and stop action in execution
+     *         order.
+     */
+    public List<AbstractAction> getSteps() {
+        return this.steps;
+    }
+}
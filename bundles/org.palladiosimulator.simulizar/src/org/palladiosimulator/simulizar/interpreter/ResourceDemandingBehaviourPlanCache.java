@@ -0,0 +1,45 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.seff.ResourceDemandingBehaviour;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+
+/**
+ * Cache of compiled {@link ResourceDemandingBehaviourPlan}s. Plans are keyed by the identity of the
+ * behaviour they have been compiled for. As soon as the model access takes a new local model copy,
+ * all plans are dropped.
+ */
+public class ResourceDemandingBehaviourPlanCache implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ResourceDemandingBehaviourPlanCache.class);
+
+    private final Map<ResourceDemandingBehaviour, ResourceDemandingBehaviourPlan> plans = new IdentityHashMap<ResourceDemandingBehaviour, ResourceDemandingBehaviourPlan>();
+
+    /**
+     * Returns the execution plan of the given behaviour. The plan is compiled on first access.
+     *
+     * @param behaviour
+     *            the behaviour to get the plan for.
+     * @return the execution plan.
+     */
+    public ResourceDemandingBehaviourPlan getPlan(final ResourceDemandingBehaviour behaviour) {
+        ResourceDemandingBehaviourPlan plan = this.plans.get(behaviour);
+        if (plan == null) {
+            plan = ResourceDemandingBehaviourPlan.compile(behaviour);
+            this.plans.put(behaviour, plan);
+        }
+        return plan;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.plans.size() + " compiled behaviour plans");
+        }
+        this.plans.clear();
+    }
+}
@@ -0,0 +1,70 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.core.entity.ResourceProvidedRole;
+import org.palladiosimulator.pcm.resourcetype.ResourceInterface;
+import org.palladiosimulator.pcm.resourcetype.ResourceType;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+import org.palladiosimulator.simulizar.exceptions.PCMModelInterpreterException;
+
+/**
+ * Index of the resource types which provide a resource interface. The resource type of a resource
+ * interface is determined once per local model copy by searching the resource repository of the
+ * interface. All entries are dropped as soon as the model access takes a new local model copy.
+ */
+public class ResourceTypeIndex implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ResourceTypeIndex.class);
+
+    private final Map<ResourceInterface, ResourceType> resourceTypes = new IdentityHashMap<ResourceInterface, ResourceType>();
+
+    /**
+     * Gets the resource type providing the given resource interface.
+     *
+     * @param resourceInterface
+     *            the resource interface.
+     * @return the providing resource type.
+     * @throws PCMModelInterpreterException
+     *             if no resource type of the repository provides the interface.
+     */
+    public ResourceType getResourceType(final ResourceInterface resourceInterface) {
+        ResourceType resourceType = this.resourceTypes.get(resourceInterface);
+        if (resourceType == null) {
+            resourceType = findResourceType(resourceInterface);
+            this.resourceTypes.put(resourceInterface, resourceType);
+        }
+        return resourceType;
+    }
+
+    private static ResourceType findResourceType(final ResourceInterface resourceInterface) {
+        ResourceType currentResourceType = null;
+        for (final ResourceType resourceType : resourceInterface.getResourceRepository__ResourceInterface()
+                .getAvailableResourceTypes_ResourceRepository()) {
+            for (final ResourceProvidedRole resourceProvidedRole : resourceType
+                    .getResourceProvidedRoles__ResourceInterfaceProvidingEntity()) {
+                if (resourceProvidedRole.getProvidedResourceInterface__ResourceProvidedRole().getId()
+                        .equals(resourceInterface.getId())) {
+                    currentResourceType = resourceType;
+                    break;
+                }
+            }
+        }
+        if (currentResourceType == null) {
+            throw new PCMModelInterpreterException(
+                    "No resource type provides the resource interface " + resourceInterface.getEntityName());
+        }
+        return currentResourceType;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.resourceTypes.size() + " resolved resource types");
+        }
+        this.resourceTypes.clear();
+    }
+}
@@ -0,0 +1,74 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.repository.BasicComponent;
+import org.palladiosimulator.pcm.repository.Signature;
+import org.palladiosimulator.pcm.seff.ServiceEffectSpecification;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+
+/**
+ * Index of the service effect specifications of basic components by the ids of the signatures
+ * they describe. The index of a basic component is built on first access by a single pass over its
+ * SEFFs. All entries are dropped as soon as the model access takes a new local model copy, i.e.,
+ * after the repository or the system has been changed.
+ */
+public class ServiceEffectSpecificationIndex implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(ServiceEffectSpecificationIndex.class);
+
+    private final Map<BasicComponent, Map<String, List<ServiceEffectSpecification>>> indices = new IdentityHashMap<BasicComponent, Map<String, List<ServiceEffectSpecification>>>();
+
+    /**
+     * Returns the SEFFs of the given basic component which describe the given signature. Equality
+     * of ids is used as criterion, not signature equality.
+     *
+     * @param basicComponent
+     *            the basic component.
+     * @param signature
+     *            the called signature.
+     * @return an unmodifiable list of the SEFFs describing the signature.
+     */
+    public List<ServiceEffectSpecification> getSeffsForCall(final BasicComponent basicComponent,
+            final Signature signature) {
+        Map<String, List<ServiceEffectSpecification>> index = this.indices.get(basicComponent);
+        if (index == null) {
+            index = buildIndex(basicComponent);
+            this.indices.put(basicComponent, index);
+        }
+        final List<ServiceEffectSpecification> seffs = index.get(signature.getId());
+        return seffs == null ? Collections.<ServiceEffectSpecification> emptyList() : seffs;
+    }
+
+    private static Map<String, List<ServiceEffectSpecification>> buildIndex(final BasicComponent basicComponent) {
+        final Map<String, List<ServiceEffectSpecification>> index = new HashMap<String, List<ServiceEffectSpecification>>();
+        for (final ServiceEffectSpecification seff : basicComponent.getServiceEffectSpecifications__BasicComponent()) {
+            final String signatureId = seff.getDescribedService__SEFF().getId();
+            List<ServiceEffectSpecification> seffs = index.get(signatureId);
+            if (seffs == null) {
+                seffs = new ArrayList<ServiceEffectSpecification>(1);
+                index.put(signatureId, seffs);
+            }
+            seffs.add(seff);
+        }
+        for (final Map.Entry<String, List<ServiceEffectSpecification>> entry : index.entrySet()) {
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return index;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping SEFF indices of " + this.indices.size() + " components");
+        }
+        this.indices.clear();
+    }
+}
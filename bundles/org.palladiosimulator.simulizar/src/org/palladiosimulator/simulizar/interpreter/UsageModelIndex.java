@@ -0,0 +1,88 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.usagemodel.AbstractUserAction;
+import org.palladiosimulator.pcm.usagemodel.ScenarioBehaviour;
+import org.palladiosimulator.pcm.usagemodel.Start;
+import org.palladiosimulator.pcm.usagemodel.UsageModel;
+import org.palladiosimulator.pcm.usagemodel.UsageScenario;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+
+/**
+ * Index of the usage scenarios of usage models by their ids and of the start actions of scenario
+ * behaviours. The index of a usage model or scenario behaviour is built on first access. All
+ * entries are dropped as soon as the model access takes a new local model copy, i.e., after the
+ * usage model has been changed.
+ */
+public class UsageModelIndex implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(UsageModelIndex.class);
+
+    private final Map<UsageModel, Map<String, UsageScenario>> usageScenarios = new IdentityHashMap<UsageModel, Map<String, UsageScenario>>();
+    private final Map<ScenarioBehaviour, Start> startActions = new IdentityHashMap<ScenarioBehaviour, Start>();
+
+    /**
+     * Gets the usage scenario with the given id from the given usage model.
+     *
+     * @param usageModel
+     *            the usage model.
+     * @param id
+     *            the id of the usage scenario.
+     * @return the usage scenario, or {@code null} if the usage model does not contain a scenario
+     *         with the given id.
+     */
+    public UsageScenario getUsageScenario(final UsageModel usageModel, final String id) {
+        Map<String, UsageScenario> index = this.usageScenarios.get(usageModel);
+        if (index == null) {
+            index = new HashMap<String, UsageScenario>();
+            for (final UsageScenario usageScenario : usageModel.getUsageScenario_UsageModel()) {
+                index.put(usageScenario.getId(), usageScenario);
+            }
+            this.usageScenarios.put(usageModel, index);
+        }
+        return index.get(id);
+    }
+
+    /**
+     * Gets the start action of the given scenario behaviour. Scenario behaviours which are not
+     * contained in a resource, e.g., behaviours built on the fly, are not indexed.
+     *
+     * @param scenarioBehaviour
+     *            the scenario behaviour.
+     * @return the start action, or {@code null} if the behaviour has no start action.
+     */
+    public Start getStartAction(final ScenarioBehaviour scenarioBehaviour) {
+        Start startAction = this.startActions.get(scenarioBehaviour);
+        if (startAction == null) {
+            startAction = findStartAction(scenarioBehaviour);
+            if (startAction != null && scenarioBehaviour.eResource() != null) {
+                this.startActions.put(scenarioBehaviour, startAction);
+            }
+        }
+        return startAction;
+    }
+
+    private static Start findStartAction(final ScenarioBehaviour scenarioBehaviour) {
+        for (final AbstractUserAction abstractUserAction : scenarioBehaviour.getActions_ScenarioBehaviour()) {
+            if (abstractUserAction instanceof Start) {
+                return (Start) abstractUserAction;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.usageScenarios.size() + " usage model and "
+                    + this.startActions.size() + " scenario behaviour indices");
+        }
+        this.usageScenarios.clear();
+        this.startActions.clear();
+    }
+}
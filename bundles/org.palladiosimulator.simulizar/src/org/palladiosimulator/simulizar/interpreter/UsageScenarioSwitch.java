@@ -9,7 +9,6 @@ import org.palladiosimulator.pcm.usagemodel.Delay;
 import org.palladiosimulator.pcm.usagemodel.EntryLevelSystemCall;
 import org.palladiosimulator.pcm.usagemodel.Loop;
 import org.palladiosimulator.pcm.usagemodel.ScenarioBehaviour;
-import org.palladiosimulator.pcm.usagemodel.Start;
 import org.palladiosimulator.pcm.usagemodel.UsageScenario;
 import org.palladiosimulator.pcm.usagemodel.util.UsagemodelSwitch;
 import org.palladiosimulator.simulizar.exceptions.PCMModelInterpreterException;
@@ -18,8 +17,6 @@ import org.palladiosimulator.simulizar.interpreter.listener.ModelElementPassedEv
 import org.palladiosimulator.simulizar.utils.SimulatedStackHelper;
 import org.palladiosimulator.simulizar.utils.TransitionDeterminer;
 
-import de.uka.ipd.sdq.simucomframework.variables.StackContext;
-
 /**
  * Switch for Usage Scenario in Usage Model
  *
@@ -53,8 +50,7 @@ public class UsageScenarioSwitch<T> extends UsagemodelSwitch<T> {
     @Override
     public T caseBranch(final Branch object) {
         // determine branch transition
-        final BranchTransition branchTransition = this.transitionDeterminer
-                .determineBranchTransition(object.getBranchTransitions_Branch());
+        final BranchTransition branchTransition = this.transitionDeterminer.determineBranchTransition(object);
 
         // interpret scenario behaviour of branch transition
         this.doSwitch(branchTransition.getBranchedBehaviour_BranchTransition());
@@ -68,8 +64,8 @@ public class UsageScenarioSwitch<T> extends UsagemodelSwitch<T> {
     @Override
     public T caseDelay(final Delay object) {
         // determine delay
-        final double delay = StackContext.evaluateStatic(object.getTimeSpecification_Delay().getSpecification(),
-                Double.class);
+        final double delay = this.context.getRuntimeState().getExpressionCache()
+                .evaluateDouble(object.getTimeSpecification_Delay(), null);
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Start delay " + delay + " @ simulation time "
                     + this.context.getModel().getSimulationControl().getCurrentSimulationTime());
@@ -88,38 +84,40 @@ public class UsageScenarioSwitch<T> extends UsagemodelSwitch<T> {
      */
     @Override
     public T caseEntryLevelSystemCall(final EntryLevelSystemCall entryLevelSystemCall) {
-        final RepositoryComponentSwitch providedDelegationSwitch = new RepositoryComponentSwitch(this.context,
-                RepositoryComponentSwitch.SYSTEM_ASSEMBLY_CONTEXT,
-                entryLevelSystemCall.getOperationSignature__EntryLevelSystemCall(),
-                entryLevelSystemCall.getProvidedRole_EntryLevelSystemCall());
-
-        this.context.getRuntimeState().getEventNotificationHelper()
-                .firePassedEvent(new ModelElementPassedEvent<EntryLevelSystemCall>(entryLevelSystemCall,
-                        EventType.BEGIN, this.context.getThread()));
+        final EventNotificationHelper eventHelper = this.context.getRuntimeState().getEventNotificationHelper();
+        final OperationSignature signature = entryLevelSystemCall.getOperationSignature__EntryLevelSystemCall();
+        final boolean callEventRequired = eventHelper.isEventRequired(entryLevelSystemCall);
+        final boolean signatureEventRequired = eventHelper.isEventRequired(signature);
+        if (callEventRequired) {
+            eventHelper.firePassedEvent(new ModelElementPassedEvent<EntryLevelSystemCall>(entryLevelSystemCall,
+                    EventType.BEGIN, this.context.getThread()));
+        }
 
         // FIXME We stick to single model elements here even though several would be needed to
         // uniquely identify the measuring point of interest (system + role + signature) [Lehrig]
-        this.context.getRuntimeState().getEventNotificationHelper()
-                .firePassedEvent(new ModelElementPassedEvent<OperationSignature>(
-                        entryLevelSystemCall.getOperationSignature__EntryLevelSystemCall(), EventType.BEGIN,
-                        this.context.getThread()));
+        if (signatureEventRequired) {
+            eventHelper.firePassedEvent(
+                    new ModelElementPassedEvent<OperationSignature>(signature, EventType.BEGIN, this.context.getThread()));
+        }
 
         // create new stack frame for input parameter
-        SimulatedStackHelper.createAndPushNewStackFrame(this.context.getStack(),
+        SimulatedStackHelper.createAndPushNewStackFrame(this.context,
                 entryLevelSystemCall.getInputParameterUsages_EntryLevelSystemCall());
-        providedDelegationSwitch.doSwitch(entryLevelSystemCall.getProvidedRole_EntryLevelSystemCall());
+        this.context.getRepositoryComponentSwitch().interpretCall(RepositoryComponentSwitch.SYSTEM_ASSEMBLY_CONTEXT, signature,
+                entryLevelSystemCall.getProvidedRole_EntryLevelSystemCall());
         this.context.getStack().removeStackFrame();
 
-        this.context.getRuntimeState().getEventNotificationHelper()
-                .firePassedEvent(new ModelElementPassedEvent<EntryLevelSystemCall>(entryLevelSystemCall, EventType.END,
-                        this.context.getThread()));
+        if (callEventRequired) {
+            eventHelper.firePassedEvent(new ModelElementPassedEvent<EntryLevelSystemCall>(entryLevelSystemCall,
+                    EventType.END, this.context.getThread()));
+        }
 
         // FIXME We stick to single model elements here even though several would be needed to
         // uniquely identify the measuring point of interest (system + role + signature) [Lehrig]
-        this.context.getRuntimeState().getEventNotificationHelper()
-                .firePassedEvent(new ModelElementPassedEvent<OperationSignature>(
-                        entryLevelSystemCall.getOperationSignature__EntryLevelSystemCall(), EventType.END,
-                        this.context.getThread()));
+        if (signatureEventRequired) {
+            eventHelper.firePassedEvent(
+                    new ModelElementPassedEvent<OperationSignature>(signature, EventType.END, this.context.getThread()));
+        }
 
         return super.caseEntryLevelSystemCall(entryLevelSystemCall);
     }
@@ -130,8 +128,8 @@ public class UsageScenarioSwitch<T> extends UsagemodelSwitch<T> {
     @Override
     public T caseLoop(final Loop object) {
         // determine number of loops
-        final int numberOfLoops = StackContext.evaluateStatic(object.getLoopIteration_Loop().getSpecification(),
-                Integer.class);
+        final int numberOfLoops = this.context.getRuntimeState().getExpressionCache()
+                .evaluateInt(object.getLoopIteration_Loop(), null);
         for (int i = 0; i < numberOfLoops; i++) {
             LOGGER.debug("Interpret loop number " + i);
             this.doSwitch(object.getBodyBehaviour_Loop());
@@ -142,58 +140,29 @@ public class UsageScenarioSwitch<T> extends UsagemodelSwitch<T> {
     }
 
     /**
+     * Interprets the action chain of the scenario behaviour, beginning with its start action. The
+     * chain is followed iteratively, so the depth of the Java stack does not grow with the length
+     * of the chain.
+     *
      * @see org.palladiosimulator.pcm.usagemodel.util.UsagemodelSwitch#caseScenarioBehaviour(org.palladiosimulator.pcm.usagemodel.ScenarioBehaviour)
      */
     @Override
     public T caseScenarioBehaviour(final ScenarioBehaviour object) {
-        // interpret start user action
-        for (final AbstractUserAction abstractUserAction : object.getActions_ScenarioBehaviour()) {
-            if (abstractUserAction instanceof Start) {
-                this.doSwitch(abstractUserAction);
-                break;
-            }
-        }
-
-        return super.caseScenarioBehaviour(object);
-    }
-
-    // /**
-    // * @see
-    // org.palladiosimulator.pcm.usagemodel.util.UsagemodelSwitch#caseStart(org.palladiosimulator.pcm.usagemodel.Start)
-    // */
-    // @Override
-    // public T caseStart(final Start object)
-    // {
-    // InterpreterLogger.debug(LOGGER, "Interpret Start: " + object);
-    //
-    // AbstractUserAction currentAction = object;
-    //
-    // InterpreterLogger.debug(LOGGER, "Follow action chain");
-    // // follow action chain, beginning with start action
-    // while ((currentAction = currentAction.getSuccessor()) != null)
-    // {
-    // this.doSwitch(currentAction);
-    // }
-    //
-    // InterpreterLogger.debug(LOGGER, "Finished start: " + object);
-    // return super.caseStart(object);
-    // }
-
-    /**
-     * @see org.palladiosimulator.pcm.usagemodel.util.UsagemodelSwitch#caseAbstractUserAction(org.palladiosimulator.pcm.usagemodel.AbstractUserAction)
-     */
-    @Override
-    public T caseAbstractUserAction(final AbstractUserAction object) {
-        if (object.getSuccessor() != null) {
+        // follow action chain, beginning with start action
+        AbstractUserAction currentAction = this.context.getRuntimeState().getUsageModelIndex()
+                .getStartAction(object);
+        while (currentAction != null) {
             if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Interpret " + object.getSuccessor().eClass().getName() + ": " + object);
+                LOGGER.debug("Interpret " + currentAction.eClass().getName() + ": " + currentAction);
             }
-            this.doSwitch(object.getSuccessor());
+            this.doSwitch(currentAction);
             if (LOGGER.isDebugEnabled()) {
-                LOGGER.debug("Finished Interpretation of " + object.getSuccessor().eClass().getName() + ": " + object);
+                LOGGER.debug("Finished Interpretation of " + currentAction.eClass().getName() + ": " + currentAction);
             }
+            currentAction = currentAction.getSuccessor();
         }
-        return super.caseAbstractUserAction(object);
+
+        return super.caseScenarioBehaviour(object);
     }
 
     /**
@@ -201,15 +170,21 @@ public class UsageScenarioSwitch<T> extends UsagemodelSwitch<T> {
      */
     @Override
     public T caseUsageScenario(final UsageScenario usageScenario) {
-        this.context.getRuntimeState().getEventNotificationHelper().firePassedEvent(
-                new ModelElementPassedEvent<UsageScenario>(usageScenario, EventType.BEGIN, this.context.getThread()));
+        final EventNotificationHelper eventHelper = this.context.getRuntimeState().getEventNotificationHelper();
+        final boolean eventRequired = eventHelper.isEventRequired(usageScenario);
+        if (eventRequired) {
+            eventHelper.firePassedEvent(new ModelElementPassedEvent<UsageScenario>(usageScenario, EventType.BEGIN,
+                    this.context.getThread()));
+        }
         final int stacksize = this.context.getStack().size();
         this.doSwitch(usageScenario.getScenarioBehaviour_UsageScenario());
         if (this.context.getStack().size() != stacksize) {
             throw new PCMModelInterpreterException("Interpreter did not pop all pushed stackframes");
         }
-        this.context.getRuntimeState().getEventNotificationHelper().firePassedEvent(
-                new ModelElementPassedEvent<UsageScenario>(usageScenario, EventType.END, this.context.getThread()));
+        if (eventRequired) {
+            eventHelper.firePassedEvent(new ModelElementPassedEvent<UsageScenario>(usageScenario, EventType.END,
+                    this.context.getThread()));
+        }
         return super.caseUsageScenario(usageScenario);
     }
 }
@@ -0,0 +1,49 @@
+package org.palladiosimulator.simulizar.interpreter;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.analyzer.workflow.blackboard.PCMResourceSetPartition;
+import org.palladiosimulator.pcm.parameter.VariableUsage;
+import org.palladiosimulator.simulizar.access.ILocalModelChangeListener;
+import org.palladiosimulator.simulizar.utils.VariableBinding;
+
+/**
+ * Cache of the {@link VariableBinding}s of lists of variable usages, e.g., the input variable
+ * usages of a call action or the configuration parameters of an assembly context. Entries are keyed
+ * by the identity of the list, which is owned by a single model element. The bindings of a list
+ * are resolved when it is bound for the first time; all entries are dropped as soon as the model
+ * access takes a new local model copy.
+ */
+public class VariableBindingCache implements ILocalModelChangeListener {
+
+    private static final Logger LOGGER = Logger.getLogger(VariableBindingCache.class);
+
+    private final Map<List<VariableUsage>, VariableBinding[]> bindings = new IdentityHashMap<List<VariableUsage>, VariableBinding[]>();
+
+    /**
+     * Gets the bindings of the given variable usages.
+     *
+     * @param variableUsages
+     *            the variable usages, as contained by their model element.
+     * @return the bindings of the variable usages.
+     */
+    public VariableBinding[] getBindings(final List<VariableUsage> variableUsages) {
+        VariableBinding[] result = this.bindings.get(variableUsages);
+        if (result == null) {
+            result = VariableBinding.bind(variableUsages);
+            this.bindings.put(variableUsages, result);
+        }
+        return result;
+    }
+
+    @Override
+    public void localModelChanged(final PCMResourceSetPartition newLocalModel) {
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Local model changed, dropping " + this.bindings.size() + " variable bindings");
+        }
+        this.bindings.clear();
+    }
+}
@@ -1,6 +1,7 @@
 package org.palladiosimulator.simulizar.interpreter.listener;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -24,9 +25,12 @@ import org.palladiosimulator.monitorrepository.MonitorRepositoryPackage;
 import org.palladiosimulator.monitorrepository.ProcessingType;
 import org.palladiosimulator.pcm.core.entity.Entity;
 import org.palladiosimulator.pcm.repository.OperationSignature;
+import org.palladiosimulator.pcm.repository.RepositoryPackage;
 import org.palladiosimulator.pcm.seff.ExternalCallAction;
+import org.palladiosimulator.pcm.seff.SeffPackage;
 import org.palladiosimulator.pcm.usagemodel.EntryLevelSystemCall;
 import org.palladiosimulator.pcm.usagemodel.UsageScenario;
+import org.palladiosimulator.pcm.usagemodel.UsagemodelPackage;
 import org.palladiosimulator.probeframework.calculator.ICalculatorFactory;
 import org.palladiosimulator.probeframework.probes.Probe;
 import org.palladiosimulator.probeframework.probes.TriggeredProbe;
@@ -49,6 +53,13 @@ public abstract class AbstractProbeFrameworkListener extends AbstractInterpreter
     private static final int START_PROBE_INDEX = 0;
     private static final int STOP_PROBE_INDEX = 1;
 
+    /**
+     * Classes of the model elements whose passage is measured by this listener.
+     */
+    private static final List<EClass> MEASURED_ELEMENT_CLASSES = Arrays.asList(
+            UsagemodelPackage.Literals.USAGE_SCENARIO, UsagemodelPackage.Literals.ENTRY_LEVEL_SYSTEM_CALL,
+            SeffPackage.Literals.EXTERNAL_CALL_ACTION, RepositoryPackage.Literals.OPERATION_SIGNATURE);
+
     protected final SimuComModel simuComModel;
     protected final ICalculatorFactory calculatorFactory;
     protected final Reconfigurator reconfigurator;
@@ -164,6 +175,24 @@ public abstract class AbstractProbeFrameworkListener extends AbstractInterpreter
     public <T extends EObject> void endUnknownElementInterpretation(final ModelElementPassedEvent<T> event) {
     }
 
+    /**
+     * Checks whether the passage of model elements of the given class is measured by this
+     * listener. Subclasses which react on no further elements may restrict their interests, see
+     * {@link #isInterestedIn(EClass)}, to these classes.
+     *
+     * @param modelElementClass
+     *            the class of the passed model elements.
+     * @return {@code true} if the passage of the model elements is measured.
+     */
+    protected static boolean isMeasuredElementClass(final EClass modelElementClass) {
+        for (final EClass measuredElementClass : MEASURED_ELEMENT_CLASSES) {
+            if (measuredElementClass.isSuperTypeOf(modelElementClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Gets the {@link SimuComModel} which is related to this instance.
      *
@@ -1,5 +1,6 @@
 package org.palladiosimulator.simulizar.interpreter.listener;
 
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.palladiosimulator.pcm.repository.OperationSignature;
 import org.palladiosimulator.pcm.repository.ProvidedRole;
@@ -33,4 +34,19 @@ public interface IInterpreterListener {
     public <R extends ProvidedRole, S extends Signature> void beginAssemblyProvidedOperationCallInterpretation(AssemblyProvidedOperationPassedEvent<R, S> event);
     
     public <R extends ProvidedRole, S extends Signature> void endAssemblyProvidedOperationCallInterpretation(AssemblyProvidedOperationPassedEvent<R, S> event);
+
+    /**
+     * Declares whether this listener wants to be notified about passed model elements of the given
+     * class. Listeners are asked once per class and set of registered listeners, events of
+     * uninteresting elements are neither delivered to this listener nor created at all if no other
+     * listener is interested in them.
+     *
+     * @param modelElementClass
+     *            the class of the passed model elements.
+     * @return {@code true} if the listener is interested in the given elements, which is the
+     *         default.
+     */
+    public default boolean isInterestedIn(final EClass modelElementClass) {
+        return true;
+    }
 }
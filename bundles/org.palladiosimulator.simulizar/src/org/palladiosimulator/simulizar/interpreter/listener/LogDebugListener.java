@@ -4,13 +4,18 @@
 package org.palladiosimulator.simulizar.interpreter.listener;
 
 import org.apache.log4j.Logger;
+import org.eclipse.emf.ecore.EClass;
 import org.eclipse.emf.ecore.EObject;
 import org.palladiosimulator.pcm.repository.OperationSignature;
+import org.palladiosimulator.pcm.repository.RepositoryPackage;
 import org.palladiosimulator.pcm.seff.ExternalCallAction;
 import org.palladiosimulator.pcm.usagemodel.EntryLevelSystemCall;
 import org.palladiosimulator.pcm.usagemodel.UsageScenario;
 
 /**
+ * Logs the passed model elements at debug level. The listener should only be registered if
+ * {@link #isEnabled()}, so that no events are created for it otherwise.
+ *
  * @author snowball
  *
  */
@@ -25,6 +30,14 @@ public class LogDebugListener extends AbstractInterpreterListener {
         super();
     }
 
+    /**
+     * @return {@code true} if debug logging is enabled for this listener, i.e., if it logs anything
+     *         at all.
+     */
+    public static boolean isEnabled() {
+        return LOGGER.isDebugEnabled();
+    }
+
     /*
      * (non-Javadoc)
      *
@@ -117,6 +130,15 @@ public class LogDebugListener extends AbstractInterpreterListener {
         this.logEvent(event);
     }
 
+    /**
+     * All passed elements are logged except calls of assembly provided operations, which this
+     * listener does not handle.
+     */
+    @Override
+    public boolean isInterestedIn(final EClass modelElementClass) {
+        return !RepositoryPackage.Literals.OPERATION_PROVIDED_ROLE.isSuperTypeOf(modelElementClass);
+    }
+
     private <T extends EObject> void logEvent(final ModelElementPassedEvent<T> event) {
         if (LOGGER.isDebugEnabled()) {
             final StringBuilder msgBuilder = new StringBuilder();
@@ -3,6 +3,7 @@ package org.palladiosimulator.simulizar.interpreter.listener;
 import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RECONFIGURATION_TIME_METRIC_TUPLE;
 
 import org.apache.log4j.Logger;
+import org.eclipse.emf.ecore.EClass;
 import org.palladiosimulator.edp2.models.measuringpoint.MeasuringPoint;
 import org.palladiosimulator.metricspec.constants.MetricDescriptionConstants;
 import org.palladiosimulator.monitorrepository.MeasurementSpecification;
@@ -40,4 +41,12 @@ public class ProbeFrameworkListener extends AbstractProbeFrameworkListener {
         }
 	}
 
+	/**
+	 * Only the elements measured by this listener are of interest.
+	 */
+	@Override
+	public boolean isInterestedIn(final EClass modelElementClass) {
+		return isMeasuredElementClass(modelElementClass);
+	}
+
 }
@@ -20,6 +20,22 @@ public class SimulizarConstants {
     public static final String USAGEEVOLUTION_FILE = "usageEvolutionFile";
     public static final String SERVICELEVELOBJECTIVEREPOSITORY_FILE = "serviceLevelObjectiveRepositoryFile";
 
+    // Replication configuration identifiers
+    public static final String NUMBER_OF_REPLICATIONS = "numberOfReplications";
+    public static final String REPLICATION_WORKER_THREADS = "replicationWorkerThreads";
+
+    // In-run confidence stop condition identifiers
+    public static final String CONFIDENCE_STOP_METRICS = "confidenceStopMetrics";
+    public static final String CONFIDENCE_STOP_LEVEL = "confidenceStopLevel";
+    public static final String CONFIDENCE_STOP_HALF_WIDTH = "confidenceStopHalfWidth";
+    public static final String CONFIDENCE_STOP_BATCH_SIZE = "confidenceStopBatchSize";
+    public static final String CONFIDENCE_STOP_BATCH_DURATION = "confidenceStopBatchDuration";
+
+    // Metrics which can be selected for the in-run confidence stop condition
+    public static final String CONFIDENCE_STOP_METRIC_RESPONSE_TIME = "responseTime";
+    public static final String CONFIDENCE_STOP_METRIC_UTILIZATION = "utilization";
+    public static final String CONFIDENCE_STOP_METRIC_THROUGHPUT = "throughput";
+
     /**
      * Id of the extension point used for reconfiguration engines
      */
@@ -38,6 +54,12 @@ public class SimulizarConstants {
     public static final String CONFIGURATOR_EXTENSION_POINT_ID = "org.palladiosimulator.simulizar.configurator";
     public static final String CONFIGURATOR_EXTENSION_POINT_ATTRIBUTE = "configurator";
 
+    /**
+     * Id of the extension point used for extending the RDSEFF interpreter
+     */
+    public static final String RDSEFFSWITCH_EXTENSION_POINT_ID = "org.palladiosimulator.simulizar.interpreter.rdseffswitch";
+    public static final String RDSEFFSWITCH_EXTENSION_ATTRIBUTE = "rdseffswitch";
+
     /*
      * Set the file extensions which the dialogs will use as selection filter and for file name
      * validation.
@@ -56,5 +78,18 @@ public class SimulizarConstants {
     public static final String DEFAULT_USAGEEVOLUTION_FILE = "";
     public static final String DEFAULT_INFRASTRUCTURE_MODEL_FILE = "";
     public static final String DEFAULT_SERVICELEVELOBJECTIVE_FILE = "";
+    /** Default number of independent replications of a simulation run. */
+    public static final int DEFAULT_NUMBER_OF_REPLICATIONS = 1;
+    /** Default number of replications run concurrently. */
+    public static final int DEFAULT_REPLICATION_WORKER_THREADS = 1;
+    /** By default, no metrics are observed and the run is not stopped on confidence. */
+    public static final String DEFAULT_CONFIDENCE_STOP_METRICS = "";
+    public static final double DEFAULT_CONFIDENCE_STOP_LEVEL = 0.95;
+    /** Default relative half width of the confidence intervals. */
+    public static final double DEFAULT_CONFIDENCE_STOP_HALF_WIDTH = 0.05;
+    /** Default number of samples of a batch of sample based metrics, e.g. response times. */
+    public static final int DEFAULT_CONFIDENCE_STOP_BATCH_SIZE = 100;
+    /** Default simulated time of a batch of time based metrics, i.e. utilization and throughput. */
+    public static final double DEFAULT_CONFIDENCE_STOP_BATCH_DURATION = 100.0;
 
 }
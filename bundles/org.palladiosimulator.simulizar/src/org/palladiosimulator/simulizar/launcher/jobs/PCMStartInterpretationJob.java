@@ -1,6 +1,15 @@
 package org.palladiosimulator.simulizar.launcher.jobs;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.log4j.Logger;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -23,6 +32,19 @@ import de.uka.ipd.sdq.workflow.mdsd.blackboard.MDSDBlackboard;
 /**
  * Job starting the pcm interpretation.
  *
+ * If more than one replication is configured, the simulation is run once per replication. Each
+ * replication has its own runtime state, SimuCom model and copy of the models, which is loaded into
+ * a blackboard of its own, and results in an experiment run of its own. The replications are
+ * prepared one after another on the thread executing this job, as creating their configurations
+ * adds their experiment runs to the EDP2 repository. They are then run concurrently on a pool of
+ * the configured number of worker threads. With fixed seeds, each replication draws from its own
+ * substream of the random generator, see
+ * {@link SimuLizarWorkflowConfiguration#getReplicationClone(int)}.
+ *
+ * Jobs running several simulations concurrently may {@link #prepare(IProgressMonitor) prepare} the
+ * runtime states on the thread dispatching the simulations, so that executing this job only runs
+ * them.
+ *
  * @author Joachim Meyer
  *
  */
@@ -34,6 +56,9 @@ public class PCMStartInterpretationJob implements IBlackboardInteractingJob<MDSD
 
     private final SimuLizarWorkflowConfiguration configuration;
 
+    /** The runtime states prepared but not run yet, {@code null} if none have been prepared. */
+    private List<SimuLizarRuntimeState> preparedRuntimeStates;
+
     /**
      * Constructor
      *
@@ -52,6 +77,65 @@ public class PCMStartInterpretationJob implements IBlackboardInteractingJob<MDSD
     public void execute(final IProgressMonitor monitor) throws JobFailedException, UserCanceledException {
         LOGGER.info("Start job: " + this);
 
+        final List<SimuLizarRuntimeState> runtimeStates = this.preparedRuntimeStates != null
+                ? this.preparedRuntimeStates
+                : this.prepareRuntimeStates(monitor);
+        this.preparedRuntimeStates = null;
+        if (runtimeStates.size() > 1) {
+            this.runReplications(runtimeStates, monitor);
+        } else {
+            final SimuLizarRuntimeState runtimeState = runtimeStates.get(0);
+            runtimeState.runSimulation();
+            runtimeState.cleanUp();
+        }
+        LOGGER.info("finished job: " + this);
+    }
+
+    /**
+     * Prepares the runtime states of all replications on the calling thread. Executing the job
+     * afterwards runs the prepared runtime states; if the job is not executed, they are cleaned up
+     * by {@link #cleanup(IProgressMonitor)}. The blackboard has to be set before.
+     *
+     * @param monitor
+     *            the progress monitor whose cancellation cancels the simulation.
+     * @throws JobFailedException
+     *             if the models of a replication could not be loaded.
+     * @throws UserCanceledException
+     *             if the preparation has been cancelled.
+     */
+    public void prepare(final IProgressMonitor monitor) throws JobFailedException, UserCanceledException {
+        if (this.preparedRuntimeStates == null) {
+            this.preparedRuntimeStates = this.prepareRuntimeStates(monitor);
+        }
+    }
+
+    /**
+     * Prepares the runtime states of the replications one after another, as creating their
+     * configurations adds experiment runs to the EDP2 repository.
+     */
+    private List<SimuLizarRuntimeState> prepareRuntimeStates(final IProgressMonitor monitor)
+            throws JobFailedException, UserCanceledException {
+        final int numberOfReplications = this.configuration.getNumberOfReplications();
+        if (numberOfReplications <= 1) {
+            return Collections.singletonList(this.createRuntimeState(this.configuration, this.blackboard, monitor));
+        }
+        final List<SimuLizarRuntimeState> runtimeStates = new ArrayList<SimuLizarRuntimeState>(numberOfReplications);
+        try {
+            for (int i = 0; i < numberOfReplications; i++) {
+                if (monitor.isCanceled()) {
+                    throw new UserCanceledException();
+                }
+                runtimeStates.add(this.prepareReplication(i, monitor));
+            }
+        } catch (JobFailedException | UserCanceledException | RuntimeException e) {
+            runtimeStates.forEach(SimuLizarRuntimeState::cleanUp);
+            throw e;
+        }
+        return runtimeStates;
+    }
+
+    private SimuLizarRuntimeState createRuntimeState(final SimuLizarWorkflowConfiguration configuration,
+            final MDSDBlackboard blackboard, final IProgressMonitor monitor) {
         LOGGER.info("Initialise Simulizar runtime state");
 
         final List<IConfigurator> configurators = ExtensionHelper.getExecutableExtensions(
@@ -59,23 +143,129 @@ public class PCMStartInterpretationJob implements IBlackboardInteractingJob<MDSD
                 SimulizarConstants.CONFIGURATOR_EXTENSION_POINT_ATTRIBUTE);
 
         for (final IConfigurator configurator : configurators) {
-            configurator.configure(this.configuration, this.blackboard);
+            configurator.configure(configuration, blackboard);
         }
 
-        this.configuration.setReconfigurationRulesFolder(this.configuration.getReconfigurationRulesFolder());
+        configuration.setReconfigurationRulesFolder(configuration.getReconfigurationRulesFolder());
 
         // FIXME @Igor: Use ModelAccess instead of ModelAccessUseOriginalReferences.
         // After we find a way to copy models so that their links do not point to intermediary, but
         // to the models directly.
-        final SimuLizarRuntimeState runtimeState = new SimuLizarRuntimeState(this.configuration,
-                new ModelAccess(this.blackboard),
+        final SimuLizarRuntimeState runtimeState = new SimuLizarRuntimeState(configuration,
+                new ModelAccess(blackboard),
                 new SimulationCancelationDelegate(monitor::isCanceled));
 
         this.initializeRuntimeStateAccessors(runtimeState);
 
-        runtimeState.runSimulation();
-        runtimeState.cleanUp();
-        LOGGER.info("finished job: " + this);
+        return runtimeState;
+    }
+
+    /**
+     * Runs the given replications on the worker pool. The first replication runs on the
+     * configuration and blackboard of this job, all further replications on a replication clone of
+     * the configuration and a freshly loaded blackboard.
+     */
+    private void runReplications(final List<SimuLizarRuntimeState> runtimeStates, final IProgressMonitor monitor)
+            throws JobFailedException, UserCanceledException {
+        final int numberOfReplications = runtimeStates.size();
+        final int workerThreads = Math.max(1,
+                Math.min(this.configuration.getReplicationWorkerThreads(), numberOfReplications));
+        LOGGER.info("Running " + numberOfReplications + " replications on " + workerThreads + " worker threads");
+
+        final ReplicationSummary summary = new ReplicationSummary(numberOfReplications);
+        for (int i = 0; i < numberOfReplications; i++) {
+            summary.observe(i, runtimeStates.get(i));
+        }
+
+        // a replication is either started by a worker or cleaned up without being run, whichever
+        // claims it first
+        final AtomicBoolean[] claimed = new AtomicBoolean[numberOfReplications];
+        for (int i = 0; i < numberOfReplications; i++) {
+            claimed[i] = new AtomicBoolean(false);
+        }
+        final long start = System.nanoTime();
+        final ExecutorService executor = Executors.newFixedThreadPool(workerThreads);
+        final List<Future<Long>> replications = new ArrayList<Future<Long>>(numberOfReplications);
+        try {
+            for (int i = 0; i < numberOfReplications; i++) {
+                replications.add(executor.submit(createReplication(i, runtimeStates.get(i), claimed[i])));
+            }
+            long totalDuration = 0;
+            for (int i = 0; i < numberOfReplications; i++) {
+                try {
+                    totalDuration += replications.get(i).get();
+                } catch (final ExecutionException e) {
+                    throw new JobFailedException("Replication " + i + " failed", e.getCause());
+                }
+            }
+            if (monitor.isCanceled()) {
+                throw new UserCanceledException();
+            }
+            summary.log(System.nanoTime() - start, totalDuration);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new JobFailedException("Interrupted while waiting for the replications", e);
+        } finally {
+            executor.shutdownNow();
+            for (int i = 0; i < numberOfReplications; i++) {
+                if (claimed[i].compareAndSet(false, true)) {
+                    runtimeStates.get(i).cleanUp();
+                }
+            }
+            awaitTermination(executor);
+        }
+    }
+
+    /**
+     * Waits for the replications still running after a replication has failed. Simulation runs do
+     * not react to interrupts, so they run to completion and clean up their runtime states on their
+     * own.
+     */
+    private static void awaitTermination(final ExecutorService executor) {
+        try {
+            while (!executor.awaitTermination(1, TimeUnit.MINUTES)) {
+                LOGGER.info("Waiting for running replications to terminate");
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Prepares the runtime state of the given replication.
+     */
+    private SimuLizarRuntimeState prepareReplication(final int replication, final IProgressMonitor monitor)
+            throws JobFailedException, UserCanceledException {
+        if (replication == 0) {
+            return this.createRuntimeState(this.configuration, this.blackboard, monitor);
+        }
+        final SimuLizarWorkflowConfiguration replicationConfiguration = this.configuration
+                .getReplicationClone(replication);
+        final MDSDBlackboard replicationBlackboard = new MDSDBlackboard();
+        final LoadSimuLizarModelsIntoBlackboardJob loadJob = new LoadSimuLizarModelsIntoBlackboardJob(
+                replicationConfiguration);
+        loadJob.setBlackboard(replicationBlackboard);
+        loadJob.execute(monitor);
+        return this.createRuntimeState(replicationConfiguration, replicationBlackboard, monitor);
+    }
+
+    private static Callable<Long> createReplication(final int replication,
+            final SimuLizarRuntimeState runtimeState, final AtomicBoolean claimed) {
+        return () -> {
+            if (!claimed.compareAndSet(false, true)) {
+                // another replication has failed and this one has already been cleaned up
+                return 0L;
+            }
+            final long start = System.nanoTime();
+            try {
+                runtimeState.runSimulation();
+            } finally {
+                runtimeState.cleanUp();
+            }
+            final long duration = System.nanoTime() - start;
+            LOGGER.info("Finished replication " + replication + " in " + duration / 1000000 + " ms");
+            return duration;
+        };
     }
 
     private void initializeRuntimeStateAccessors(final SimuLizarRuntimeState runtimeState) {
@@ -101,6 +291,10 @@ public class PCMStartInterpretationJob implements IBlackboardInteractingJob<MDSD
      */
     @Override
     public void cleanup(final IProgressMonitor monitor) throws CleanupFailedException {
+        if (this.preparedRuntimeStates != null) {
+            this.preparedRuntimeStates.forEach(SimuLizarRuntimeState::cleanUp);
+            this.preparedRuntimeStates = null;
+        }
     }
 
     /**
@@ -0,0 +1,151 @@
+package org.palladiosimulator.simulizar.launcher.jobs;
+
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RESPONSE_TIME_METRIC;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RESPONSE_TIME_METRIC_TUPLE;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.measure.Measure;
+import javax.measure.quantity.Duration;
+import javax.measure.unit.SI;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.edp2.models.measuringpoint.MeasuringPoint;
+import org.palladiosimulator.edp2.util.MetricDescriptionUtility;
+import org.palladiosimulator.measurementframework.MeasuringValue;
+import org.palladiosimulator.measurementframework.listener.IMeasurementSourceListener;
+import org.palladiosimulator.monitorrepository.MeasurementSpecification;
+import org.palladiosimulator.monitorrepository.Monitor;
+import org.palladiosimulator.monitorrepository.MonitorRepository;
+import org.palladiosimulator.probeframework.calculator.Calculator;
+import org.palladiosimulator.probeframework.calculator.RegisterCalculatorFactoryDecorator;
+import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
+
+import de.uka.ipd.sdq.statistics.estimation.ConfidenceInterval;
+import de.uka.ipd.sdq.statistics.estimation.SampleMeanEstimator;
+
+/**
+ * Pools the results of the replications of a simulation run. For each measuring point of an active
+ * response time monitor, the mean response time of each replication is recorded. As the
+ * replications are independent, their means are independent samples of the mean response time,
+ * which are pooled into a confidence interval. The response times themselves are stored in the
+ * experiment runs of the replications.
+ */
+final class ReplicationSummary {
+
+    private static final Logger LOGGER = Logger.getLogger(ReplicationSummary.class);
+
+    /** Confidence level of the pooled confidence intervals. */
+    private static final double CONFIDENCE_LEVEL = 0.95;
+
+    private final int numberOfReplications;
+
+    /** Means of the replications, by measuring point. */
+    private final Map<String, ResponseTimeMean[]> replicationMeans = new LinkedHashMap<String, ResponseTimeMean[]>();
+
+    /**
+     * @param numberOfReplications
+     *            the number of replications.
+     */
+    ReplicationSummary(final int numberOfReplications) {
+        this.numberOfReplications = numberOfReplications;
+    }
+
+    /**
+     * Observes the response times of the given replication. Has to be called before the
+     * replication is run and not concurrently.
+     *
+     * @param replication
+     *            the number of the replication.
+     * @param runtimeState
+     *            the runtime state of the replication.
+     */
+    void observe(final int replication, final AbstractSimuLizarRuntimeState runtimeState) {
+        final MonitorRepository monitorRepository = runtimeState.getModelAccess().getMonitorRepositoryModel();
+        if (monitorRepository == null) {
+            return;
+        }
+        final RegisterCalculatorFactoryDecorator calculatorFactory = RegisterCalculatorFactoryDecorator.class
+                .cast(runtimeState.getModel().getProbeFrameworkContext().getCalculatorFactory());
+        for (final Monitor monitor : monitorRepository.getMonitors()) {
+            if (!monitor.isActivated()) {
+                continue;
+            }
+            final MeasuringPoint measuringPoint = monitor.getMeasuringPoint();
+            for (final MeasurementSpecification measurementSpecification : monitor.getMeasurementSpecifications()) {
+                if (!MetricDescriptionUtility.metricDescriptionIdsEqual(measurementSpecification.getMetricDescription(),
+                        RESPONSE_TIME_METRIC)
+                        && !MetricDescriptionUtility.metricDescriptionIdsEqual(
+                                measurementSpecification.getMetricDescription(), RESPONSE_TIME_METRIC_TUPLE)) {
+                    continue;
+                }
+                final Calculator calculator = calculatorFactory
+                        .getCalculatorByMeasuringPointAndMetricDescription(measuringPoint, RESPONSE_TIME_METRIC_TUPLE);
+                if (calculator == null) {
+                    continue;
+                }
+                final ResponseTimeMean[] means = this.replicationMeans.computeIfAbsent(
+                        measuringPoint.getStringRepresentation(), k -> new ResponseTimeMean[this.numberOfReplications]);
+                if (means[replication] == null) {
+                    means[replication] = new ResponseTimeMean();
+                    calculator.addObserver(means[replication]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Logs the summary of the replications, which have to be finished.
+     *
+     * @param wallClockDuration
+     *            the time all replications took together, in nanoseconds.
+     * @param totalDuration
+     *            the sum of the times the single replications took, in nanoseconds.
+     */
+    void log(final long wallClockDuration, final long totalDuration) {
+        LOGGER.info("Finished " + this.numberOfReplications + " replications in " + wallClockDuration / 1000000
+                + " ms, mean duration of a replication " + totalDuration / this.numberOfReplications / 1000000
+                + " ms, speed-up " + String.format("%.2f", (double) totalDuration / wallClockDuration));
+        for (final Map.Entry<String, ResponseTimeMean[]> entry : this.replicationMeans.entrySet()) {
+            final List<Double> means = new ArrayList<Double>(this.numberOfReplications);
+            for (final ResponseTimeMean mean : entry.getValue()) {
+                if (mean != null && mean.count > 0) {
+                    means.add(mean.sum / mean.count);
+                }
+            }
+            final ConfidenceInterval ci = means.size() < 2 ? null
+                    : new SampleMeanEstimator().estimateConfidence(means, CONFIDENCE_LEVEL);
+            if (ci == null) {
+                LOGGER.info("Response time at " + entry.getKey() + ": Means of the replications " + means);
+            } else {
+                LOGGER.info("Response time at " + entry.getKey() + " over " + means.size()
+                        + " replications: Mean " + ci.getMean() + ", " + CONFIDENCE_LEVEL * 100
+                        + "% Confidence Interval [" + ci.getLowerBound() + "," + ci.getUpperBound() + "]");
+            }
+        }
+    }
+
+    /**
+     * Mean of the response times of a single replication. Only accessed by the threads of the
+     * replication until it has finished.
+     */
+    private static final class ResponseTimeMean implements IMeasurementSourceListener {
+
+        private double sum = 0;
+        private long count = 0;
+
+        @Override
+        public void newMeasurementAvailable(final MeasuringValue newMeasurement) {
+            final Measure<Double, Duration> responseTime = newMeasurement.getMeasureForMetric(RESPONSE_TIME_METRIC);
+            this.sum += responseTime.doubleValue(SI.SECOND);
+            this.count++;
+        }
+
+        @Override
+        public void preUnregister() {
+        }
+    }
+}
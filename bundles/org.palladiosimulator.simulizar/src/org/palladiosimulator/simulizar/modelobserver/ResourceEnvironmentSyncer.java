@@ -161,10 +161,12 @@ public class ResourceEnvironmentSyncer extends AbstractResourceEnvironmentObserv
      * @param resourceContainer
      */
     private AbstractSimulatedResourceContainer addSimulatedResource(final ResourceContainer resourceContainer) {
+        this.runtimeModel.getAllocationIndex().resourceEnvironmentChanged();
         return this.runtimeModel.getModel().getResourceRegistry().createResourceContainer(resourceContainer.getId());
     }
 
     private void removeSimulatedResource(final ResourceContainer resourceContainer) {
+        this.runtimeModel.getAllocationIndex().resourceEnvironmentChanged();
         // FIXME shutdown the simulated resource container now (...somehow ;) )
         // AbstractSimulatedResourceContainer simulatedResourceContainer =
         // findSimuComFrameworkResourceContainer();
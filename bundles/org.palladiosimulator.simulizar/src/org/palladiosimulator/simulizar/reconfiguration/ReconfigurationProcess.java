@@ -14,6 +14,7 @@ import org.palladiosimulator.simulizar.interpreter.listener.EndReconfigurationEv
 import org.palladiosimulator.simulizar.interpreter.listener.EventResult;
 import org.palladiosimulator.simulizar.interpreter.listener.ReconfigurationExecutedEvent;
 import org.palladiosimulator.simulizar.reconfigurationrule.ModelTransformation;
+import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
 
 import de.uka.ipd.sdq.simucomframework.SimuComSimProcess;
 import de.uka.ipd.sdq.simucomframework.model.SimuComModel;
@@ -34,6 +35,8 @@ public class ReconfigurationProcess extends SimuComSimProcess {
 	private final ISimulationControl simControl;
 	private final List<Notification> currentReconfigNotifications;
 	private final Reconfigurator reconfigurator;
+	// the runtime state of the simulation creating this process, bound to the thread of the process
+	private final AbstractSimuLizarRuntimeState runtimeState;
 	// volatile is sufficient as flag is only set once
 	private volatile boolean terminationRequested = false;
 	private EList<ModelTransformation<? extends Object>> transformations;
@@ -60,6 +63,7 @@ public class ReconfigurationProcess extends SimuComSimProcess {
 		this.reconfigurator = Objects.requireNonNull(reconfigurator, "reconfigurator must not be null");
 		this.simControl = Objects.requireNonNull(model, "Passed SimuComModel must not be null").getSimulationControl();
 		this.currentReconfigNotifications = new ArrayList<>();
+		this.runtimeState = AbstractSimuLizarRuntimeState.getRunningState();
 		this.transformations = new BasicEList<ModelTransformation<? extends Object>>();
 		reconfigurator.getReconfigurationLoaders().forEach(l -> {
 			this.transformations.addAll(l.getTransformations());
@@ -184,6 +188,9 @@ public class ReconfigurationProcess extends SimuComSimProcess {
 
 	@Override
 	protected void internalLifeCycle() {
+		if (this.runtimeState != null) {
+			this.runtimeState.bindToCurrentThread();
+		}
 		// execute reconfigurations until termination requested
 		while (!this.isTerminationRequested()) {
 			final EObject monitoredElement = this.getMonitoredElement();
@@ -1,5 +1,7 @@
 package org.palladiosimulator.simulizar.runconfig;
 
+import java.util.Map;
+
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.palladiosimulator.analyzer.workflow.ConstantsContainer;
@@ -37,8 +39,37 @@ public class SimuLizarLaunchConfigurationBasedConfigBuilder extends SimuComLaunc
         config.setServiceLevelObjectivesFile(
                 this.getStringAttribute(SimulizarConstants.SERVICELEVELOBJECTIVEREPOSITORY_FILE));
         config.setUsageEvolutionFile(this.getStringAttribute(SimulizarConstants.USAGEEVOLUTION_FILE));
+        config.setNumberOfReplications(this.getIntegerAttribute(SimulizarConstants.NUMBER_OF_REPLICATIONS,
+                SimulizarConstants.DEFAULT_NUMBER_OF_REPLICATIONS));
+        config.setReplicationWorkerThreads(this.getIntegerAttribute(SimulizarConstants.REPLICATION_WORKER_THREADS,
+                SimulizarConstants.DEFAULT_REPLICATION_WORKER_THREADS));
+        config.setConfidenceStopMetrics(this.getOptionalStringAttribute(SimulizarConstants.CONFIDENCE_STOP_METRICS,
+                SimulizarConstants.DEFAULT_CONFIDENCE_STOP_METRICS));
+        config.setConfidenceStopLevel(this.getDoubleAttribute(SimulizarConstants.CONFIDENCE_STOP_LEVEL,
+                SimulizarConstants.DEFAULT_CONFIDENCE_STOP_LEVEL));
+        config.setConfidenceStopHalfWidth(this.getDoubleAttribute(SimulizarConstants.CONFIDENCE_STOP_HALF_WIDTH,
+                SimulizarConstants.DEFAULT_CONFIDENCE_STOP_HALF_WIDTH));
+        config.setConfidenceStopBatchSize(this.getIntegerAttribute(SimulizarConstants.CONFIDENCE_STOP_BATCH_SIZE,
+                SimulizarConstants.DEFAULT_CONFIDENCE_STOP_BATCH_SIZE));
+        config.setConfidenceStopBatchDuration(this.getDoubleAttribute(
+                SimulizarConstants.CONFIDENCE_STOP_BATCH_DURATION,
+                SimulizarConstants.DEFAULT_CONFIDENCE_STOP_BATCH_DURATION));
+
+        config.setSimuComConfiguration(createSimuComConfig(this.properties, config.isDebug()));
+    }
 
-        final SimuComConfig simuComConfig = new SimuComConfig(this.properties, config.isDebug());
+    /**
+     * Creates the SimuCom configuration of the given launch attributes, including the SimuCom
+     * configuration extensions of all registered workflow extensions.
+     *
+     * @param properties
+     *            the launch attributes.
+     * @param debug
+     *            whether the simulation is run in debug mode.
+     * @return the SimuCom configuration.
+     */
+    public static SimuComConfig createSimuComConfig(final Map<String, Object> properties, final boolean debug) {
+        final SimuComConfig simuComConfig = new SimuComConfig(properties, debug);
 
         // Set SimuCom config extensions based on registered extensions
         for (final String workflowHookId : WorkflowHooks.getAllWorkflowHookIDs()) {
@@ -46,7 +77,7 @@ public class SimuLizarLaunchConfigurationBasedConfigBuilder extends SimuComLaunc
                 if ((workflowExtension.getExtensionConfigurationBuilder() != null) && (workflowExtension
                         .getExtensionConfigurationBuilder() instanceof SimuComExtensionConfigurationBuilder)) {
                     final SimuComConfigExtension simuComConfigExtension = ((SimuComExtensionConfigurationBuilder) workflowExtension
-                            .getExtensionConfigurationBuilder()).deriveSimuComConfigExtension(this.properties);
+                            .getExtensionConfigurationBuilder()).deriveSimuComConfigExtension(properties);
                     if (simuComConfigExtension != null) {
                         simuComConfig.addSimuComConfigExtension(workflowExtension.getId(), simuComConfigExtension);
                     }
@@ -54,6 +85,31 @@ public class SimuLizarLaunchConfigurationBasedConfigBuilder extends SimuComLaunc
             }
         }
 
-        config.setSimuComConfiguration(simuComConfig);
+        return simuComConfig;
+    }
+
+    private int getIntegerAttribute(final String key, final int defaultValue) {
+        final Object value = this.properties.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        } else if (value instanceof String && !((String) value).trim().isEmpty()) {
+            return Integer.parseInt(((String) value).trim());
+        }
+        return defaultValue;
+    }
+
+    private double getDoubleAttribute(final String key, final double defaultValue) {
+        final Object value = this.properties.get(key);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        } else if (value instanceof String && !((String) value).trim().isEmpty()) {
+            return Double.parseDouble(((String) value).trim());
+        }
+        return defaultValue;
+    }
+
+    private String getOptionalStringAttribute(final String key, final String defaultValue) {
+        final Object value = this.properties.get(key);
+        return value instanceof String ? (String) value : defaultValue;
     }
 }
@@ -1,20 +1,45 @@
 package org.palladiosimulator.simulizar.runconfig;
 
+import java.math.BigInteger;
+import java.util.HashMap;
 import java.util.Map;
 
 import org.apache.log4j.Logger;
+import org.palladiosimulator.simulizar.launcher.SimulizarConstants;
 
 import de.uka.ipd.sdq.codegen.simucontroller.runconfig.SimuComWorkflowConfiguration;
+import de.uka.ipd.sdq.simucomframework.SimuComConfig;
 
 public class SimuLizarWorkflowConfiguration extends SimuComWorkflowConfiguration {
 
     /** Logger for this class. */
     private static final Logger LOGGER = Logger.getLogger(SimuLizarWorkflowConfiguration.class);
 
+    /** Moduli of the two components of SimuCom's random generator, i.e., the MRG32k3a generator. */
+    private static final long SEED_MODULUS_1 = 4294967087L;
+    private static final long SEED_MODULUS_2 = 4294944443L;
+
+    /**
+     * Matrices which advance the two components of MRG32k3a by one substream, i.e., by 2^76 random
+     * numbers (see L'Ecuyer et al., An Object-Oriented Random-Number Package with Many Long Streams
+     * and Substreams).
+     */
+    private static final long[][] SUBSTREAM_MATRIX_1 = { { 82758667L, 1871391091L, 4127413238L },
+            { 3672831523L, 69195019L, 1871391091L }, { 3672091415L, 3528743235L, 69195019L } };
+    private static final long[][] SUBSTREAM_MATRIX_2 = { { 1511326704L, 3759209742L, 1610795712L },
+            { 4292754251L, 1511326704L, 3889917532L }, { 3859662829L, 4292754251L, 3708466080L } };
+
     protected String monitorRepositoryFile;
     protected String reconfigurationRulesFolder;
     protected String usageEvolutionFile;
     protected String serviceLevelObjectivesFile;
+    protected int numberOfReplications = SimulizarConstants.DEFAULT_NUMBER_OF_REPLICATIONS;
+    protected int replicationWorkerThreads = SimulizarConstants.DEFAULT_REPLICATION_WORKER_THREADS;
+    protected String confidenceStopMetrics = SimulizarConstants.DEFAULT_CONFIDENCE_STOP_METRICS;
+    protected double confidenceStopLevel = SimulizarConstants.DEFAULT_CONFIDENCE_STOP_LEVEL;
+    protected double confidenceStopHalfWidth = SimulizarConstants.DEFAULT_CONFIDENCE_STOP_HALF_WIDTH;
+    protected int confidenceStopBatchSize = SimulizarConstants.DEFAULT_CONFIDENCE_STOP_BATCH_SIZE;
+    protected double confidenceStopBatchDuration = SimulizarConstants.DEFAULT_CONFIDENCE_STOP_BATCH_DURATION;
 
     public SimuLizarWorkflowConfiguration(final Map<String, Object> attributes) {
         super(attributes);
@@ -52,6 +77,69 @@ public class SimuLizarWorkflowConfiguration extends SimuComWorkflowConfiguration
         this.serviceLevelObjectivesFile = serviceLevelObjectivesFile;
     }
 
+    public int getNumberOfReplications() {
+        return this.numberOfReplications;
+    }
+
+    public void setNumberOfReplications(final int numberOfReplications) {
+        this.numberOfReplications = numberOfReplications;
+    }
+
+    public int getReplicationWorkerThreads() {
+        return this.replicationWorkerThreads;
+    }
+
+    public void setReplicationWorkerThreads(final int replicationWorkerThreads) {
+        this.replicationWorkerThreads = replicationWorkerThreads;
+    }
+
+    /**
+     * @return the comma separated metrics whose confidence stops the simulation run, see
+     *         {@link SimulizarConstants#CONFIDENCE_STOP_METRIC_RESPONSE_TIME},
+     *         {@link SimulizarConstants#CONFIDENCE_STOP_METRIC_UTILIZATION} and
+     *         {@link SimulizarConstants#CONFIDENCE_STOP_METRIC_THROUGHPUT}. The run is not stopped
+     *         on confidence if empty.
+     */
+    public String getConfidenceStopMetrics() {
+        return this.confidenceStopMetrics;
+    }
+
+    public void setConfidenceStopMetrics(final String confidenceStopMetrics) {
+        this.confidenceStopMetrics = confidenceStopMetrics;
+    }
+
+    public double getConfidenceStopLevel() {
+        return this.confidenceStopLevel;
+    }
+
+    public void setConfidenceStopLevel(final double confidenceStopLevel) {
+        this.confidenceStopLevel = confidenceStopLevel;
+    }
+
+    public double getConfidenceStopHalfWidth() {
+        return this.confidenceStopHalfWidth;
+    }
+
+    public void setConfidenceStopHalfWidth(final double confidenceStopHalfWidth) {
+        this.confidenceStopHalfWidth = confidenceStopHalfWidth;
+    }
+
+    public int getConfidenceStopBatchSize() {
+        return this.confidenceStopBatchSize;
+    }
+
+    public void setConfidenceStopBatchSize(final int confidenceStopBatchSize) {
+        this.confidenceStopBatchSize = confidenceStopBatchSize;
+    }
+
+    public double getConfidenceStopBatchDuration() {
+        return this.confidenceStopBatchDuration;
+    }
+
+    public void setConfidenceStopBatchDuration(final double confidenceStopBatchDuration) {
+        this.confidenceStopBatchDuration = confidenceStopBatchDuration;
+    }
+
     @Override
     public void setDefaults() {
         throw new RuntimeException("Not implemented. No defaults defined.");
@@ -63,6 +151,14 @@ public class SimuLizarWorkflowConfiguration extends SimuComWorkflowConfiguration
         config.monitorRepositoryFile = this.monitorRepositoryFile;
         config.reconfigurationRulesFolder = this.reconfigurationRulesFolder;
         config.usageEvolutionFile = this.usageEvolutionFile;
+        config.serviceLevelObjectivesFile = this.serviceLevelObjectivesFile;
+        config.numberOfReplications = this.numberOfReplications;
+        config.replicationWorkerThreads = this.replicationWorkerThreads;
+        config.confidenceStopMetrics = this.confidenceStopMetrics;
+        config.confidenceStopLevel = this.confidenceStopLevel;
+        config.confidenceStopHalfWidth = this.confidenceStopHalfWidth;
+        config.confidenceStopBatchSize = this.confidenceStopBatchSize;
+        config.confidenceStopBatchDuration = this.confidenceStopBatchDuration;
         return config;
     }
 
@@ -78,6 +174,59 @@ public class SimuLizarWorkflowConfiguration extends SimuComWorkflowConfiguration
         return config;
     }
 
+    /**
+     * Creates a clone of this configuration for the given replication of the simulation. The clone
+     * has a new SimuCom configuration, so that the replication is stored as a new experiment run.
+     * Note that creating the SimuCom configuration adds the experiment run to the EDP2 repository,
+     * i.e., replication clones should not be created concurrently. If the simulation uses fixed
+     * seeds, the seeds of the replication are the start of the substream with the number of the
+     * replication, counted from the configured seeds. Replications are thus reproducible and draw
+     * their random numbers from disjoint parts of the generator's period.
+     *
+     * @param replication
+     *            the number of the replication, starting with 0 for the seeds of this
+     *            configuration.
+     * @return the configuration of the replication.
+     */
+    public SimuLizarWorkflowConfiguration getReplicationClone(final int replication) {
+        final Map<String, Object> attributes = new HashMap<String, Object>(this.getAttributes());
+        if (Boolean.parseBoolean(String.valueOf(attributes.get(SimuComConfig.USE_FIXED_SEED)))) {
+            final long[] seeds = new long[6];
+            for (int i = 0; i < seeds.length; i++) {
+                seeds[i] = Long.parseLong(String.valueOf(attributes.get(SimuComConfig.FIXED_SEED_PREFIX + i)));
+            }
+            for (int i = 0; i < replication; i++) {
+                advance(SUBSTREAM_MATRIX_1, seeds, 0, SEED_MODULUS_1);
+                advance(SUBSTREAM_MATRIX_2, seeds, 3, SEED_MODULUS_2);
+            }
+            for (int i = 0; i < seeds.length; i++) {
+                attributes.put(SimuComConfig.FIXED_SEED_PREFIX + i, String.valueOf(seeds[i]));
+            }
+        }
+        final SimuLizarWorkflowConfiguration config = this.getClone();
+        config.setSimuComConfiguration(
+                SimuLizarLaunchConfigurationBasedConfigBuilder.createSimuComConfig(attributes, this.isDebug()));
+        return config;
+    }
+
+    /**
+     * Multiplies the three seeds starting at the given offset by the given matrix, modulo the given
+     * modulus. The products exceed the range of long, so they are computed as big integers.
+     */
+    private static void advance(final long[][] matrix, final long[] seeds, final int offset, final long modulus) {
+        final BigInteger bigModulus = BigInteger.valueOf(modulus);
+        final long[] product = new long[3];
+        for (int row = 0; row < 3; row++) {
+            BigInteger sum = BigInteger.ZERO;
+            for (int column = 0; column < 3; column++) {
+                sum = sum.add(BigInteger.valueOf(matrix[row][column])
+                        .multiply(BigInteger.valueOf(seeds[offset + column])));
+            }
+            product[row] = sum.mod(bigModulus).longValue();
+        }
+        System.arraycopy(product, 0, seeds, offset, 3);
+    }
+
     public String getTemporaryDataLocation() {
         return this.temporaryDataLocation;
     }
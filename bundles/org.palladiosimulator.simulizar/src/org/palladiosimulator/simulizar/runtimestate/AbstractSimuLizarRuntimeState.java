@@ -2,23 +2,52 @@ package org.palladiosimulator.simulizar.runtimestate;
 
 import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.NUMBER_OF_RESOURCE_CONTAINERS;
 import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.NUMBER_OF_RESOURCE_CONTAINERS_OVER_TIME;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RESPONSE_TIME_METRIC;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RESPONSE_TIME_METRIC_TUPLE;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.STATE_OF_ACTIVE_RESOURCE_METRIC;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.STATE_OF_ACTIVE_RESOURCE_METRIC_TUPLE;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.UTILIZATION_OF_ACTIVE_RESOURCE;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.UTILIZATION_OF_ACTIVE_RESOURCE_TUPLE;
 
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 
 import org.apache.log4j.Logger;
 import org.palladiosimulator.commons.eclipseutils.ExtensionHelper;
 import org.palladiosimulator.edp2.models.measuringpoint.MeasuringPoint;
 import org.palladiosimulator.edp2.util.MetricDescriptionUtility;
+import org.palladiosimulator.metricspec.MetricDescription;
+import org.palladiosimulator.metricspec.NumericalBaseMetricDescription;
 import org.palladiosimulator.monitorrepository.MeasurementSpecification;
+import org.palladiosimulator.monitorrepository.Monitor;
 import org.palladiosimulator.monitorrepository.MonitorRepository;
 import org.palladiosimulator.pcm.resourceenvironment.ResourceEnvironment;
+import org.palladiosimulator.probeframework.calculator.Calculator;
+import org.palladiosimulator.probeframework.calculator.RegisterCalculatorFactoryDecorator;
 import org.palladiosimulator.probeframework.probes.TriggeredProbe;
 import org.palladiosimulator.probeframework.probes.TriggeredProbeList;
 import org.palladiosimulator.simulizar.access.IModelAccess;
 import org.palladiosimulator.simulizar.access.ModelAccess;
+import org.palladiosimulator.simulizar.interpreter.AbstractRDSeffSwitchFactory;
+import org.palladiosimulator.simulizar.interpreter.AllocationIndex;
+import org.palladiosimulator.simulizar.interpreter.BranchSelectorCache;
+import org.palladiosimulator.simulizar.interpreter.CompiledExpressionCache;
+import org.palladiosimulator.simulizar.interpreter.ComponentParameterCache;
+import org.palladiosimulator.simulizar.interpreter.ConnectorIndex;
 import org.palladiosimulator.simulizar.interpreter.EventNotificationHelper;
+import org.palladiosimulator.simulizar.interpreter.ForkStatistics;
 import org.palladiosimulator.simulizar.interpreter.InterpreterDefaultContext;
+import org.palladiosimulator.simulizar.interpreter.ResourceDemandingBehaviourPlanCache;
+import org.palladiosimulator.simulizar.interpreter.ResourceTypeIndex;
+import org.palladiosimulator.simulizar.interpreter.ServiceEffectSpecificationIndex;
+import org.palladiosimulator.simulizar.interpreter.UsageModelIndex;
+import org.palladiosimulator.simulizar.interpreter.VariableBindingCache;
 import org.palladiosimulator.simulizar.interpreter.listener.BeginReconfigurationEvent;
 import org.palladiosimulator.simulizar.interpreter.listener.EndReconfigurationEvent;
 import org.palladiosimulator.simulizar.interpreter.listener.EventResult;
@@ -31,6 +60,7 @@ import org.palladiosimulator.simulizar.reconfiguration.Reconfigurator;
 import org.palladiosimulator.simulizar.runconfig.SimuLizarWorkflowConfiguration;
 import org.palladiosimulator.simulizar.usagemodel.SimulatedUsageModels;
 import org.palladiosimulator.simulizar.usagemodel.UsageEvolverFacade;
+import org.palladiosimulator.simulizar.utils.MetricConfidenceStopCondition;
 import org.palladiosimulator.simulizar.utils.MonitorRepositoryUtil;
 
 import de.uka.ipd.sdq.simucomframework.ExperimentRunner;
@@ -55,18 +85,34 @@ public abstract class AbstractSimuLizarRuntimeState {
 
     private static final Logger LOGGER = Logger.getLogger(SimuLizarRuntimeState.class);
 
+    /** The runtime state whose simulation is run by the current thread or the thread it started from. */
+    private static final InheritableThreadLocal<AbstractSimuLizarRuntimeState> RUNNING_STATE = new InheritableThreadLocal<>();
+
     protected final SimuComModel model;
     protected final EventNotificationHelper eventHelper;
     private final ComponentInstanceRegistry componentInstanceRegistry;
+    private final ResourceDemandingBehaviourPlanCache behaviourPlanCache;
+    private final CompiledExpressionCache expressionCache;
+    private final ConnectorIndex connectorIndex;
+    private final AllocationIndex allocationIndex;
+    private final ResourceTypeIndex resourceTypeIndex;
+    private final ServiceEffectSpecificationIndex serviceEffectSpecificationIndex;
+    private final BranchSelectorCache branchSelectorCache;
+    private final VariableBindingCache variableBindingCache;
+    private final ComponentParameterCache componentParameterCache;
+    private final UsageModelIndex usageModelIndex;
+    private final ForkStatistics forkStatistics;
     private final InterpreterDefaultContext mainContext;
     private final SimulatedUsageModels usageModels;
     private final ModelAccess modelAccess;
     private final Reconfigurator reconfigurator;
     private final List<IModelObserver> modelObservers;
+    private final Map<Class<?>, Object> extensionStates = new ConcurrentHashMap<Class<?>, Object>();
     protected final SimulationCancelationDelegate cancelationDelegate;
     protected final UsageEvolverFacade usageEvolverFacade;
 
     private long numberOfContainers = 0;
+    private List<AbstractRDSeffSwitchFactory> rdseffSwitchFactories;
 
     /**
      * @param configuration
@@ -78,9 +124,32 @@ public abstract class AbstractSimuLizarRuntimeState {
         this.modelAccess = modelAccess;
         this.cancelationDelegate = cancelationDelegate;
         this.model = SimuComModelFactory.createSimuComModel(configuration);
+        // creating the model replaced SimuCom's global random generator by the one of this run
+        ThreadBoundRandomGenerator.install(this.model.getConfiguration().getRandomGenerator());
 
         this.eventHelper = new EventNotificationHelper();
         this.componentInstanceRegistry = new ComponentInstanceRegistry();
+        this.behaviourPlanCache = new ResourceDemandingBehaviourPlanCache();
+        this.modelAccess.addLocalModelChangeListener(this.behaviourPlanCache);
+        this.expressionCache = new CompiledExpressionCache(this.model.getConfiguration().getRandomGenerator());
+        this.modelAccess.addLocalModelChangeListener(this.expressionCache);
+        this.connectorIndex = new ConnectorIndex();
+        this.modelAccess.addLocalModelChangeListener(this.connectorIndex);
+        this.allocationIndex = new AllocationIndex();
+        this.modelAccess.addLocalModelChangeListener(this.allocationIndex);
+        this.resourceTypeIndex = new ResourceTypeIndex();
+        this.modelAccess.addLocalModelChangeListener(this.resourceTypeIndex);
+        this.serviceEffectSpecificationIndex = new ServiceEffectSpecificationIndex();
+        this.modelAccess.addLocalModelChangeListener(this.serviceEffectSpecificationIndex);
+        this.branchSelectorCache = new BranchSelectorCache();
+        this.modelAccess.addLocalModelChangeListener(this.branchSelectorCache);
+        this.variableBindingCache = new VariableBindingCache();
+        this.modelAccess.addLocalModelChangeListener(this.variableBindingCache);
+        this.componentParameterCache = new ComponentParameterCache(this.variableBindingCache, this.expressionCache);
+        this.modelAccess.addLocalModelChangeListener(this.componentParameterCache);
+        this.usageModelIndex = new UsageModelIndex();
+        this.modelAccess.addLocalModelChangeListener(this.usageModelIndex);
+        this.forkStatistics = new ForkStatistics(LOGGER.isDebugEnabled());
         this.mainContext = new InterpreterDefaultContext(this);
         this.usageModels = new SimulatedUsageModels(this.mainContext);
         this.initializeWorkloadDrivers();
@@ -95,6 +164,8 @@ public abstract class AbstractSimuLizarRuntimeState {
         // resources created in ResourceEnvironmentSyncer!
         this.initializeCancelation();
         this.initializeInterpreterListeners(this.reconfigurator);
+        // the confidence stop condition observes calculators created by the interpreter listeners
+        this.initializeConfidenceStopCondition(configuration);
         this.usageEvolverFacade = new UsageEvolverFacade(this);
         this.initializeUsageEvolver();
         this.modelAccess.startObservingPcmChanges();
@@ -118,6 +189,96 @@ public abstract class AbstractSimuLizarRuntimeState {
         return this.componentInstanceRegistry;
     }
 
+    /**
+     * @return the cache of compiled RDSEFF behaviour plans
+     */
+    public ResourceDemandingBehaviourPlanCache getBehaviourPlanCache() {
+        return this.behaviourPlanCache;
+    }
+
+    /**
+     * @return the cache of compiled stochastic expressions
+     */
+    public CompiledExpressionCache getExpressionCache() {
+        return this.expressionCache;
+    }
+
+    /**
+     * @return the index of connectors attached to required roles
+     */
+    public ConnectorIndex getConnectorIndex() {
+        return this.connectorIndex;
+    }
+
+    /**
+     * @return the index of allocation contexts and their simulated resource containers
+     */
+    public AllocationIndex getAllocationIndex() {
+        return this.allocationIndex;
+    }
+
+    /**
+     * @return the factories of the switches extending the RDSEFF interpreter; resolved from the
+     *         extension registry on first access
+     */
+    public List<AbstractRDSeffSwitchFactory> getRDSeffSwitchFactories() {
+        if (this.rdseffSwitchFactories == null) {
+            this.rdseffSwitchFactories = Collections.unmodifiableList(ExtensionHelper.getExecutableExtensions(
+                    SimulizarConstants.RDSEFFSWITCH_EXTENSION_POINT_ID,
+                    SimulizarConstants.RDSEFFSWITCH_EXTENSION_ATTRIBUTE));
+        }
+        return this.rdseffSwitchFactories;
+    }
+
+    /**
+     * @return the index of resource types providing resource interfaces
+     */
+    public ResourceTypeIndex getResourceTypeIndex() {
+        return this.resourceTypeIndex;
+    }
+
+    /**
+     * @return the index of SEFFs by the signatures they describe
+     */
+    public ServiceEffectSpecificationIndex getServiceEffectSpecificationIndex() {
+        return this.serviceEffectSpecificationIndex;
+    }
+
+    /**
+     * @return the cache of the selectors of probabilistic branches
+     */
+    public BranchSelectorCache getBranchSelectorCache() {
+        return this.branchSelectorCache;
+    }
+
+    /**
+     * @return the cache of the bindings of variable usages
+     */
+    public VariableBindingCache getVariableBindingCache() {
+        return this.variableBindingCache;
+    }
+
+    /**
+     * @return the cache of the static parameters of basic component instances
+     */
+    public ComponentParameterCache getComponentParameterCache() {
+        return this.componentParameterCache;
+    }
+
+    /**
+     * @return the index of usage scenarios and the start actions of scenario behaviours
+     */
+    public UsageModelIndex getUsageModelIndex() {
+        return this.usageModelIndex;
+    }
+
+    /**
+     * @return the statistics on the overhead of interpreting fork actions
+     */
+    public ForkStatistics getForkStatistics() {
+        return this.forkStatistics;
+    }
+
     public InterpreterDefaultContext getMainContext() {
         return this.mainContext;
     }
@@ -130,6 +291,58 @@ public abstract class AbstractSimuLizarRuntimeState {
         return this.modelAccess;
     }
 
+    /**
+     * Gets the state an extension keeps for this runtime state, creating it on first access.
+     * Extensions keep their per-run state here rather than in static fields, so that several
+     * runtime states can be simulated concurrently in one JVM. The states are dropped on
+     * {@link #cleanUp()}.
+     *
+     * @param key
+     *            the class identifying the state, usually the class of the state itself.
+     * @param factory
+     *            creates the state on first access.
+     * @return the state of the extension.
+     */
+    public <T> T getExtensionState(final Class<T> key, final Supplier<? extends T> factory) {
+        return key.cast(this.extensionStates.computeIfAbsent(key, k -> factory.get()));
+    }
+
+    /**
+     * Removes the state an extension keeps for this runtime state.
+     *
+     * @param key
+     *            the class identifying the state.
+     * @return the removed state, or {@code null} if there was none.
+     */
+    public <T> T removeExtensionState(final Class<T> key) {
+        return key.cast(this.extensionStates.remove(key));
+    }
+
+    /**
+     * Gets the runtime state whose simulation is run by the current thread. The runtime state is
+     * bound to the thread calling {@link #runSimulation()} and inherited by the threads started
+     * from it. The simulated processes of SimuLizar bind it again when they are started, since
+     * their threads may have been started by another simulation, e.g., if they are reused from a
+     * pool.
+     *
+     * @return the running runtime state, or {@code null} if the current thread does not run a
+     *         simulation.
+     */
+    public static AbstractSimuLizarRuntimeState getRunningState() {
+        return RUNNING_STATE.get();
+    }
+
+    /**
+     * Binds this runtime state to the current thread, see {@link #getRunningState()}. Has to be
+     * called at the start of the life cycle of every simulated process, i.e., of simulated users,
+     * forked behaviours, reconfiguration and adaptation processes.
+     */
+    public void bindToCurrentThread() {
+        if (RUNNING_STATE.get() != this) {
+            RUNNING_STATE.set(this);
+        }
+    }
+
     public boolean isCanceled() {
         return this.cancelationDelegate.isCanceled();
     }
@@ -146,7 +359,13 @@ public abstract class AbstractSimuLizarRuntimeState {
 
     public void runSimulation() {
         LOGGER.debug("Starting Simulizar simulation...");
-        final double simRealTimeNano = ExperimentRunner.run(this.model);
+        final double simRealTimeNano;
+        this.bindToCurrentThread();
+        try {
+            simRealTimeNano = ExperimentRunner.run(this.model);
+        } finally {
+            RUNNING_STATE.remove();
+        }
         LOGGER.debug(
                 "Finished Simulation. Simulator took " + (simRealTimeNano / Math.pow(10, 9)) + " real time seconds");
     }
@@ -157,9 +376,23 @@ public abstract class AbstractSimuLizarRuntimeState {
         this.reconfigurator.removeAllObserver();
         this.reconfigurator.cleanUp();
         this.modelAccess.stopObservingPcmChanges();
+        this.modelAccess.removeLocalModelChangeListener(this.behaviourPlanCache);
+        this.modelAccess.removeLocalModelChangeListener(this.expressionCache);
+        this.modelAccess.removeLocalModelChangeListener(this.connectorIndex);
+        this.modelAccess.removeLocalModelChangeListener(this.allocationIndex);
+        this.modelAccess.removeLocalModelChangeListener(this.resourceTypeIndex);
+        this.modelAccess.removeLocalModelChangeListener(this.serviceEffectSpecificationIndex);
+        this.modelAccess.removeLocalModelChangeListener(this.branchSelectorCache);
+        this.modelAccess.removeLocalModelChangeListener(this.variableBindingCache);
+        this.modelAccess.removeLocalModelChangeListener(this.componentParameterCache);
+        this.modelAccess.removeLocalModelChangeListener(this.usageModelIndex);
+        LOGGER.debug("Compiled expression cache: " + this.expressionCache.getHits() + " hits, "
+                + this.expressionCache.getMisses() + " misses");
+        LOGGER.debug("Fork overhead: " + this.forkStatistics);
         this.model.getProbeFrameworkContext().finish();
         this.model.getConfiguration().getRecorderConfigurationFactory().finalizeRecorderConfigurationFactory();
         this.modelObservers.forEach(IModelObserver::unregister);
+        this.extensionStates.clear();
     }
 
     private void initializeWorkloadDrivers() {
@@ -284,6 +517,102 @@ public abstract class AbstractSimuLizarRuntimeState {
         this.model.getSimulationControl().addStopCondition(this::isCanceled);
     }
 
+    /**
+     * Initializes the stop condition on the confidence of the metrics selected in the
+     * configuration. Response times and throughputs are observed at the measuring points of the
+     * active response time monitors, utilizations at the measuring points of the active state of
+     * active resource and utilization monitors.
+     */
+    private void initializeConfidenceStopCondition(final SimuLizarWorkflowConfiguration configuration) {
+        final Set<String> metrics = new HashSet<String>();
+        for (final String metric : configuration.getConfidenceStopMetrics().split(",")) {
+            if (!metric.trim().isEmpty()) {
+                metrics.add(metric.trim());
+            }
+        }
+        final MonitorRepository monitorRepository = this.modelAccess.getMonitorRepositoryModel();
+        if (metrics.isEmpty() || monitorRepository == null) {
+            return;
+        }
+        final boolean responseTime = metrics.remove(SimulizarConstants.CONFIDENCE_STOP_METRIC_RESPONSE_TIME);
+        final boolean throughput = metrics.remove(SimulizarConstants.CONFIDENCE_STOP_METRIC_THROUGHPUT);
+        final boolean utilization = metrics.remove(SimulizarConstants.CONFIDENCE_STOP_METRIC_UTILIZATION);
+        if (!metrics.isEmpty()) {
+            throw new IllegalArgumentException("Unknown metrics " + metrics + " for the confidence stop condition");
+        }
+
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(
+                configuration.getConfidenceStopLevel(), configuration.getConfidenceStopHalfWidth(),
+                configuration.getConfidenceStopBatchSize(), configuration.getConfidenceStopBatchDuration());
+        final RegisterCalculatorFactoryDecorator calculatorFactory = RegisterCalculatorFactoryDecorator.class
+                .cast(this.model.getProbeFrameworkContext().getCalculatorFactory());
+        final Set<String> observedMeasuringPoints = new HashSet<String>();
+        for (final Monitor monitor : monitorRepository.getMonitors()) {
+            if (!monitor.isActivated()) {
+                continue;
+            }
+            final MeasuringPoint measuringPoint = monitor.getMeasuringPoint();
+            for (final MeasurementSpecification measurementSpecification : monitor.getMeasurementSpecifications()) {
+                final MetricDescription metric = measurementSpecification.getMetricDescription();
+                if ((responseTime || throughput) && isMetric(metric, RESPONSE_TIME_METRIC, RESPONSE_TIME_METRIC_TUPLE)
+                        && observedMeasuringPoints.add(measuringPoint.getStringRepresentation())) {
+                    final Calculator calculator = findCalculator(calculatorFactory, measuringPoint,
+                            RESPONSE_TIME_METRIC_TUPLE);
+                    if (calculator != null && responseTime) {
+                        condition.observeSamples(calculator, (NumericalBaseMetricDescription) RESPONSE_TIME_METRIC);
+                    }
+                    if (calculator != null && throughput) {
+                        condition.observeThroughput(calculator);
+                    }
+                } else if (utilization
+                        && isMetric(metric, STATE_OF_ACTIVE_RESOURCE_METRIC, UTILIZATION_OF_ACTIVE_RESOURCE,
+                                UTILIZATION_OF_ACTIVE_RESOURCE_TUPLE)
+                        && observedMeasuringPoints.add(measuringPoint.getStringRepresentation())) {
+                    final Calculator calculator = findCalculator(calculatorFactory, measuringPoint,
+                            STATE_OF_ACTIVE_RESOURCE_METRIC_TUPLE);
+                    if (calculator != null) {
+                        condition.observeUtilization(calculator);
+                    }
+                }
+            }
+        }
+
+        if (condition.getNumberOfObservations() == 0) {
+            LOGGER.warn("No calculators found for the metrics of the confidence stop condition, "
+                    + "the simulation run is not stopped on confidence");
+        } else {
+            LOGGER.info("Stopping the simulation run as soon as the confidence of "
+                    + condition.getNumberOfObservations() + " metrics has been reached");
+            this.model.getSimulationControl().addStopCondition(condition);
+        }
+    }
+
+    private static boolean isMetric(final MetricDescription metric, final MetricDescription... candidates) {
+        for (final MetricDescription candidate : candidates) {
+            if (MetricDescriptionUtility.metricDescriptionIdsEqual(metric, candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Calculator findCalculator(final RegisterCalculatorFactoryDecorator calculatorFactory,
+            final MeasuringPoint measuringPoint, final MetricDescription metric) {
+        final Calculator calculator = calculatorFactory
+                .getCalculatorByMeasuringPointAndMetricDescription(measuringPoint, metric);
+        if (calculator != null) {
+            return calculator;
+        }
+        for (final Calculator candidate : calculatorFactory.getCalculatorsForMeasuringPoint(measuringPoint)) {
+            if (candidate.isCompatibleWith(metric)) {
+                return candidate;
+            }
+        }
+        LOGGER.warn("No '" + metric.getName() + "' calculator available for measuring point '"
+                + measuringPoint.getStringRepresentation() + "', it is not observed by the confidence stop condition");
+        return null;
+    }
+
     public UsageEvolverFacade getUsageEvolverFacade() {
         return this.usageEvolverFacade;
     }
@@ -1,18 +1,29 @@
 package org.palladiosimulator.simulizar.runtimestate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+
 public class ComponentInstanceRegistry {
 
     private final Map<String, SimulatedComponentInstance> componentInstances;
 
+    /**
+     * Trie over the assembly context ids of the registered instances, allows to look up instances
+     * by their assembly context path without building their fully qualified id.
+     */
+    private final PathNode root;
+
     /**
      *
      */
     protected ComponentInstanceRegistry() {
         super();
         this.componentInstances = new HashMap<String, SimulatedComponentInstance>();
+        this.root = new PathNode();
     }
 
     public void addComponentInstance(final SimulatedComponentInstance instance) {
@@ -23,6 +34,17 @@ public class ComponentInstanceRegistry {
             throw new IllegalArgumentException("Component Instance already exists");
         }
         this.componentInstances.put(instance.getFqn(), instance);
+
+        PathNode node = this.root;
+        for (final String assemblyContextId : instance.getAssemblyContextIds()) {
+            PathNode child = node.children.get(assemblyContextId);
+            if (child == null) {
+                child = new PathNode();
+                node.children.put(assemblyContextId, child);
+            }
+            node = child;
+        }
+        node.instance = instance;
     }
 
     public void removeComponentInstance(final SimulatedComponentInstance instance) {
@@ -33,28 +55,94 @@ public class ComponentInstanceRegistry {
             throw new IllegalArgumentException("Component Instance must exists");
         }
         this.componentInstances.remove(instance.getFqn());
+
+        final List<String> assemblyContextIds = instance.getAssemblyContextIds();
+        final List<PathNode> path = new ArrayList<PathNode>(assemblyContextIds.size() + 1);
+        PathNode node = this.root;
+        path.add(node);
+        for (final String assemblyContextId : assemblyContextIds) {
+            node = node.children.get(assemblyContextId);
+            if (node == null) {
+                throw new IllegalStateException("No component instance registered for " + instance.getFqn());
+            }
+            path.add(node);
+        }
+        node.instance = null;
+
+        // prune the nodes which neither hold an instance nor lead to one
+        for (int i = assemblyContextIds.size(); i > 0; i--) {
+            final PathNode pathNode = path.get(i);
+            if (pathNode.instance != null || !pathNode.children.isEmpty()) {
+                break;
+            }
+            path.get(i - 1).children.remove(assemblyContextIds.get(i - 1));
+        }
     }
 
     public boolean hasComponentInstance(final FQComponentID id) {
         if (id == null) {
             throw new IllegalArgumentException("Null not allowed as component instance");
         }
-        return this.componentInstances.containsKey(id.getFQIDString());
+        return this.hasComponentInstance(id.getAssembyContextPath());
     }
 
     public SimulatedComponentInstance getComponentInstance(final FQComponentID id) {
         if (id == null) {
             throw new IllegalArgumentException("Null not allowed as component instance");
         }
-        String fqid = id.getFQIDString();
-        if (!this.componentInstances.containsKey(fqid)) {
-            throw new IllegalArgumentException("Component Instance must exists");
+        return this.getComponentInstance(id.getAssembyContextPath());
+    }
+
+    /**
+     * @param assemblyContextPath
+     *            the assembly context path of the instance, e.g., the assembly context stack of a
+     *            simulated thread.
+     * @return true if an instance is registered for the given path.
+     */
+    public boolean hasComponentInstance(final List<AssemblyContext> assemblyContextPath) {
+        return this.findComponentInstance(assemblyContextPath) != null;
+    }
+
+    /**
+     * @param assemblyContextPath
+     *            the assembly context path of the instance, e.g., the assembly context stack of a
+     *            simulated thread.
+     * @return the instance registered for the given path.
+     * @throws IllegalArgumentException
+     *             if no instance is registered for the given path.
+     */
+    public SimulatedComponentInstance getComponentInstance(final List<AssemblyContext> assemblyContextPath) {
+        final SimulatedComponentInstance instance = this.findComponentInstance(assemblyContextPath);
+        if (instance == null) {
+            throw new IllegalArgumentException(
+                    "No component instance registered for " + new FQComponentID(assemblyContextPath));
+        }
+        return instance;
+    }
+
+    private SimulatedComponentInstance findComponentInstance(final List<AssemblyContext> assemblyContextPath) {
+        if (assemblyContextPath == null) {
+            throw new IllegalArgumentException("Null not allowed as component instance");
         }
-        return this.componentInstances.get(fqid);
+        PathNode node = this.root;
+        for (int i = 0; i < assemblyContextPath.size(); i++) {
+            node = node.children.get(assemblyContextPath.get(i).getId());
+            if (node == null) {
+                return null;
+            }
+        }
+        return node.instance;
     }
-    
+
     public void cleanUpInstancesAndRegistry() {
     	this.componentInstances.values().forEach(SimulatedComponentInstance::cleanUp);
     	this.componentInstances.clear();
+    	this.root.children.clear();
+    }
+
+    private static final class PathNode {
+
+        private final Map<String, PathNode> children = new HashMap<String, PathNode>(4);
+        private SimulatedComponentInstance instance;
     }
 }
@@ -7,6 +7,7 @@ import java.util.Queue;
 
 import org.palladiosimulator.metricspec.constants.MetricDescriptionConstants;
 import org.palladiosimulator.monitorrepository.MeasurementSpecification;
+import org.palladiosimulator.pcm.allocation.Allocation;
 import org.palladiosimulator.pcm.core.composition.AssemblyContext;
 import org.palladiosimulator.pcm.repository.PassiveResource;
 import org.palladiosimulator.simulizar.interpreter.InterpreterDefaultContext;
@@ -15,24 +16,27 @@ import org.palladiosimulator.simulizar.utils.MonitorRepositoryUtil;
 import de.uka.ipd.sdq.scheduler.IPassiveResource;
 import de.uka.ipd.sdq.scheduler.ISchedulableProcess;
 import de.uka.ipd.sdq.scheduler.processes.IWaitingProcess;
+import de.uka.ipd.sdq.simucomframework.resources.AbstractSimulatedResourceContainer;
 import de.uka.ipd.sdq.simucomframework.resources.CalculatorHelper;
 import de.uka.ipd.sdq.simucomframework.resources.SimSimpleFairPassiveResource;
-import de.uka.ipd.sdq.simucomframework.variables.StackContext;
 
 public class SimulatedBasicComponentInstance extends SimulatedComponentInstance {
 
     private final Map<String, IPassiveResource> passiveResourcesMap;
 
+    private Allocation resolvedAllocation;
+    private long resolvedVersion;
+    private AbstractSimulatedResourceContainer resolvedResourceContainer;
+
     public SimulatedBasicComponentInstance(final InterpreterDefaultContext context, final FQComponentID fqID,
             final List<PassiveResource> passiveResources) {
-        super(context.getRuntimeState(), fqID.getFQIDString());
+        super(context.getRuntimeState(), fqID);
 
         this.passiveResourcesMap = new HashMap<String, IPassiveResource>();
         final AssemblyContext myAssCtx = fqID.getAssembyContextPath().get(fqID.getAssembyContextPath().size() - 1);
         for (final PassiveResource passiveResource : passiveResources) {
-            final long initialCount = (long) StackContext.evaluateStatic(
-                    passiveResource.getCapacity_PassiveResource().getSpecification(), Long.class,
-                    context.getStack().currentStackFrame());
+            final long initialCount = context.getRuntimeState().getExpressionCache().evaluate(
+                    passiveResource.getCapacity_PassiveResource(), Long.class, context.getStack().currentStackFrame());
             final IPassiveResource simulatedResource = new SimSimpleFairPassiveResource(passiveResource, myAssCtx,
                     this.getRuntimeState().getModel(), initialCount);
             this.passiveResourcesMap.put(passiveResource.getId(), simulatedResource);
@@ -89,6 +93,42 @@ public class SimulatedBasicComponentInstance extends SimulatedComponentInstance
         return this.passiveResourcesMap.get(passiveResource.getId()).getAvailable();
     }
 
+    /**
+     * Gets the simulated resource container this instance has been resolved to for the given
+     * allocation.
+     *
+     * @param allocation
+     *            the allocation of the local model the caller works on.
+     * @param version
+     *            the current version of the allocation index of the runtime state.
+     * @return the resolved resource container, null if it has not been resolved for the given
+     *         allocation and version yet.
+     */
+    public AbstractSimulatedResourceContainer getResolvedResourceContainer(final Allocation allocation,
+            final long version) {
+        if (this.resolvedAllocation == allocation && this.resolvedVersion == version) {
+            return this.resolvedResourceContainer;
+        }
+        return null;
+    }
+
+    /**
+     * Remembers the simulated resource container this instance is deployed on.
+     *
+     * @param allocation
+     *            the allocation the container has been resolved from.
+     * @param version
+     *            the version of the allocation index of the runtime state used for resolution.
+     * @param resourceContainer
+     *            the resolved resource container.
+     */
+    public void setResolvedResourceContainer(final Allocation allocation, final long version,
+            final AbstractSimulatedResourceContainer resourceContainer) {
+        this.resolvedAllocation = allocation;
+        this.resolvedVersion = version;
+        this.resolvedResourceContainer = resourceContainer;
+    }
+
     /**
      * @param passiveResource
      */
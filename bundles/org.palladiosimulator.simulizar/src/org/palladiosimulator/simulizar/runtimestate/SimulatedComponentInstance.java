@@ -1,20 +1,49 @@
 package org.palladiosimulator.simulizar.runtimestate;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.palladiosimulator.pcm.core.composition.AssemblyContext;
+
 public abstract class SimulatedComponentInstance {
 
+    private static final String FQID_SEPARATOR = "::";
+
     private final String myID;
+    private final List<String> assemblyContextIds;
     private AbstractSimuLizarRuntimeState runtimeState;
 
     protected SimulatedComponentInstance(final AbstractSimuLizarRuntimeState runtimeState, final String fqID) {
         super();
         this.runtimeState = runtimeState;
         this.myID = fqID;
+        this.assemblyContextIds = Collections.unmodifiableList(Arrays.asList(fqID.split(FQID_SEPARATOR)));
+    }
+
+    protected SimulatedComponentInstance(final AbstractSimuLizarRuntimeState runtimeState, final FQComponentID fqID) {
+        super();
+        this.runtimeState = runtimeState;
+        this.myID = fqID.getFQIDString();
+        final List<String> ids = new ArrayList<String>(fqID.getAssembyContextPath().size());
+        for (final AssemblyContext assemblyContext : fqID.getAssembyContextPath()) {
+            ids.add(assemblyContext.getId());
+        }
+        this.assemblyContextIds = Collections.unmodifiableList(ids);
     }
 
     public String getFqn() {
         return this.myID;
     }
 
+    /**
+     * @return the ids of the assembly contexts on the path of this instance, outermost first.
+     */
+    public List<String> getAssemblyContextIds() {
+        return this.assemblyContextIds;
+    }
+
     /**
      * @return the runtimeState
      */
@@ -6,4 +6,9 @@ public class SimulatedCompositeComponentInstance extends SimulatedComponentInsta
         super(runtimeState, fqId);
     }
 
+    public SimulatedCompositeComponentInstance(final AbstractSimuLizarRuntimeState runtimeState,
+            final FQComponentID fqId) {
+        super(runtimeState, fqId);
+    }
+
 }
@@ -0,0 +1,49 @@
+package org.palladiosimulator.simulizar.runtimestate;
+
+import de.uka.ipd.sdq.probfunction.math.IProbabilityFunctionFactory;
+import de.uka.ipd.sdq.probfunction.math.IRandomGenerator;
+import de.uka.ipd.sdq.probfunction.math.impl.DefaultRandomGenerator;
+import de.uka.ipd.sdq.probfunction.math.impl.ProbabilityFunctionFactoryImpl;
+import de.uka.ipd.sdq.simucomframework.variables.cache.StoExCache;
+
+/**
+ * Random generator for the evaluation of stochastic expressions which draws from the random
+ * generator of the simulation run by the current thread.
+ *
+ * SimuCom evaluates stochastic expressions with a single, global random generator, which is
+ * replaced by the generator of each newly created SimuCom model. If several simulations are run
+ * concurrently, all of them would draw from the generator of the simulation created last, and none
+ * of them would be reproducible. This generator draws from the generator of the
+ * {@link AbstractSimuLizarRuntimeState#getRunningState() runtime state run by the current thread}
+ * instead, and from the given generator on threads which do not run a simulation.
+ */
+final class ThreadBoundRandomGenerator extends DefaultRandomGenerator {
+
+    private final IRandomGenerator unboundGenerator;
+
+    private ThreadBoundRandomGenerator(final IRandomGenerator unboundGenerator) {
+        super();
+        this.unboundGenerator = unboundGenerator;
+    }
+
+    /**
+     * Installs a thread bound random generator as global random generator of SimuCom.
+     *
+     * @param unboundGenerator
+     *            the generator used by threads which do not run a simulation.
+     */
+    static void install(final IRandomGenerator unboundGenerator) {
+        final IProbabilityFunctionFactory probFunctionFactory = ProbabilityFunctionFactoryImpl.getInstance();
+        probFunctionFactory.setRandomGenerator(new ThreadBoundRandomGenerator(unboundGenerator));
+        StoExCache.initialiseStoExCache(probFunctionFactory);
+    }
+
+    @Override
+    public double random() {
+        final AbstractSimuLizarRuntimeState runningState = AbstractSimuLizarRuntimeState.getRunningState();
+        if (runningState == null) {
+            return this.unboundGenerator.random();
+        }
+        return runningState.getModel().getConfiguration().getRandomGenerator().random();
+    }
+}
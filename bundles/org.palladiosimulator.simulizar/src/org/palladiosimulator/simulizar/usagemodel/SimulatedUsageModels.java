@@ -118,16 +118,17 @@ public class SimulatedUsageModels {
             public void scenarioRunner(final SimuComSimProcess thread) {
                 final InterpreterDefaultContext newContext = new InterpreterDefaultContext(
                         SimulatedUsageModels.this.rootContext, thread);
+                newContext.getRuntimeState().bindToCurrentThread();
                 final UsageModel usageModel = newContext.getModelAccess().getLocalPCMModel().getUsageModel();
-                
+                final UsageScenario localScenario = newContext.getRuntimeState().getUsageModelIndex()
+                        .getUsageScenario(usageModel, scenario.getId());
+
                 // If the UsageScenario is not contained in the UsageModel (e.g. it has
-                // been removed after the workload scheduled the new user, and before the 
+                // been removed after the workload scheduled the new user, and before the
                 // user starts execution) simply exit without processing the scenario.
-                usageModel.getUsageScenario_UsageModel().stream()
-                	.filter(sc -> sc.getId().equals(scenario.getId()))
-                	.findAny().ifPresent(sc -> {
-                	    new UsageScenarioSwitch<Object>(newContext).doSwitch(sc);
-                	});
+                if (localScenario != null) {
+                    new UsageScenarioSwitch<Object>(newContext).doSwitch(localScenario);
+                }
             }
         };
     }
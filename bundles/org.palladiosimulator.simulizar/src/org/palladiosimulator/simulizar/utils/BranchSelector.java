@@ -0,0 +1,172 @@
+package org.palladiosimulator.simulizar.utils;
+
+import java.util.List;
+
+import org.palladiosimulator.pcm.seff.AbstractBranchTransition;
+import org.palladiosimulator.pcm.seff.ProbabilisticBranchTransition;
+import org.palladiosimulator.pcm.usagemodel.BranchTransition;
+
+/**
+ * Immutable table to select a branch transition with respect to the probabilities of the
+ * transitions by a single random number.
+ *
+ * Branches with up to {@value #MAX_CUMULATIVE_SEARCH_SIZE} transitions are selected by a binary
+ * search on the cumulative probabilities; for a given random number, the selected transition is
+ * the same as with a linear search on the summed probabilities. Wider branches are selected in
+ * constant time using an alias table (Walker's alias method, built with Vose's algorithm).
+ * Probabilities do not need to sum up to one, they are normalized by their sum.
+ */
+public final class BranchSelector {
+
+    /**
+     * The maximum number of transitions for which a cumulative search is used.
+     */
+    public static final int MAX_CUMULATIVE_SEARCH_SIZE = 16;
+
+    private final double[] cumulativeProbabilities;
+    private final double[] aliasProbabilities;
+    private final int[] aliases;
+
+    private BranchSelector(final double[] cumulativeProbabilities, final double[] aliasProbabilities,
+            final int[] aliases) {
+        super();
+        this.cumulativeProbabilities = cumulativeProbabilities;
+        this.aliasProbabilities = aliasProbabilities;
+        this.aliases = aliases;
+    }
+
+    /**
+     * Creates the selector for the given branch probabilities.
+     *
+     * @param probabilities
+     *            the probabilities of the branch transitions, in the order of the transitions.
+     * @return the selector.
+     */
+    public static BranchSelector create(final double[] probabilities) {
+        final double[] cumulativeProbabilities = new double[probabilities.length];
+        double currentSum = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            cumulativeProbabilities[i] = (currentSum = currentSum + probabilities[i]);
+        }
+        if (probabilities.length <= MAX_CUMULATIVE_SEARCH_SIZE || !(currentSum > 0)) {
+            return new BranchSelector(cumulativeProbabilities, null, null);
+        }
+        return createAliasTable(probabilities, cumulativeProbabilities, currentSum);
+    }
+
+    /**
+     * Creates the selector for a list of probabilistic branch transitions of an RDSEFF.
+     *
+     * @param probabilisticBranchTransitions
+     *            the list of probabilistic branch transitions.
+     * @return the selector.
+     */
+    public static BranchSelector createForProbabilisticTransitions(
+            final List<AbstractBranchTransition> probabilisticBranchTransitions) {
+        final double[] probabilities = new double[probabilisticBranchTransitions.size()];
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = ((ProbabilisticBranchTransition) probabilisticBranchTransitions.get(i))
+                    .getBranchProbability();
+        }
+        return create(probabilities);
+    }
+
+    /**
+     * Creates the selector for a list of branch transitions of a usage model.
+     *
+     * @param branchTransitions
+     *            the list of branch transitions.
+     * @return the selector.
+     */
+    public static BranchSelector createForBranchTransitions(final List<BranchTransition> branchTransitions) {
+        final double[] probabilities = new double[branchTransitions.size()];
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = branchTransitions.get(i).getBranchProbability();
+        }
+        return create(probabilities);
+    }
+
+    /**
+     * Selects a branch transition.
+     *
+     * @param randomNumber
+     *            a random number uniformly distributed in [0, 1).
+     * @return the index of the selected transition, or -1 if there are no transitions or their
+     *         probabilities do not sum up to a positive value.
+     */
+    public int select(final double randomNumber) {
+        if (this.aliases != null) {
+            final double scaled = randomNumber * this.aliases.length;
+            final int column = Math.min((int) scaled, this.aliases.length - 1);
+            return scaled - column < this.aliasProbabilities[column] ? column : this.aliases[column];
+        }
+        final int size = this.cumulativeProbabilities.length;
+        if (size == 0) {
+            return -1;
+        }
+        final double target = this.cumulativeProbabilities[size - 1] * randomNumber;
+        // first index whose cumulative probability exceeds the target
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            final int middle = (low + high) >>> 1;
+            if (target < this.cumulativeProbabilities[middle]) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+        return low < size ? low : -1;
+    }
+
+    /**
+     * @return the number of branch transitions.
+     */
+    public int size() {
+        return this.cumulativeProbabilities.length;
+    }
+
+    private static BranchSelector createAliasTable(final double[] probabilities,
+            final double[] cumulativeProbabilities, final double sum) {
+        final int size = probabilities.length;
+        final double[] aliasProbabilities = new double[size];
+        final int[] aliases = new int[size];
+        final double[] scaled = new double[size];
+        final int[] small = new int[size];
+        final int[] large = new int[size];
+        int smallCount = 0;
+        int largeCount = 0;
+        for (int i = 0; i < size; i++) {
+            scaled[i] = probabilities[i] * size / sum;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            final int less = small[--smallCount];
+            final int more = large[--largeCount];
+            aliasProbabilities[less] = scaled[less];
+            aliases[less] = more;
+            scaled[more] = (scaled[more] + scaled[less]) - 1.0;
+            if (scaled[more] < 1.0) {
+                small[smallCount++] = more;
+            } else {
+                large[largeCount++] = more;
+            }
+        }
+        // remaining columns are full up to rounding errors
+        while (largeCount > 0) {
+            final int column = large[--largeCount];
+            aliasProbabilities[column] = 1.0;
+            aliases[column] = column;
+        }
+        while (smallCount > 0) {
+            final int column = small[--smallCount];
+            aliasProbabilities[column] = 1.0;
+            aliases[column] = column;
+        }
+        return new BranchSelector(cumulativeProbabilities, aliasProbabilities, aliases);
+    }
+}
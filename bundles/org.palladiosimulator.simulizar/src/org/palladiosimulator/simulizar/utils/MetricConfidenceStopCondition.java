@@ -0,0 +1,378 @@
+package org.palladiosimulator.simulizar.utils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.measure.Measure;
+import javax.measure.quantity.Dimensionless;
+import javax.measure.quantity.Duration;
+import javax.measure.unit.SI;
+import javax.measure.unit.Unit;
+
+import org.apache.log4j.Logger;
+import org.palladiosimulator.measurementframework.MeasuringValue;
+import org.palladiosimulator.measurementframework.listener.IMeasurementSourceListener;
+import org.palladiosimulator.metricspec.NumericalBaseMetricDescription;
+import org.palladiosimulator.metricspec.constants.MetricDescriptionConstants;
+import org.palladiosimulator.probeframework.calculator.Calculator;
+
+import de.uka.ipd.sdq.simulation.abstractsimengine.SimCondition;
+import de.uka.ipd.sdq.statistics.IBatchAlgorithm;
+import de.uka.ipd.sdq.statistics.StaticBatchAlgorithm;
+import de.uka.ipd.sdq.statistics.estimation.ConfidenceInterval;
+import de.uka.ipd.sdq.statistics.estimation.IConfidenceEstimator;
+import de.uka.ipd.sdq.statistics.estimation.SampleMeanEstimator;
+
+/**
+ * Provides a stop condition which determines when to stop a single simulation run based on the
+ * confidence intervals around the means of several metrics, estimated by the method of batch means
+ * while the run proceeds. The condition is met as soon as the confidence interval of every observed
+ * metric lies within the requested relative half width around its mean.
+ *
+ * Sample based metrics, e.g. response times, are grouped into batches of a fixed number of samples.
+ * Time based metrics, i.e. the utilization derived from the state of an active resource and the
+ * throughput derived from the number of measurements of a calculator, are grouped into batches of a
+ * fixed simulated time. A batch of a time based metric is completed by the first measurement taken
+ * after the end of the batch.
+ */
+public class MetricConfidenceStopCondition implements SimCondition {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricConfidenceStopCondition.class);
+
+    /** Minimum number of batch means from which a confidence interval is estimated. */
+    private static final int MIN_NUMBER_OF_BATCHES = 10;
+
+    private final double confidenceLevel;
+    private final double halfWidth;
+    private final int batchSize;
+    private final double batchDuration;
+    private final List<MetricObservation> observations = new ArrayList<MetricObservation>();
+
+    /** number of observations whose confidence has been reached */
+    private int confidentObservations = 0;
+
+    /**
+     * @param confidenceLevel
+     *            the confidence level. Use values between 0 and 1.
+     * @param halfWidth
+     *            the relative half width of the target confidence intervals. Use values between 0
+     *            and 1.
+     * @param batchSize
+     *            the number of samples of a batch of a sample based metric.
+     * @param batchDuration
+     *            the simulated time of a batch of a time based metric, in seconds.
+     * @throws IllegalArgumentException
+     *             In case any of the arguments is out of range.
+     */
+    public MetricConfidenceStopCondition(final double confidenceLevel, final double halfWidth, final int batchSize,
+            final double batchDuration) {
+        if (!(confidenceLevel > 0 && confidenceLevel < 1) || !(halfWidth > 0 && halfWidth < 1) || batchSize < 1
+                || !(batchDuration > 0)) {
+            throw new IllegalArgumentException("Invalid confidence stop condition: level " + confidenceLevel
+                    + ", half width " + halfWidth + ", batch size " + batchSize + ", batch duration " + batchDuration);
+        }
+        this.confidenceLevel = confidenceLevel;
+        this.halfWidth = halfWidth;
+        this.batchSize = batchSize;
+        this.batchDuration = batchDuration;
+    }
+
+    /**
+     * Observes the samples of the given metric measured by the given calculator.
+     *
+     * @param calculator
+     *            the calculator.
+     * @param metric
+     *            the metric of the calculator's measurements whose mean is estimated.
+     */
+    public void observeSamples(final Calculator calculator, final NumericalBaseMetricDescription metric) {
+        calculator.addObserver(this.observeSamples(name(calculator, metric.getName()), metric));
+    }
+
+    /**
+     * Observes the samples of the given metric which are passed to the returned observation.
+     *
+     * @param name
+     *            the name of the observation, used for logging.
+     * @param metric
+     *            the metric of the measurements whose mean is estimated.
+     * @return the observation, which has to be registered as listener of the measurements.
+     */
+    public MetricObservation observeSamples(final String name, final NumericalBaseMetricDescription metric) {
+        return this.observe(new SampleObservation(name, metric));
+    }
+
+    /**
+     * Observes the utilization of an active resource, i.e., the fraction of time in which the state
+     * measured by the given calculator is greater than 0.
+     *
+     * @param stateOfActiveResourceCalculator
+     *            the calculator of the state of the active resource.
+     */
+    public void observeUtilization(final Calculator stateOfActiveResourceCalculator) {
+        stateOfActiveResourceCalculator
+                .addObserver(this.observeUtilization(name(stateOfActiveResourceCalculator, "Utilization")));
+    }
+
+    /**
+     * Observes the utilization of an active resource, i.e., the fraction of time in which the state
+     * of the active resource passed to the returned observation is greater than 0.
+     *
+     * @param name
+     *            the name of the observation, used for logging.
+     * @return the observation, which has to be registered as listener of the state of the active
+     *         resource.
+     */
+    public MetricObservation observeUtilization(final String name) {
+        return this.observe(new UtilizationObservation(name));
+    }
+
+    /**
+     * Observes the throughput, i.e., the number of measurements per second, of the given calculator.
+     *
+     * @param calculator
+     *            the calculator.
+     */
+    public void observeThroughput(final Calculator calculator) {
+        calculator.addObserver(this.observeThroughput(name(calculator, "Throughput")));
+    }
+
+    /**
+     * Observes the throughput, i.e., the number of measurements per second passed to the returned
+     * observation.
+     *
+     * @param name
+     *            the name of the observation, used for logging.
+     * @return the observation, which has to be registered as listener of the measurements.
+     */
+    public MetricObservation observeThroughput(final String name) {
+        return this.observe(new ThroughputObservation(name));
+    }
+
+    /**
+     * @return the number of observed metrics.
+     */
+    public int getNumberOfObservations() {
+        return this.observations.size();
+    }
+
+    @Override
+    public boolean check() {
+        return !this.observations.isEmpty() && this.confidentObservations == this.observations.size();
+    }
+
+    private MetricObservation observe(final MetricObservation observation) {
+        this.observations.add(observation);
+        return observation;
+    }
+
+    private static String name(final Calculator calculator, final String metricName) {
+        return metricName + " at " + calculator.getMeasuringPoint().getStringRepresentation();
+    }
+
+    private static double getPointInTime(final MeasuringValue measurement) {
+        final Measure<Double, Duration> pointInTime = measurement
+                .getMeasureForMetric(MetricDescriptionConstants.POINT_IN_TIME_METRIC);
+        return pointInTime.doubleValue(SI.SECOND);
+    }
+
+    /**
+     * Estimates the mean of a single metric from its batch means.
+     */
+    public abstract class MetricObservation implements IMeasurementSourceListener {
+
+        private final String name;
+        private final IBatchAlgorithm batchAlgorithm;
+        private final IConfidenceEstimator estimator = new SampleMeanEstimator();
+        private boolean confidenceReached = false;
+        private int minBatches = MIN_NUMBER_OF_BATCHES;
+
+        private MetricObservation(final String name, final int samplesPerBatch) {
+            this.name = name;
+            this.batchAlgorithm = new StaticBatchAlgorithm(samplesPerBatch, MIN_NUMBER_OF_BATCHES);
+        }
+
+        /**
+         * @return the name of the observation.
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return the means of the batches completed so far. No further batches are completed once
+         *         the requested confidence has been reached.
+         */
+        public List<Double> getBatchMeans() {
+            return Collections.unmodifiableList(this.batchAlgorithm.getBatchMeans());
+        }
+
+        /**
+         * @return whether the requested confidence has been reached for this metric.
+         */
+        public boolean isConfidenceReached() {
+            return this.confidenceReached;
+        }
+
+        protected void offerSample(final double value) {
+            if (this.confidenceReached) {
+                return;
+            }
+            this.batchAlgorithm.offerSample(value);
+            if (!this.batchAlgorithm.hasValidBatches()
+                    || this.batchAlgorithm.getBatchMeans().size() < this.minBatches) {
+                return;
+            }
+            // estimate again as soon as the next batch is completed
+            this.minBatches = this.batchAlgorithm.getBatchMeans().size() + 1;
+
+            final ConfidenceInterval ci = this.estimator.estimateConfidence(this.batchAlgorithm.getBatchMeans(),
+                    MetricConfidenceStopCondition.this.confidenceLevel);
+            if (ci == null) {
+                return;
+            }
+            final ConfidenceInterval targetCI = new ConfidenceInterval(ci.getMean(),
+                    MetricConfidenceStopCondition.this.halfWidth, MetricConfidenceStopCondition.this.confidenceLevel);
+            if (targetCI.contains(ci)) {
+                this.confidenceReached = true;
+                MetricConfidenceStopCondition.this.confidentObservations++;
+                if (LOGGER.isInfoEnabled()) {
+                    LOGGER.info("Requested confidence reached for " + this.name + " after "
+                            + this.batchAlgorithm.getBatchMeans().size() + " batches: Mean " + ci.getMean() + ", "
+                            + MetricConfidenceStopCondition.this.confidenceLevel * 100 + "% Confidence Interval ["
+                            + ci.getLowerBound() + "," + ci.getUpperBound() + "]");
+                }
+            } else if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("Requested confidence not yet reached for " + this.name + ": Mean " + ci.getMean()
+                        + ", Confidence Interval [" + ci.getLowerBound() + "," + ci.getUpperBound() + "]");
+            }
+        }
+
+        @Override
+        public void preUnregister() {
+        }
+    }
+
+    /**
+     * Observation whose batches consist of a fixed number of samples.
+     */
+    private final class SampleObservation extends MetricObservation {
+
+        private final NumericalBaseMetricDescription metric;
+
+        private SampleObservation(final String name, final NumericalBaseMetricDescription metric) {
+            super(name, MetricConfidenceStopCondition.this.batchSize);
+            this.metric = metric;
+        }
+
+        @Override
+        public void newMeasurementAvailable(final MeasuringValue newMeasurement) {
+            this.offerSample(
+                    newMeasurement.getMeasureForMetric(this.metric).doubleValue(this.metric.getDefaultUnit()));
+        }
+    }
+
+    /**
+     * Observation whose batches cover a fixed simulated time. Each batch contributes a single batch
+     * mean, which is offered as a batch of size 1.
+     */
+    private abstract class TimeBatchObservation extends MetricObservation {
+
+        private double batchEnd = Double.NaN;
+
+        private TimeBatchObservation(final String name) {
+            super(name, 1);
+        }
+
+        /**
+         * Completes all batches ending before the given point in time.
+         */
+        protected void advanceTo(final double pointInTime) {
+            if (Double.isNaN(this.batchEnd)) {
+                this.batchEnd = pointInTime + MetricConfidenceStopCondition.this.batchDuration;
+                return;
+            }
+            while (pointInTime >= this.batchEnd) {
+                this.accumulateUntil(this.batchEnd);
+                this.offerSample(this.completeBatch(MetricConfidenceStopCondition.this.batchDuration));
+                this.batchEnd += MetricConfidenceStopCondition.this.batchDuration;
+            }
+            this.accumulateUntil(pointInTime);
+        }
+
+        /**
+         * Accounts for the time since the last accumulation.
+         */
+        protected abstract void accumulateUntil(double pointInTime);
+
+        /**
+         * @return the mean of the completed batch; resets the accumulated values.
+         */
+        protected abstract double completeBatch(double duration);
+    }
+
+    private final class UtilizationObservation extends TimeBatchObservation {
+
+        private double lastPointInTime = Double.NaN;
+        private boolean busy = false;
+        private double busyTime = 0;
+
+        private UtilizationObservation(final String name) {
+            super(name);
+        }
+
+        @Override
+        public void newMeasurementAvailable(final MeasuringValue newMeasurement) {
+            final double pointInTime = getPointInTime(newMeasurement);
+            if (Double.isNaN(this.lastPointInTime)) {
+                this.lastPointInTime = pointInTime;
+            }
+            this.advanceTo(pointInTime);
+            final Measure<Long, Dimensionless> state = newMeasurement
+                    .getMeasureForMetric(MetricDescriptionConstants.STATE_OF_ACTIVE_RESOURCE_METRIC);
+            this.busy = state.doubleValue(Unit.ONE) > 0;
+        }
+
+        @Override
+        protected void accumulateUntil(final double pointInTime) {
+            if (this.busy) {
+                this.busyTime += pointInTime - this.lastPointInTime;
+            }
+            this.lastPointInTime = pointInTime;
+        }
+
+        @Override
+        protected double completeBatch(final double duration) {
+            final double utilization = this.busyTime / duration;
+            this.busyTime = 0;
+            return utilization;
+        }
+    }
+
+    private final class ThroughputObservation extends TimeBatchObservation {
+
+        private long count = 0;
+
+        private ThroughputObservation(final String name) {
+            super(name);
+        }
+
+        @Override
+        public void newMeasurementAvailable(final MeasuringValue newMeasurement) {
+            this.advanceTo(getPointInTime(newMeasurement));
+            this.count++;
+        }
+
+        @Override
+        protected void accumulateUntil(final double pointInTime) {
+        }
+
+        @Override
+        protected double completeBatch(final double duration) {
+            final double throughput = this.count / duration;
+            this.count = 0;
+            return throughput;
+        }
+    }
+}
@@ -6,8 +6,10 @@ import java.util.Map.Entry;
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.EList;
 import org.palladiosimulator.pcm.core.PCMRandomVariable;
-import org.palladiosimulator.pcm.parameter.VariableCharacterisation;
 import org.palladiosimulator.pcm.parameter.VariableUsage;
+import org.palladiosimulator.simulizar.interpreter.CompiledExpressionCache;
+import org.palladiosimulator.simulizar.interpreter.InterpreterDefaultContext;
+import org.palladiosimulator.simulizar.runtimestate.AbstractSimuLizarRuntimeState;
 
 import de.uka.ipd.sdq.simucomframework.variables.EvaluationProxy;
 import de.uka.ipd.sdq.simucomframework.variables.StackContext;
@@ -17,12 +19,15 @@ import de.uka.ipd.sdq.simucomframework.variables.stackframe.SimulatedStackframe;
 import de.uka.ipd.sdq.stoex.AbstractNamedReference;
 import de.uka.ipd.sdq.stoex.NamespaceReference;
 import de.uka.ipd.sdq.stoex.VariableReference;
-import de.uka.ipd.sdq.stoex.analyser.visitors.StoExPrettyPrintVisitor;
 import de.uka.ipd.sdq.stoex.util.StoexSwitch;
 
 /**
  * A simulated stack for the pcm interpreter with some convenience methods.
  *
+ * The methods taking an {@link InterpreterDefaultContext} use the {@link VariableBinding}s and
+ * compiled expressions cached by the runtime state of the context, so variable ids and the INNER
+ * classification of the variable usages are only resolved once per local model copy.
+ *
  * @author Joachim Meyer, Christian Stier
  *
  */
@@ -30,6 +35,21 @@ public final class SimulatedStackHelper {
 
     private static final Logger LOGGER = Logger.getLogger(SimulatedStackHelper.class);
 
+    private static final StoexSwitch<Boolean> INNER_REFERENCE_SWITCH = new StoexSwitch<Boolean>() {
+
+        @Override
+        public Boolean caseVariableReference(final VariableReference object) {
+            return object.getReferenceName().equals("INNER");
+        }
+
+        @Override
+        public Boolean caseNamespaceReference(final NamespaceReference object) {
+            return object.getReferenceName().equals("INNER")
+                    || this.doSwitch(object.getInnerReference_NamespaceReference());
+        }
+
+    };
+
     /**
      * Adds parameters to given stack frame.
      *
@@ -40,34 +60,52 @@ public final class SimulatedStackHelper {
      */
     public static final void addParameterToStackFrame(final SimulatedStackframe<Object> contextStackFrame,
             final EList<VariableUsage> parameter, final SimulatedStackframe<Object> targetStackFrame) {
-        for (final VariableUsage variableUsage : parameter) {
-            for (final VariableCharacterisation variableCharacterisation : variableUsage
-                    .getVariableCharacterisation_VariableUsage()) {
-
-                final PCMRandomVariable randomVariable = variableCharacterisation
-                        .getSpecification_VariableCharacterisation();
-
-                final AbstractNamedReference namedReference = variableCharacterisation
-                        .getVariableUsage_VariableCharacterisation().getNamedReference__VariableUsage();
-
-                final String id = new StoExPrettyPrintVisitor().doSwitch(namedReference).toString() + "."
-                        + variableCharacterisation.getType().getLiteral();
-                ;
-                if (SimulatedStackHelper.isInnerReference(namedReference)) {
-                    targetStackFrame.addValue(id,
-                            new EvaluationProxy(randomVariable.getSpecification(), contextStackFrame.copyFrame()));
-                } else {
-                    targetStackFrame.addValue(id,
-                            StackContext.evaluateStatic(randomVariable.getSpecification(), contextStackFrame));
-                }
+        addParameterToStackFrame(contextStackFrame, VariableBinding.bind(parameter), null, targetStackFrame);
+    }
+
+    /**
+     * Adds parameters to given stack frame, using the variable bindings and compiled expressions
+     * cached by the runtime state of the given context.
+     *
+     * @param context
+     *            the interpreter context.
+     * @param contextStackFrame
+     *            the stack frame used to evaluate the parameters.
+     * @param parameter
+     *            the parameter.
+     * @param targetStackFrame
+     *            the stack frame.
+     */
+    public static final void addParameterToStackFrame(final InterpreterDefaultContext context,
+            final SimulatedStackframe<Object> contextStackFrame, final EList<VariableUsage> parameter,
+            final SimulatedStackframe<Object> targetStackFrame) {
+        final AbstractSimuLizarRuntimeState runtimeState = context.getRuntimeState();
+        addParameterToStackFrame(contextStackFrame, runtimeState.getVariableBindingCache().getBindings(parameter),
+                runtimeState.getExpressionCache(), targetStackFrame);
+    }
+
+    private static void addParameterToStackFrame(final SimulatedStackframe<Object> contextStackFrame,
+            final VariableBinding[] bindings, final CompiledExpressionCache expressionCache,
+            final SimulatedStackframe<Object> targetStackFrame) {
+        for (final VariableBinding binding : bindings) {
+            final PCMRandomVariable randomVariable = binding.getRandomVariable();
+            final String id = binding.getId();
+            if (binding.isInner()) {
+                targetStackFrame.addValue(id,
+                        new EvaluationProxy(randomVariable.getSpecification(), contextStackFrame.copyFrame()));
+            } else if (expressionCache == null) {
+                targetStackFrame.addValue(id,
+                        StackContext.evaluateStatic(randomVariable.getSpecification(), contextStackFrame));
+            } else {
+                targetStackFrame.addValue(id, expressionCache.getExpression(randomVariable).evaluate(contextStackFrame));
+            }
 
-                if (LOGGER.isDebugEnabled()) {
-                    try {
-                        LOGGER.debug("Added value " + targetStackFrame.getValue(id) + " for id " + id
-                                + " to stackframe " + targetStackFrame);
-                    } catch (final ValueNotInFrameException e) {
-                        throw new RuntimeException(e);
-                    }
+            if (LOGGER.isDebugEnabled()) {
+                try {
+                    LOGGER.debug("Added value " + targetStackFrame.getValue(id) + " for id " + id + " to stackframe "
+                            + targetStackFrame);
+                } catch (final ValueNotInFrameException e) {
+                    throw new RuntimeException(e);
                 }
             }
         }
@@ -81,20 +119,7 @@ public final class SimulatedStackHelper {
      * @return true, if the reference's name is "INNER"; false else.
      */
     public static boolean isInnerReference(final AbstractNamedReference reference) {
-        return new StoexSwitch<Boolean>() {
-
-            @Override
-            public Boolean caseVariableReference(final VariableReference object) {
-                return object.getReferenceName().equals("INNER");
-            }
-
-            @Override
-            public Boolean caseNamespaceReference(final NamespaceReference object) {
-                return object.getReferenceName().equals("INNER")
-                        || this.doSwitch(object.getInnerReference_NamespaceReference());
-            }
-
-        }.doSwitch(reference);
+        return INNER_REFERENCE_SWITCH.doSwitch(reference);
     }
 
     /**
@@ -122,6 +147,53 @@ public final class SimulatedStackHelper {
      */
     public static final SimulatedStackframe<Object> createAndPushNewStackFrame(final SimulatedStack<Object> stack,
             final EList<VariableUsage> parameter, final SimulatedStackframe<Object> parent) {
+        final SimulatedStackframe<Object> stackFrame = createStackFrame(parent);
+        addParameterToStackFrame(stack.size() == 0 ? null : stack.currentStackFrame(), parameter, stackFrame);
+        stack.pushStackFrame(stackFrame);
+        return stackFrame;
+    }
+
+    /**
+     * Convenience method creating new stack frame, adds it to the stack of the given context and
+     * puts parameters into frame, using the variable bindings and compiled expressions cached by
+     * the runtime state of the context.
+     *
+     * @param context
+     *            the interpreter context.
+     * @param parameter
+     *            the parameter.
+     * @return the created stack frame.
+     */
+    public static final SimulatedStackframe<Object> createAndPushNewStackFrame(
+            final InterpreterDefaultContext context, final EList<VariableUsage> parameter) {
+        return createAndPushNewStackFrame(context, parameter, null);
+    }
+
+    /**
+     * Convenience method creating new stack frame with parent, adds it to the stack of the given
+     * context and puts parameters into frame, using the variable bindings and compiled expressions
+     * cached by the runtime state of the context.
+     *
+     * @param context
+     *            the interpreter context.
+     * @param parameter
+     *            the parameter.
+     * @param parent
+     *            the parent, if null no parent will be set.
+     * @return the created stack frame.
+     */
+    public static final SimulatedStackframe<Object> createAndPushNewStackFrame(
+            final InterpreterDefaultContext context, final EList<VariableUsage> parameter,
+            final SimulatedStackframe<Object> parent) {
+        final SimulatedStack<Object> stack = context.getStack();
+        final SimulatedStackframe<Object> stackFrame = createStackFrame(parent);
+        addParameterToStackFrame(context, stack.size() == 0 ? null : stack.currentStackFrame(), parameter,
+                stackFrame);
+        stack.pushStackFrame(stackFrame);
+        return stackFrame;
+    }
+
+    private static SimulatedStackframe<Object> createStackFrame(final SimulatedStackframe<Object> parent) {
         SimulatedStackframe<Object> stackFrame;
         if (parent == null) {
             stackFrame = new SimulatedStackframe<Object>();
@@ -131,8 +203,6 @@ public final class SimulatedStackHelper {
         if (LOGGER.isDebugEnabled()) {
             LOGGER.debug("Added new stack frame: " + stackFrame);
         }
-        addParameterToStackFrame(stack.size() == 0 ? null : stack.currentStackFrame(), parameter, stackFrame);
-        stack.pushStackFrame(stackFrame);
         return stackFrame;
     }
 
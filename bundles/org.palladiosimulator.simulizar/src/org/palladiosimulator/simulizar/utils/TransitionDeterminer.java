@@ -1,24 +1,27 @@
 package org.palladiosimulator.simulizar.utils;
 
-import java.util.ArrayList;
-import java.util.List;
-
 import org.apache.log4j.Logger;
 import org.eclipse.emf.common.util.EList;
 import org.palladiosimulator.pcm.core.PCMRandomVariable;
 import org.palladiosimulator.pcm.seff.AbstractBranchTransition;
+import org.palladiosimulator.pcm.seff.BranchAction;
 import org.palladiosimulator.pcm.seff.GuardedBranchTransition;
 import org.palladiosimulator.pcm.seff.ProbabilisticBranchTransition;
+import org.palladiosimulator.pcm.usagemodel.Branch;
 import org.palladiosimulator.pcm.usagemodel.BranchTransition;
+import org.palladiosimulator.simulizar.exceptions.PCMModelInterpreterException;
 import org.palladiosimulator.simulizar.interpreter.InterpreterDefaultContext;
 
 import de.uka.ipd.sdq.simucomframework.SimuComConfig;
-import de.uka.ipd.sdq.simucomframework.variables.StackContext;
 
 /**
  *
  * Util class to determine a transition based on probabilities.
  *
+ * Probabilistic transitions are selected by {@link BranchSelector}s. The selectors of branch
+ * actions and usage model branches are cached per local model copy in the
+ * {@link org.palladiosimulator.simulizar.interpreter.BranchSelectorCache} of the runtime state.
+ *
  * @author Joachim Meyer
  *
  */
@@ -51,31 +54,10 @@ public class TransitionDeterminer {
      * @return true if holds, otherwise false.
      */
     private boolean conditionHolds(final PCMRandomVariable condition) {
-        return StackContext.evaluateStatic(condition.getSpecification(), Boolean.class,
+        return this.context.getRuntimeState().getExpressionCache().evaluate(condition, Boolean.class,
                 this.context.getStack().currentStackFrame());
     }
 
-    /**
-     * Sums the probabilities of the list of probabilities. In a list of summed probabilities, each
-     * value of an element in the list has its own probability added by the previous probability.
-     * Means, if the the first probabilities in the list of probabilities is 0.3, the value of the
-     * first element in the summed probability list is 0.3. If the second probabilities in the list
-     * of probabilities is 0.4, the corresponding value in the summed probability list is 0.4+0.3
-     * and so on.
-     *
-     * @param branchProbabilities
-     *            a list with branch probabilities.
-     * @return the summed probability list.
-     */
-    protected List<Double> createSummedProbabilityList(final List<Double> branchProbabilities) {
-        double currentSum = 0;
-        final List<Double> summedProbabilityList = new ArrayList<Double>();
-        for (final Double probability : branchProbabilities) {
-            summedProbabilityList.add((currentSum = currentSum + probability));
-        }
-        return summedProbabilityList;
-    }
-
     /**
      * Determines a branch transition out of a list of branch transitions, with respect to their
      * probabilities.
@@ -85,10 +67,26 @@ public class TransitionDeterminer {
      * @return a branch transition.
      */
     public BranchTransition determineBranchTransition(final EList<BranchTransition> branchTransitions) {
-        final List<Double> summedProbabilityList = this
-                .createSummedProbabilityList(this.extractProbabiltiesUsageModel(branchTransitions));
+        return this.determineBranchTransition(branchTransitions,
+                BranchSelector.createForBranchTransitions(branchTransitions));
+    }
 
-        final int transitionIndex = this.getRandomIndex(summedProbabilityList, this.config);
+    /**
+     * Determines a branch transition of a usage model branch, with respect to the probabilities of
+     * its transitions.
+     *
+     * @param branch
+     *            the branch.
+     * @return a branch transition.
+     */
+    public BranchTransition determineBranchTransition(final Branch branch) {
+        return this.determineBranchTransition(branch.getBranchTransitions_Branch(),
+                this.context.getRuntimeState().getBranchSelectorCache().getSelector(branch));
+    }
+
+    private BranchTransition determineBranchTransition(final EList<BranchTransition> branchTransitions,
+            final BranchSelector selector) {
+        final int transitionIndex = this.getRandomIndex(selector);
 
         final BranchTransition branchTransition = branchTransitions.get(transitionIndex);
         if (LOGGER.isDebugEnabled()) {
@@ -147,10 +145,13 @@ public class TransitionDeterminer {
      */
     public ProbabilisticBranchTransition determineProbabilisticBranchTransition(
             final EList<AbstractBranchTransition> probabilisticBranchTransitions) {
-        final List<Double> summedProbabilityList = this
-                .createSummedProbabilityList(this.extractProbabiltiesRDSEFF(probabilisticBranchTransitions));
+        return this.determineProbabilisticBranchTransition(probabilisticBranchTransitions,
+                BranchSelector.createForProbabilisticTransitions(probabilisticBranchTransitions));
+    }
 
-        final int transitionIndex = this.getRandomIndex(summedProbabilityList, this.config);
+    private ProbabilisticBranchTransition determineProbabilisticBranchTransition(
+            final EList<AbstractBranchTransition> probabilisticBranchTransitions, final BranchSelector selector) {
+        final int transitionIndex = this.getRandomIndex(selector);
 
         final ProbabilisticBranchTransition branchTransition = (ProbabilisticBranchTransition) probabilisticBranchTransitions
                 .get(transitionIndex);
@@ -186,63 +187,41 @@ public class TransitionDeterminer {
     }
 
     /**
-     * Extracts the probabilities of a list of ProbabilisticBranchTransition.
-     *
-     * @param probabilisticBranchTransitions
-     *            the list of ProbabilisticBranchTransition.
-     * @return a list only containing the probabilities.
-     */
-    protected List<Double> extractProbabiltiesRDSEFF(
-            final EList<AbstractBranchTransition> probabilisticBranchTransitions) {
-        final List<Double> probabilityList = new ArrayList<Double>();
-        for (final AbstractBranchTransition probabilisticBranchTransition : probabilisticBranchTransitions) {
-            probabilityList.add(((ProbabilisticBranchTransition) probabilisticBranchTransition).getBranchProbability());
-        }
-        return probabilityList;
-    }
-
-    /**
-     * Extracts the probabilities of a list of BranchTransition.
+     * Determines a branch transition of the given branch action. The branch action can only
+     * contain either probabilistic or guarded branch transitions.
      *
-     * @param branchTransitions
-     *            the list of BranchTransition.
-     * @return a list only containing the probabilities.
+     * @param branchAction
+     *            the branch action.
+     * @return the determined AbstractBranchTransition.
      */
-    protected List<Double> extractProbabiltiesUsageModel(final EList<BranchTransition> branchTransitions) {
-        final List<Double> probabilityList = new ArrayList<Double>();
-        for (final BranchTransition branchTransition : branchTransitions) {
-            probabilityList.add(branchTransition.getBranchProbability());
+    public AbstractBranchTransition determineTransition(final BranchAction branchAction) {
+        final EList<AbstractBranchTransition> abstractBranchTransitions = branchAction.getBranches_Branch();
+        if (abstractBranchTransitions.get(0) instanceof ProbabilisticBranchTransition) {
+            LOGGER.debug("Found ProbabilisticBranchTransitions");
+            return this.determineProbabilisticBranchTransition(abstractBranchTransitions,
+                    this.context.getRuntimeState().getBranchSelectorCache().getSelector(branchAction));
         }
-        return probabilityList;
+        LOGGER.debug("Found GuardedBranchTransitions");
+        return this.determineGuardedBranchTransition(abstractBranchTransitions);
     }
 
     /**
-     * Method calculates a random index for the given list of summed probabilities.
+     * Draws a random index with the given selector.
      *
-     * @param summedProbabilityList
-     *            a list of summed probabilities.
-     * @param simuComConfig
-     *            the SimuCom config.
-     * @return a random index, or -1 if summedProbabilityList is empty, or no index can be
-     *         determined.
+     * @param selector
+     *            the selector of the branch transitions.
+     * @return a random index.
+     * @throws PCMModelInterpreterException
+     *             if no index can be determined, i.e., the branch has no transitions or the
+     *             probabilities of its transitions do not sum up to a positive value.
      */
-    private int getRandomIndex(final List<Double> summedProbabilityList, final SimuComConfig simuComConfig) {
-        if (summedProbabilityList.size() == 0) {
-            return -1;
-        }
-
-        final double lastSum = summedProbabilityList.get(summedProbabilityList.size() - 1);
-        final double randomNumer = simuComConfig.getRandomGenerator().random();
-
-        // get branch
-        int i = 0;
-        for (final Double sum : summedProbabilityList) {
-            if (lastSum * randomNumer < sum) {
-                return i;
-            }
-            i++;
+    private int getRandomIndex(final BranchSelector selector) {
+        final int index = selector.select(this.config.getRandomGenerator().random());
+        if (index < 0) {
+            throw new PCMModelInterpreterException(
+                    "No branch transition can be chosen from " + selector.size() + " transitions");
         }
-        return -1;
+        return index;
     }
 
 }
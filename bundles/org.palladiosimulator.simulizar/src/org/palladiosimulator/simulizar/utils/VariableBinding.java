@@ -0,0 +1,76 @@
+package org.palladiosimulator.simulizar.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.palladiosimulator.pcm.core.PCMRandomVariable;
+import org.palladiosimulator.pcm.parameter.VariableCharacterisation;
+import org.palladiosimulator.pcm.parameter.VariableUsage;
+
+import de.uka.ipd.sdq.stoex.AbstractNamedReference;
+import de.uka.ipd.sdq.stoex.analyser.visitors.StoExPrettyPrintVisitor;
+
+/**
+ * Resolved form of a single {@link VariableCharacterisation}: the id under which its value is
+ * stored in a stack frame (e.g., {@code x.VALUE}), whether it characterises an INNER variable and
+ * thus has to be evaluated lazily, and the random variable specifying its value.
+ *
+ * @see SimulatedStackHelper
+ */
+public final class VariableBinding {
+
+    private final String id;
+    private final boolean inner;
+    private final PCMRandomVariable randomVariable;
+
+    private VariableBinding(final String id, final boolean inner, final PCMRandomVariable randomVariable) {
+        super();
+        this.id = id;
+        this.inner = inner;
+        this.randomVariable = randomVariable;
+    }
+
+    /**
+     * Resolves the bindings of all variable characterisations of the given variable usages.
+     *
+     * @param variableUsages
+     *            the variable usages.
+     * @return the bindings, in the order of the usages and their characterisations.
+     */
+    public static VariableBinding[] bind(final List<VariableUsage> variableUsages) {
+        final List<VariableBinding> bindings = new ArrayList<VariableBinding>();
+        for (final VariableUsage variableUsage : variableUsages) {
+            final AbstractNamedReference namedReference = variableUsage.getNamedReference__VariableUsage();
+            final String name = new StoExPrettyPrintVisitor().doSwitch(namedReference).toString();
+            final boolean inner = SimulatedStackHelper.isInnerReference(namedReference);
+            for (final VariableCharacterisation variableCharacterisation : variableUsage
+                    .getVariableCharacterisation_VariableUsage()) {
+                bindings.add(new VariableBinding(name + "." + variableCharacterisation.getType().getLiteral(), inner,
+                        variableCharacterisation.getSpecification_VariableCharacterisation()));
+            }
+        }
+        return bindings.toArray(new VariableBinding[bindings.size()]);
+    }
+
+    /**
+     * @return the id of the characterised variable in a stack frame.
+     */
+    public String getId() {
+        return this.id;
+    }
+
+    /**
+     * @return {@code true} if an INNER variable is characterised, whose value has to be evaluated
+     *         lazily.
+     */
+    public boolean isInner() {
+        return this.inner;
+    }
+
+    /**
+     * @return the random variable specifying the value of the variable.
+     */
+    public PCMRandomVariable getRandomVariable() {
+        return this.randomVariable;
+    }
+}
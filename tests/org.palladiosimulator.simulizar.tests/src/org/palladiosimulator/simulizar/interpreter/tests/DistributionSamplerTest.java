@@ -0,0 +1,117 @@
+package org.palladiosimulator.simulizar.interpreter.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.palladiosimulator.simulizar.interpreter.CompiledExpression;
+
+import de.uka.ipd.sdq.probfunction.math.impl.DefaultRandomGenerator;
+
+/**
+ * Tests the batched sampling of single distributions by compiled expressions.
+ */
+public class DistributionSamplerTest {
+
+    private static final long SEED = 4711;
+    private static final int NUMBER_OF_SAMPLES = 200000;
+
+    // constant that denotes the maximum relative delta between an estimated moment and the
+    // expected moment for which both are still considered equal
+    private static final double RELATIVE_DELTA = 0.02;
+
+    @Test
+    public void testExponentialMoments() {
+        // Exp(lambda) has mean 1 / lambda and variance 1 / lambda^2
+        assertMoments("Exp(2.0)", 0.5, 0.25);
+    }
+
+    @Test
+    public void testNormalMoments() {
+        assertMoments("Norm(3.0, 2.0)", 3.0, 4.0);
+    }
+
+    @Test
+    public void testBoxedMoments() {
+        // uniform in [0, 1] and in [1, 3], each with probability 0.5: the mean is
+        // 0.5 * 0.5 + 0.5 * 2 and the second moment 0.5 * 1 / 3 + 0.5 * 13 / 3
+        assertMoments("DoublePDF[(1.0;0.5)(3.0;0.5)]", 1.25, 7.0 / 3.0 - 1.25 * 1.25);
+    }
+
+    @Test
+    public void testBoxedSamplesLieInBoxes() {
+        final CompiledExpression expression = CompiledExpression.compile("DoublePDF[(1.0;0.0)(2.0;1.0)]",
+                new SeededRandomGenerator());
+        assertFalse(expression.isConstant());
+        for (int i = 0; i < 1000; i++) {
+            final double sample = expression.evaluateDouble(null);
+            assertEquals(1.5, sample, 0.5);
+        }
+    }
+
+    @Test
+    public void testExponentialBatchedSequenceMatchesUnbatchedSequence() {
+        final CompiledExpression expression = CompiledExpression.compile("Exp(2.0)", new SeededRandomGenerator());
+        final Random random = new Random(SEED);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(-Math.log(1.0 - random.nextDouble()) / 2.0, expression.evaluateDouble(null), 0);
+        }
+    }
+
+    @Test
+    public void testNormalBatchedSequenceMatchesUnbatchedSequence() {
+        final CompiledExpression expression = CompiledExpression.compile("Norm(3.0,2.0)",
+                new SeededRandomGenerator());
+        final Random random = new Random(SEED);
+        for (int i = 0; i < 1000; i += 2) {
+            final double radius = Math.sqrt(-2.0 * Math.log(1.0 - random.nextDouble()));
+            final double angle = 2.0 * Math.PI * random.nextDouble();
+            assertEquals(3.0 + 2.0 * radius * Math.cos(angle), expression.evaluateDouble(null), 0);
+            assertEquals(3.0 + 2.0 * radius * Math.sin(angle), expression.evaluateDouble(null), 0);
+        }
+    }
+
+    @Test
+    public void testBoxedBatchedSequenceMatchesUnbatchedSequence() {
+        final CompiledExpression expression = CompiledExpression.compile("DoublePDF[(1.0;0.5)(3.0;0.5)]",
+                new SeededRandomGenerator());
+        final Random random = new Random(SEED);
+        for (int i = 0; i < 1000; i++) {
+            final double target = random.nextDouble();
+            final double expected = target < 0.5 ? target / 0.5 : 1.0 + (target - 0.5) / 0.5 * 2.0;
+            assertEquals(expected, expression.evaluateDouble(null), 1e-12);
+        }
+    }
+
+    private static void assertMoments(final String specification, final double expectedMean,
+            final double expectedVariance) {
+        final CompiledExpression expression = CompiledExpression.compile(specification,
+                new SeededRandomGenerator());
+        double sum = 0;
+        double sumOfSquares = 0;
+        for (int i = 0; i < NUMBER_OF_SAMPLES; i++) {
+            final double sample = expression.evaluateDouble(null);
+            sum += sample;
+            sumOfSquares += sample * sample;
+        }
+        final double mean = sum / NUMBER_OF_SAMPLES;
+        final double variance = (sumOfSquares - NUMBER_OF_SAMPLES * mean * mean) / (NUMBER_OF_SAMPLES - 1);
+        assertEquals(expectedMean, mean, RELATIVE_DELTA * Math.abs(expectedMean));
+        assertEquals(expectedVariance, variance, RELATIVE_DELTA * expectedVariance);
+    }
+
+    /**
+     * Random generator drawing from a {@link Random} with a fixed seed.
+     */
+    private static final class SeededRandomGenerator extends DefaultRandomGenerator {
+
+        private final Random random = new Random(SEED);
+
+        @Override
+        public double random() {
+            return this.random.nextDouble();
+        }
+    }
+}
@@ -1,12 +1,30 @@
 package org.palladiosimulator.simulizar.tests;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.POINT_IN_TIME_METRIC;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RESPONSE_TIME_METRIC;
+import static org.palladiosimulator.metricspec.constants.MetricDescriptionConstants.RESPONSE_TIME_METRIC_TUPLE;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.measure.Measure;
+import javax.measure.quantity.Duration;
+import javax.measure.unit.SI;
 
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.NullProgressMonitor;
@@ -21,8 +39,13 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 import org.palladiosimulator.edp2.impl.RepositoryManager;
+import org.palladiosimulator.edp2.models.ExperimentData.ExperimentGroup;
+import org.palladiosimulator.edp2.models.ExperimentData.ExperimentRun;
+import org.palladiosimulator.edp2.models.ExperimentData.ExperimentSetting;
 import org.palladiosimulator.edp2.models.Repository.Repository;
 import org.palladiosimulator.edp2.repository.local.LocalDirectoryRepositoryHelper;
+import org.palladiosimulator.measurementframework.MeasuringValue;
+import org.palladiosimulator.measurementframework.listener.IMeasurementSourceListener;
 import org.palladiosimulator.pcm.allocation.util.AllocationResourceFactoryImpl;
 import org.palladiosimulator.pcm.repository.RepositoryPackage;
 import org.palladiosimulator.pcm.repository.util.RepositoryResourceFactoryImpl;
@@ -31,8 +54,17 @@ import org.palladiosimulator.pcm.resourcetype.ResourcetypePackage;
 import org.palladiosimulator.pcm.resourcetype.util.ResourcetypeResourceFactoryImpl;
 import org.palladiosimulator.pcm.system.util.SystemResourceFactoryImpl;
 import org.palladiosimulator.pcm.usagemodel.util.UsagemodelResourceFactoryImpl;
+import org.palladiosimulator.probeframework.calculator.Calculator;
+import org.palladiosimulator.probeframework.calculator.RegisterCalculatorFactoryDecorator;
+import org.palladiosimulator.simulizar.access.ModelAccess;
+import org.palladiosimulator.simulizar.action.interpreter.ActionRuntimeState;
+import org.palladiosimulator.simulizar.action.interpreter.ExecutionContextKeeper;
+import org.palladiosimulator.simulizar.action.interpreter.util.TransientEffectTransformationCacheKeeper;
 import org.palladiosimulator.simulizar.launcher.SimulizarConstants;
+import org.palladiosimulator.simulizar.launcher.jobs.LoadSimuLizarModelsIntoBlackboardJob;
 import org.palladiosimulator.simulizar.runconfig.SimuLizarWorkflowConfiguration;
+import org.palladiosimulator.simulizar.runtimestate.SimuLizarRuntimeState;
+import org.palladiosimulator.simulizar.runtimestate.SimulationCancelationDelegate;
 import org.palladiosimulator.simulizar.tests.jobs.MinimalPCMInterpreterRootCompositeJob;
 
 import de.uka.ipd.sdq.simucomframework.SimuComConfig;
@@ -59,6 +91,9 @@ public class SimulizarRunConfigTest {
     private static final String USAGEMODEL_EXTENSION = "usagemodel";
 
     private static final String PALLADIO_RESOURCETYPES_PATHMAP = "pathmap://PCM_MODELS/Palladio.resourcetype";
+
+    private static final long SIMULATION_TIME = 2000;
+    private static final long FIXED_SEED = 12345;
     private static final String PALLADIO_RESOURCETYPES_PATHMAP_TARGET = "platform:/plugin/org.palladiosimulator.pcm.resources/defaultModels/Palladio.resourcetype";
     private static final String PRIMITIVE_TYPES_REPO_PATHMAP = "pathmap://PCM_MODELS/PrimitiveTypes.repository";
     private static final String PRIMITIVE_TYPES_REPO_PATHMAP_TARGET = "platform:/plugin/org.palladiosimulator.pcm.resources/defaultModels/PrimitiveTypes.repository";
@@ -115,16 +150,7 @@ public class SimulizarRunConfigTest {
                 .initializeLocalDirectoryRepository(this.tempFolder.newFolder("testRepo"));
         RepositoryManager.addRepository(RepositoryManager.getCentralRepository(), this.repo);
 
-        final Map<String, Object> properties = createSimulationProperties();
-
-        this.simulizarConfiguration = new SimuLizarWorkflowConfiguration(properties);
-        this.simulizarConfiguration.setAllocationFiles(Arrays.asList(allocationUri.toString()));
-        this.simulizarConfiguration.setUsageModelFile(usageModelUri.toString());
-        this.simulizarConfiguration.setMonitorRepositoryFile(SimulizarConstants.DEFAULT_MONITOR_REPOSITORY_FILE);
-        this.simulizarConfiguration
-                .setServiceLevelObjectivesFile(SimulizarConstants.DEFAULT_SERVICELEVELOBJECTIVE_FILE);
-        this.simulizarConfiguration.setUsageEvolutionFile(SimulizarConstants.DEFAULT_USAGEEVOLUTION_FILE);
-        this.simulizarConfiguration.setSimuComConfiguration(new SimuComConfig(properties, false));
+        this.simulizarConfiguration = createConfiguration(createSimulationProperties());
 
         final MDSDBlackboard blackboard = new MDSDBlackboard();
         this.simulizarJob = new MinimalPCMInterpreterRootCompositeJob(this.simulizarConfiguration, blackboard);
@@ -198,6 +224,191 @@ public class SimulizarRunConfigTest {
         runSuccessfulSimulation();
     }
 
+    @Test
+    public void testSuccessfulSimulationRunWithConfidenceStopCondition() throws Exception {
+        // the run is stopped as soon as the confidence of all metrics has been reached, which
+        // happens long before the simulation time has elapsed
+        this.simulizarConfiguration.setMonitorRepositoryFile(monitorRepoUri.toString());
+        this.simulizarConfiguration.setConfidenceStopMetrics(SimulizarConstants.CONFIDENCE_STOP_METRIC_RESPONSE_TIME
+                + "," + SimulizarConstants.CONFIDENCE_STOP_METRIC_THROUGHPUT + ","
+                + SimulizarConstants.CONFIDENCE_STOP_METRIC_UTILIZATION);
+        this.simulizarConfiguration.setConfidenceStopBatchSize(10);
+        this.simulizarConfiguration.setConfidenceStopBatchDuration(10.0);
+
+        final SimuLizarRuntimeState runtimeState = createRuntimeState(this.simulizarConfiguration);
+        final double stopTime;
+        try {
+            runtimeState.runSimulation();
+            stopTime = runtimeState.getModel().getSimulationControl().getCurrentSimulationTime();
+        } finally {
+            runtimeState.cleanUp();
+        }
+        assertTrue("Simulation run not stopped on confidence before " + stopTime, stopTime < SIMULATION_TIME);
+
+        final List<ExperimentRun> experimentRuns = getExperimentRuns();
+        assertEquals(1, experimentRuns.size());
+        assertFalse(experimentRuns.get(0).getMeasurement().isEmpty());
+    }
+
+    @Test
+    public void testSuccessfulSimulationRunWithReplications() {
+        // each replication is stored as an experiment run of its own, with measurements of the
+        // monitors
+        final int numberOfReplications = 3;
+        this.simulizarConfiguration.setMonitorRepositoryFile(monitorRepoUri.toString());
+        this.simulizarConfiguration.setNumberOfReplications(numberOfReplications);
+        this.simulizarConfiguration.setReplicationWorkerThreads(numberOfReplications);
+        runSuccessfulSimulation();
+
+        final List<ExperimentRun> experimentRuns = getExperimentRuns();
+        assertEquals(numberOfReplications, experimentRuns.size());
+        for (final ExperimentRun experimentRun : experimentRuns) {
+            assertFalse(experimentRun.getMeasurement().isEmpty());
+        }
+    }
+
+    @Test
+    public void testConcurrentSimulationRunsAreIsolated() throws Exception {
+        // a run with fixed seeds yields the same measurements whether it is simulated alone or
+        // concurrently with other runs, each run keeps its state apart from the other runs and
+        // stores its results in an experiment run of its own
+        final int numberOfRuns = 3;
+        final Map<String, Object> properties = createSimulationProperties();
+        properties.put(SimuComConfig.USE_FIXED_SEED, true);
+        for (int i = 0; i < 6; i++) {
+            properties.put(SimuComConfig.FIXED_SEED_PREFIX + i, String.valueOf(FIXED_SEED));
+        }
+        final SimuLizarWorkflowConfiguration configuration = createConfiguration(properties);
+        configuration.setMonitorRepositoryFile(monitorRepoUri.toString());
+
+        final SimuLizarRuntimeState aloneRuntimeState = createRuntimeState(configuration.getReplicationClone(0));
+        final Map<String, List<Double>> aloneResponseTimes = observeResponseTimes(aloneRuntimeState);
+        try {
+            aloneRuntimeState.runSimulation();
+        } finally {
+            aloneRuntimeState.cleanUp();
+        }
+        assertFalse(aloneResponseTimes.isEmpty());
+
+        final List<SimuLizarRuntimeState> runtimeStates = new ArrayList<>();
+        final List<Map<String, List<Double>>> responseTimes = new ArrayList<>();
+        for (int i = 0; i < numberOfRuns; i++) {
+            final SimuLizarRuntimeState runtimeState = createRuntimeState(configuration.getReplicationClone(i));
+            new ActionRuntimeState().setRuntimeStateModel(runtimeState);
+            runtimeStates.add(runtimeState);
+            responseTimes.add(observeResponseTimes(runtimeState));
+        }
+
+        for (final SimuLizarRuntimeState runtimeState : runtimeStates) {
+            assertSame(runtimeState, ActionRuntimeState
+                    .getRuntimeState(runtimeState.getModelAccess().getGlobalPCMModel().getAllocation()));
+            for (final SimuLizarRuntimeState otherRuntimeState : runtimeStates) {
+                if (otherRuntimeState != runtimeState) {
+                    assertNotSame(ExecutionContextKeeper.getInstance(runtimeState),
+                            ExecutionContextKeeper.getInstance(otherRuntimeState));
+                    assertNotSame(
+                            TransientEffectTransformationCacheKeeper
+                                    .getTransformationCacheForRuntimeState(runtimeState),
+                            TransientEffectTransformationCacheKeeper
+                                    .getTransformationCacheForRuntimeState(otherRuntimeState));
+                }
+            }
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numberOfRuns);
+        try {
+            final List<Future<?>> runs = new ArrayList<>();
+            for (final SimuLizarRuntimeState runtimeState : runtimeStates) {
+                runs.add(executor.submit(() -> {
+                    try {
+                        runtimeState.runSimulation();
+                    } finally {
+                        runtimeState.cleanUp();
+                    }
+                }));
+            }
+            for (final Future<?> run : runs) {
+                run.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(aloneResponseTimes, responseTimes.get(0));
+
+        final List<ExperimentRun> experimentRuns = getExperimentRuns();
+        assertEquals(numberOfRuns + 1, experimentRuns.size());
+        for (final ExperimentRun experimentRun : experimentRuns) {
+            assertFalse(experimentRun.getMeasurement().isEmpty());
+        }
+    }
+
+    private static SimuLizarWorkflowConfiguration createConfiguration(final Map<String, Object> properties) {
+        final SimuLizarWorkflowConfiguration configuration = new SimuLizarWorkflowConfiguration(properties);
+        configuration.setAllocationFiles(Arrays.asList(allocationUri.toString()));
+        configuration.setUsageModelFile(usageModelUri.toString());
+        configuration.setMonitorRepositoryFile(SimulizarConstants.DEFAULT_MONITOR_REPOSITORY_FILE);
+        configuration.setServiceLevelObjectivesFile(SimulizarConstants.DEFAULT_SERVICELEVELOBJECTIVE_FILE);
+        configuration.setUsageEvolutionFile(SimulizarConstants.DEFAULT_USAGEEVOLUTION_FILE);
+        configuration.setSimuComConfiguration(new SimuComConfig(properties, false));
+        return configuration;
+    }
+
+    /**
+     * Records the points in time and the response times measured by the given runtime state, by
+     * measuring point. Has to be called before the simulation is run.
+     */
+    private static Map<String, List<Double>> observeResponseTimes(final SimuLizarRuntimeState runtimeState) {
+        final Map<String, List<Double>> responseTimes = new TreeMap<>();
+        final RegisterCalculatorFactoryDecorator calculatorFactory = RegisterCalculatorFactoryDecorator.class
+                .cast(runtimeState.getModel().getProbeFrameworkContext().getCalculatorFactory());
+        for (final Calculator calculator : calculatorFactory.getCalculators()) {
+            if (!RESPONSE_TIME_METRIC_TUPLE.getId().equals(calculator.getMetricDesciption().getId())) {
+                continue;
+            }
+            final List<Double> series = new ArrayList<>();
+            responseTimes.put(calculator.getMeasuringPoint().getStringRepresentation(), series);
+            calculator.addObserver(new IMeasurementSourceListener() {
+
+                @Override
+                public void newMeasurementAvailable(final MeasuringValue newMeasurement) {
+                    final Measure<Double, Duration> pointInTime = newMeasurement
+                            .getMeasureForMetric(POINT_IN_TIME_METRIC);
+                    final Measure<Double, Duration> responseTime = newMeasurement
+                            .getMeasureForMetric(RESPONSE_TIME_METRIC);
+                    series.add(pointInTime.doubleValue(SI.SECOND));
+                    series.add(responseTime.doubleValue(SI.SECOND));
+                }
+
+                @Override
+                public void preUnregister() {
+                }
+            });
+        }
+        return responseTimes;
+    }
+
+    private static SimuLizarRuntimeState createRuntimeState(final SimuLizarWorkflowConfiguration configuration)
+            throws Exception {
+        final MDSDBlackboard blackboard = new MDSDBlackboard();
+        final LoadSimuLizarModelsIntoBlackboardJob loadJob = new LoadSimuLizarModelsIntoBlackboardJob(configuration,
+                false);
+        loadJob.setBlackboard(blackboard);
+        loadJob.execute(new NullProgressMonitor());
+        return new SimuLizarRuntimeState(configuration, new ModelAccess(blackboard),
+                new SimulationCancelationDelegate(() -> false));
+    }
+
+    private List<ExperimentRun> getExperimentRuns() {
+        final List<ExperimentRun> experimentRuns = new ArrayList<>();
+        for (final ExperimentGroup experimentGroup : this.repo.getExperimentGroups()) {
+            for (final ExperimentSetting experimentSetting : experimentGroup.getExperimentSettings()) {
+                experimentRuns.addAll(experimentSetting.getExperimentRuns());
+            }
+        }
+        return experimentRuns;
+    }
+
     private Map<String, Object> createSimulationProperties() {
         final Map<String, Object> properties = new HashMap<>();
 
@@ -209,7 +420,7 @@ public class SimulizarRunConfigTest {
         properties.put("EDP2RepositoryID", this.repo.getId());
         properties.put(SimuComConfig.SIMULATOR_ID, "de.uka.ipd.sdq.codegen.simucontroller.simulizar");
         properties.put(SimuComConfig.EXPERIMENT_RUN, SimuComConfig.DEFAULT_EXPERIMENT_RUN);
-        properties.put(SimuComConfig.SIMULATION_TIME, "2000");
+        properties.put(SimuComConfig.SIMULATION_TIME, String.valueOf(SIMULATION_TIME));
         properties.put(SimuComConfig.MAXIMUM_MEASUREMENT_COUNT, SimuComConfig.DEFAULT_MAXIMUM_MEASUREMENT_COUNT);
         properties.put(SimuComConfig.VERBOSE_LOGGING, false);
         properties.put(SimuComConfig.VARIATION_ID, SimuComConfig.DEFAULT_VARIATION_NAME);
@@ -0,0 +1,139 @@
+package org.palladiosimulator.simulizar.utils.tests;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.palladiosimulator.simulizar.utils.BranchSelector;
+
+public class BranchSelectorTest {
+
+    private static final int NUMBER_OF_DRAWS = 200000;
+
+    // constant that denotes the maximum delta between an observed frequency and the expected
+    // probability for which both are still considered equal
+    private static final double DELTA = 0.005;
+
+    private Random random;
+
+    @Before
+    public void setUp() {
+        this.random = new Random(42);
+    }
+
+    @Test
+    public void testFrequenciesOfNarrowBranch() {
+        assertFrequencies(new double[] { 0.1, 0.2, 0.3, 0.4 });
+    }
+
+    @Test
+    public void testFrequenciesOfWideBranch() {
+        final double[] probabilities = new double[40];
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = i % 5 + 1;
+        }
+        assertFrequencies(probabilities);
+    }
+
+    @Test
+    public void testZeroProbabilityTransitionIsNeverSelected() {
+        final double[] narrowProbabilities = { 0.5, 0, 0.5 };
+        final double[] wideProbabilities = new double[BranchSelector.MAX_CUMULATIVE_SEARCH_SIZE + 4];
+        for (int i = 0; i < wideProbabilities.length; i++) {
+            wideProbabilities[i] = i % 3 == 0 ? 0 : 1;
+        }
+        for (final double[] probabilities : new double[][] { narrowProbabilities, wideProbabilities }) {
+            final int[] counts = draw(BranchSelector.create(probabilities), probabilities.length);
+            for (int i = 0; i < probabilities.length; i++) {
+                if (probabilities[i] == 0) {
+                    assertEquals(0, counts[i]);
+                }
+            }
+        }
+        // the zero-probability transition is skipped at the boundary of its neighbours
+        final BranchSelector selector = BranchSelector.create(narrowProbabilities);
+        assertEquals(0, selector.select(0.5 - Math.ulp(0.5)));
+        assertEquals(2, selector.select(0.5));
+    }
+
+    @Test
+    public void testSingleTransitionIsAlwaysSelected() {
+        final BranchSelector selector = BranchSelector.create(new double[] { 0.3 });
+        assertEquals(1, selector.size());
+        assertEquals(0, selector.select(0));
+        assertEquals(0, selector.select(0.5));
+        assertEquals(0, selector.select(1 - Math.ulp(1.0)));
+    }
+
+    @Test
+    public void testNoTransitionIsSelectedWithoutProbabilities() {
+        assertEquals(-1, BranchSelector.create(new double[0]).select(0.5));
+        assertEquals(-1, BranchSelector.create(new double[] { 0, 0 }).select(0.5));
+        assertEquals(-1,
+                BranchSelector.create(new double[BranchSelector.MAX_CUMULATIVE_SEARCH_SIZE + 1]).select(0.5));
+    }
+
+    @Test
+    public void testCumulativeSearchUpToThreshold() {
+        // up to the threshold, the selected transition is the one of a linear search
+        for (int size = 1; size <= BranchSelector.MAX_CUMULATIVE_SEARCH_SIZE; size++) {
+            final double[] probabilities = new double[size];
+            for (int i = 0; i < size; i++) {
+                probabilities[i] = this.random.nextDouble();
+            }
+            final BranchSelector selector = BranchSelector.create(probabilities);
+            for (int i = 0; i < 10000; i++) {
+                final double randomNumber = this.random.nextDouble();
+                assertEquals(selectLinearly(probabilities, randomNumber), selector.select(randomNumber));
+            }
+        }
+    }
+
+    @Test
+    public void testFrequenciesAboveThreshold() {
+        // above the threshold, the alias table maps random numbers differently, but keeps the
+        // frequencies of the transitions
+        final double[] probabilities = new double[BranchSelector.MAX_CUMULATIVE_SEARCH_SIZE + 1];
+        for (int i = 0; i < probabilities.length; i++) {
+            probabilities[i] = i + 1;
+        }
+        assertFrequencies(probabilities);
+    }
+
+    private void assertFrequencies(final double[] probabilities) {
+        double sum = 0;
+        for (final double probability : probabilities) {
+            sum += probability;
+        }
+        final int[] counts = draw(BranchSelector.create(probabilities), probabilities.length);
+        for (int i = 0; i < probabilities.length; i++) {
+            assertEquals(probabilities[i] / sum, (double) counts[i] / NUMBER_OF_DRAWS, DELTA);
+        }
+    }
+
+    private int[] draw(final BranchSelector selector, final int size) {
+        final int[] counts = new int[size];
+        for (int i = 0; i < NUMBER_OF_DRAWS; i++) {
+            counts[selector.select(this.random.nextDouble())]++;
+        }
+        return counts;
+    }
+
+    private static int selectLinearly(final double[] probabilities, final double randomNumber) {
+        double sum = 0;
+        for (final double probability : probabilities) {
+            sum += probability;
+        }
+        final double target = sum * randomNumber;
+        double currentSum = 0;
+        for (int i = 0; i < probabilities.length; i++) {
+            currentSum += probabilities[i];
+            if (target < currentSum) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,199 @@
+package org.palladiosimulator.simulizar.utils.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import javax.measure.Measure;
+import javax.measure.unit.SI;
+import javax.measure.unit.Unit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.palladiosimulator.measurementframework.MeasuringValue;
+import org.palladiosimulator.measurementframework.TupleMeasurement;
+import org.palladiosimulator.metricspec.MetricSetDescription;
+import org.palladiosimulator.metricspec.NumericalBaseMetricDescription;
+import org.palladiosimulator.metricspec.constants.MetricDescriptionConstants;
+import org.palladiosimulator.simulizar.utils.MetricConfidenceStopCondition;
+import org.palladiosimulator.simulizar.utils.MetricConfidenceStopCondition.MetricObservation;
+
+public class MetricConfidenceStopConditionTest {
+
+    private static final MetricSetDescription RESPONSE_TIME_METRIC_TUPLE = MetricDescriptionConstants.RESPONSE_TIME_METRIC_TUPLE;
+    private static final NumericalBaseMetricDescription RESPONSE_TIME_METRIC = (NumericalBaseMetricDescription) MetricDescriptionConstants.RESPONSE_TIME_METRIC;
+    private static final MetricSetDescription STATE_OF_ACTIVE_RESOURCE_METRIC_TUPLE = MetricDescriptionConstants.STATE_OF_ACTIVE_RESOURCE_METRIC_TUPLE;
+
+    private static final double CONFIDENCE_LEVEL = 0.95;
+    private static final double HALF_WIDTH = 0.1;
+
+    // constant that denotes the maximum delta between double values for which both numbers are
+    // still considered equal
+    private static final double DELTA = Math.pow(10, -9);
+
+    private Random random;
+
+    @Before
+    public void setUp() {
+        this.random = new Random(42);
+    }
+
+    @Test
+    public void testNoObservationsNeverMeetsCondition() {
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 1, 1.0);
+        assertEquals(0, condition.getNumberOfObservations());
+        assertFalse(condition.check());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidHalfWidthIsRejected() {
+        new MetricConfidenceStopCondition(CONFIDENCE_LEVEL, 0, 1, 1.0);
+    }
+
+    @Test
+    public void testSamplesAreGroupedIntoBatches() {
+        // response times 0s, 1s, ..., 49s in batches of 5 samples: the batch means are 2s, 7s, ...,
+        // 47s, which are too spread for the requested confidence
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 5, 1.0);
+        final MetricObservation observation = condition.observeSamples("Response Time", RESPONSE_TIME_METRIC);
+        for (int i = 0; i < 50; i++) {
+            observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(i, i));
+        }
+
+        final List<Double> batchMeans = observation.getBatchMeans();
+        assertEquals(10, batchMeans.size());
+        for (int i = 0; i < batchMeans.size(); i++) {
+            assertEquals(5 * i + 2, batchMeans.get(i), DELTA);
+        }
+        assertFalse(observation.isConfidenceReached());
+        assertFalse(condition.check());
+    }
+
+    @Test
+    public void testSamplesReachConfidence() {
+        // response times alternating between 1s and 100s: the confidence interval around the mean
+        // of 50.5s narrows down to the requested half width only after several hundred batches
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 1, 1.0);
+        final MetricObservation observation = condition.observeSamples("Response Time", RESPONSE_TIME_METRIC);
+        for (int i = 0; i < 20; i++) {
+            observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(i, i % 2 == 0 ? 1 : 100));
+        }
+        assertFalse(condition.check());
+
+        for (int i = 20; i < 2000; i++) {
+            observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(i, i % 2 == 0 ? 1 : 100));
+        }
+        assertTrue(observation.isConfidenceReached());
+        assertTrue(condition.check());
+
+        // no further batches are completed once the confidence has been reached
+        final int numberOfBatches = observation.getBatchMeans().size();
+        assertTrue(numberOfBatches < 2000);
+        observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(2000, 1));
+        assertEquals(numberOfBatches, observation.getBatchMeans().size());
+    }
+
+    @Test
+    public void testConditionRequiresConfidenceOfAllObservations() {
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 1, 1.0);
+        final MetricObservation narrowObservation = condition.observeSamples("Narrow Response Time",
+                RESPONSE_TIME_METRIC);
+        final MetricObservation wideObservation = condition.observeSamples("Wide Response Time",
+                RESPONSE_TIME_METRIC);
+        assertEquals(2, condition.getNumberOfObservations());
+
+        for (int i = 0; i < 1000; i++) {
+            narrowObservation.newMeasurementAvailable(
+                    createResponseTimeTupleMeasurement(i, 1.0 + 0.1 * this.random.nextDouble()));
+        }
+        assertTrue(narrowObservation.isConfidenceReached());
+        assertFalse(condition.check());
+
+        for (int i = 0; i < 10000; i++) {
+            wideObservation.newMeasurementAvailable(
+                    createResponseTimeTupleMeasurement(i, 10.0 * this.random.nextDouble()));
+        }
+        assertTrue(wideObservation.isConfidenceReached());
+        assertTrue(condition.check());
+    }
+
+    @Test
+    public void testUtilizationIsBatchedByTime() {
+        // busy during the first quarter of each second
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 1, 1.0);
+        final MetricObservation observation = condition.observeUtilization("Utilization");
+        for (int i = 0; i < 9; i++) {
+            observation.newMeasurementAvailable(createStateTupleMeasurement(i, 1));
+            observation.newMeasurementAvailable(createStateTupleMeasurement(i + 0.25, 0));
+        }
+        assertBatchMeans(Arrays.asList(0.25, 0.25, 0.25, 0.25, 0.25, 0.25, 0.25, 0.25), observation);
+
+        // the batch [8s, 9s) is completed by the first measurement after its end
+        observation.newMeasurementAvailable(createStateTupleMeasurement(9, 1));
+        assertBatchMeans(Arrays.asList(0.25, 0.25, 0.25, 0.25, 0.25, 0.25, 0.25, 0.25, 0.25), observation);
+    }
+
+    @Test
+    public void testUtilizationOfBusyPeriodSpanningSeveralBatches() {
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 1, 1.0);
+        final MetricObservation observation = condition.observeUtilization("Utilization");
+        observation.newMeasurementAvailable(createStateTupleMeasurement(0, 2));
+        observation.newMeasurementAvailable(createStateTupleMeasurement(2.5, 0));
+        assertBatchMeans(Arrays.asList(1.0, 1.0), observation);
+
+        observation.newMeasurementAvailable(createStateTupleMeasurement(3, 0));
+        assertBatchMeans(Arrays.asList(1.0, 1.0, 0.5), observation);
+    }
+
+    @Test
+    public void testThroughputIsBatchedByTime() {
+        // two measurements per second
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 1, 2.0);
+        final MetricObservation observation = condition.observeThroughput("Throughput");
+        for (int i = 0; i <= 10; i++) {
+            observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(0.5 * i, 1));
+        }
+        assertBatchMeans(Arrays.asList(2.0, 2.0), observation);
+    }
+
+    @Test
+    public void testThroughputOfBatchesWithoutMeasurements() {
+        final MetricConfidenceStopCondition condition = new MetricConfidenceStopCondition(CONFIDENCE_LEVEL,
+                HALF_WIDTH, 1, 1.0);
+        final MetricObservation observation = condition.observeThroughput("Throughput");
+        observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(0, 1));
+        observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(0.5, 1));
+        observation.newMeasurementAvailable(createResponseTimeTupleMeasurement(3.5, 1));
+        assertBatchMeans(Arrays.asList(2.0, 0.0, 0.0), observation);
+    }
+
+    private static void assertBatchMeans(final List<Double> expectedBatchMeans, final MetricObservation observation) {
+        final List<Double> batchMeans = observation.getBatchMeans();
+        assertEquals(expectedBatchMeans.size(), batchMeans.size());
+        for (int i = 0; i < expectedBatchMeans.size(); i++) {
+            assertEquals(expectedBatchMeans.get(i), batchMeans.get(i), DELTA);
+        }
+    }
+
+    private static MeasuringValue createResponseTimeTupleMeasurement(final double pointInTime,
+            final double responseTime) {
+        return new TupleMeasurement(RESPONSE_TIME_METRIC_TUPLE, Measure.valueOf(pointInTime, SI.SECOND),
+                Measure.valueOf(responseTime, SI.SECOND));
+    }
+
+    private static MeasuringValue createStateTupleMeasurement(final double pointInTime, final long state) {
+        return new TupleMeasurement(STATE_OF_ACTIVE_RESOURCE_METRIC_TUPLE, Measure.valueOf(pointInTime, SI.SECOND),
+                Measure.valueOf(state, Unit.ONE));
+    }
+}